@@ -19,6 +19,8 @@ import com.xuesinuo.pignoo.core.annotation.Table;
 import com.xuesinuo.pignoo.core.config.DatabaseEngine;
 import com.xuesinuo.pignoo.core.entity.EntityMapper;
 import com.xuesinuo.pignoo.core.exception.DataSourceException;
+import com.xuesinuo.pignoo.core.implement.InterceptingSqlExecuter;
+import com.xuesinuo.pignoo.core.implement.SimpleJdbcSqlExecuter;
 
 import io.github.classgraph.ClassGraph;
 import io.github.classgraph.ClassInfo;
@@ -33,7 +35,7 @@ import lombok.extern.slf4j.Slf4j;
  * 
  * @author xuesinuo
  * @since 0.3.0
- * @version 0.3.0
+ * @version 1.2.0
  */
 @Slf4j
 public class EntityScaner {
@@ -61,7 +63,8 @@ public class EntityScaner {
         }
         switch (pignooConfig.getEngine()) {
         case DatabaseEngine.MySQL:
-            this.databaseChecker = new DatabaseChecker4MySql(dataSource, entityScanConfig.getTypeMapper(), entityScanConfig.getStrictColumnType());
+            this.databaseChecker = new DatabaseChecker4MySql(dataSource, entityScanConfig.getTypeMapper(), entityScanConfig.getStrictColumnType(),
+                    InterceptingSqlExecuter.build(pignooConfig.getSqlExecuter() == null ? new SimpleJdbcSqlExecuter(false) : pignooConfig.getSqlExecuter(), pignooConfig.getSqlInterceptors()));
             break;
         default:
             throw new DataSourceException("Unknow database engine");
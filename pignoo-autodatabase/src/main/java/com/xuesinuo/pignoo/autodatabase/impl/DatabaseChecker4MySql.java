@@ -35,7 +35,7 @@ import com.xuesinuo.pignoo.core.implement.SimpleJdbcSqlExecuter;
  * 
  * @author xuesinuo
  * @since 0.3.0
- * @version 0.3.1
+ * @version 1.2.0
  */
 public class DatabaseChecker4MySql implements DatabaseChecker {
     /**
@@ -43,7 +43,7 @@ public class DatabaseChecker4MySql implements DatabaseChecker {
      * <p>
      * SQL Executer
      */
-    protected static final SqlExecuter sqlExecuter = new SimpleJdbcSqlExecuter(false);
+    protected final SqlExecuter sqlExecuter;
 
     private final DataSource dataSource;
 
@@ -53,9 +53,33 @@ public class DatabaseChecker4MySql implements DatabaseChecker {
     private final boolean strictColumnType;
 
     public DatabaseChecker4MySql(DataSource dataSource, TypeMapper typeMapper, boolean strictColumnType) {
+        this(dataSource, typeMapper, strictColumnType, null);
+    }
+
+    /**
+     * 构造器，使用指定的SQL执行器
+     * <p>
+     * Constructor, use the given SQL executer
+     * 
+     * @param dataSource       数据源
+     *                         <p>
+     *                         Data source
+     * @param typeMapper       类型映射
+     *                         <p>
+     *                         Type mapper
+     * @param strictColumnType 严格匹配数据库的数据类型
+     *                         <p>
+     *                         Strictly match the column type of the database
+     * @param sqlExecuter      SQL执行器，为null时使用不打印日志的{@link SimpleJdbcSqlExecuter}
+     *                         <p>
+     *                         SQL executer, uses {@link SimpleJdbcSqlExecuter} without logging when null
+     * @since 1.2.0
+     */
+    public DatabaseChecker4MySql(DataSource dataSource, TypeMapper typeMapper, boolean strictColumnType, SqlExecuter sqlExecuter) {
         this.dataSource = dataSource;
         this.typeMapper = typeMapper;
         this.strictColumnType = strictColumnType;
+        this.sqlExecuter = sqlExecuter == null ? new SimpleJdbcSqlExecuter(false) : sqlExecuter;
     }
 
     @Override
@@ -2,15 +2,20 @@ package com.xuesinuo.pignoo.core;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.sql.DataSource;
 
+import com.xuesinuo.pignoo.core.cache.EntityCaches;
+import com.xuesinuo.pignoo.core.cache.QueryCaches;
 import com.xuesinuo.pignoo.core.config.DatabaseEngine;
 import com.xuesinuo.pignoo.core.exception.DataSourceException;
 import com.xuesinuo.pignoo.core.implement.BasePignoo;
 import com.xuesinuo.pignoo.core.implement.TransactionPignoo;
+import com.xuesinuo.pignoo.core.metrics.SqlMetrics;
 
 /**
  * 格鲁（Gru） - 小黄人的主人
@@ -27,11 +32,12 @@ import com.xuesinuo.pignoo.core.implement.TransactionPignoo;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 0.2.4
+ * @version 1.2.0
  */
 public class Gru {
     private final PignooConfig config;// Pignoo配置
     private final DataSource dataSource;// 数据源
+    private final SqlMetrics metrics;// SQL统计，未开启时为null
 
     /**
      * Pignoo原生事务管理器：Gru，的构造器
@@ -72,6 +78,17 @@ public class Gru {
             throw new DataSourceException("Unknow database engine");
         }
         config.setEngine(engine);
+        if (config.getSqlMetrics() != null && config.getSqlMetrics()) {
+            this.metrics = new SqlMetrics();
+            List<SqlInterceptor> interceptors = new ArrayList<>();
+            interceptors.add(this.metrics);
+            if (config.getSqlInterceptors() != null) {
+                interceptors.addAll(config.getSqlInterceptors());
+            }
+            config.setSqlInterceptors(interceptors);// 只修改副本，同一个配置构造多个Gru时统计互不影响
+        } else {
+            this.metrics = null;
+        }
         this.config = config;
         this.dataSource = dataSource;
     }
@@ -90,6 +107,48 @@ public class Gru {
         this(dataSource, new PignooConfig());
     }
 
+    /**
+     * 读取SQL统计：按SQL形态与实体类型统计的调用次数、失败次数、行数，以及获取连接、执行、结果映射的延迟分布
+     * <p>
+     * Read SQL metrics: call count, error count, rows, and latency distributions of connection acquisition, execution and result mapping, by SQL shape and entity type
+     *
+     * @return SQL统计，未通过PignooConfig.sqlMetrics开启时为null
+     *         <p>
+     *         SQL metrics, null when not enabled by PignooConfig.sqlMetrics
+     * @since 1.2.0
+     */
+    public SqlMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * 读取二级缓存：可查看各实体缓存的命中、未命中、淘汰与失效次数
+     * <p>
+     * Read the second-level caches: hits, misses, evictions and invalidations of each entity cache can be viewed
+     *
+     * @return 二级缓存，未配置时为null
+     *         <p>
+     *         Second-level caches, null when not configured
+     * @since 1.2.0
+     */
+    public EntityCaches caches() {
+        return this.config.getEntityCaches();
+    }
+
+    /**
+     * 读取查询结果缓存：可查看各实体缓存的命中、未命中、合并与淘汰次数
+     * <p>
+     * Read the query result caches: hits, misses, coalesced misses and evictions of each entity cache can be viewed
+     *
+     * @return 查询结果缓存，未配置时为null
+     *         <p>
+     *         Query result caches, null when not configured
+     * @since 1.2.0
+     */
+    public QueryCaches queryCaches() {
+        return this.config.getQueryCaches();
+    }
+
     /**
      * 在非事务环境执行Pignoo
      * <p>
@@ -31,7 +31,7 @@ package com.xuesinuo.pignoo.core;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 0.2.4
+ * @version 1.2.0
  */
 public interface Pignoo extends AutoCloseable {
 
@@ -73,4 +73,13 @@ public interface Pignoo extends AutoCloseable {
      * @return a boolean
      */
     public boolean closed();
+
+    /**
+     * 刷新延迟的setter更新，只在开启PignooConfig.deferSetterUpdate时有效
+     * <p>
+     * Flush the deferred setter updates, only effective when PignooConfig.deferSetterUpdate is enabled
+     *
+     * @since 1.2.0
+     */
+    public default void flush() {}
 }
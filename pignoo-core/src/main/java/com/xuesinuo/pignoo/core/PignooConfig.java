@@ -1,9 +1,16 @@
 package com.xuesinuo.pignoo.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.xuesinuo.pignoo.core.cache.EntityCaches;
+import com.xuesinuo.pignoo.core.cache.QueryCaches;
 import com.xuesinuo.pignoo.core.config.AnnotationMode;
 import com.xuesinuo.pignoo.core.config.DatabaseEngine;
+import com.xuesinuo.pignoo.core.config.LockMode;
 import com.xuesinuo.pignoo.core.config.NamingMode;
 import com.xuesinuo.pignoo.core.config.PrimaryKeyNamingConvention;
+import com.xuesinuo.pignoo.core.implement.IdBatcher;
 
 import lombok.Data;
 
@@ -14,7 +21,7 @@ import lombok.Data;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.0
+ * @version 1.2.0
  */
 @Data
 public class PignooConfig {
@@ -37,6 +44,18 @@ public class PignooConfig {
         config.setPrimaryKeyNamingConvention(this.primaryKeyNamingConvention);
         config.setAutoPrimaryKey(this.autoPrimaryKey);
         config.setOpenSetterProxy(this.openSetterProxy);
+        config.setBatchSize(this.batchSize);
+        config.setReadBackAfterAdd(this.readBackAfterAdd);
+        config.setLockMode(this.lockMode);
+        config.setStatementCacheSize(this.statementCacheSize);
+        config.setSqlExecuter(this.sqlExecuter);
+        config.setSqlInterceptors(this.sqlInterceptors == null ? null : new ArrayList<>(this.sqlInterceptors));
+        config.setSqlMetrics(this.sqlMetrics);
+        config.setDeferSetterUpdate(this.deferSetterUpdate);
+        config.setTransactionIdentityMap(this.transactionIdentityMap);
+        config.setEntityCaches(this.entityCaches);
+        config.setQueryCaches(this.queryCaches);
+        config.setIdBatcher(this.idBatcher);
         return config;
     }
 
@@ -91,4 +110,120 @@ public class PignooConfig {
      * @version 1.1.0
      */
     private Boolean openSetterProxy = true;
+
+    /**
+     * 批量操作时，每条SQL最多处理的数据条数
+     * <p>
+     * The maximum number of rows handled by one SQL in batch operations
+     * 
+     * @version 1.2.0
+     */
+    private Integer batchSize = 1000;
+
+    /**
+     * writer新增数据后，是否从数据库反查新增的数据。关闭后将直接返回传入的数据（回填自增主键），数据库默认值不会被回填
+     * <p>
+     * Whether the writer queries the added data from the database after adding. When closed, the given data is returned directly (with auto-generated primary key set), and database default
+     * values are not set back
+     * 
+     * @version 1.2.0
+     */
+    private Boolean readBackAfterAdd = true;
+
+    /**
+     * 事务中writer的锁定读方式，为null时等同于{@link LockMode#WAIT}
+     * <p>
+     * The locking read mode of the writer in a transaction, same as {@link LockMode#WAIT} when null
+     * 
+     * @version 1.2.0
+     */
+    private LockMode lockMode = LockMode.WAIT;
+
+    /**
+     * 每个Pignoo连接缓存的PreparedStatement数量，不大于0时不缓存
+     * <p>
+     * The number of PreparedStatements cached for each Pignoo connection, no cache when it is not greater than 0
+     * 
+     * @version 1.2.0
+     */
+    private Integer statementCacheSize = 64;
+
+    /**
+     * SQL执行器，不配置时使用{@link com.xuesinuo.pignoo.core.implement.SimpleJdbcSqlExecuter}
+     * <p>
+     * SQL executer, uses {@link com.xuesinuo.pignoo.core.implement.SimpleJdbcSqlExecuter} when not configured
+     * 
+     * @version 1.2.0
+     */
+    private SqlExecuter sqlExecuter;
+
+    /**
+     * SQL拦截器链，按顺序包装每一次SQL执行
+     * <p>
+     * SQL interceptor chain, wraps every SQL execution in order
+     * 
+     * @version 1.2.0
+     */
+    private List<SqlInterceptor> sqlInterceptors;
+
+    /**
+     * 是否开启内置的SQL统计，开启后可以从{@link Gru#metrics()}读取；默认关闭，开启后每条SQL都要归一化与记录
+     * <p>
+     * Whether to enable the built-in SQL metrics, which can be read from {@link Gru#metrics()} when enabled; off by default, because every SQL is normalized and recorded
+     * when on
+     * 
+     * @version 1.2.0
+     */
+    private Boolean sqlMetrics = false;
+
+    /**
+     * writer执行Setter时，是否延迟更新数据库：修改的字段合并为每个实体一条UPDATE，在{@link Pignoo#flush()}、同一张表的下一条SQL之前或事务提交时批量写入
+     * <p>
+     * Whether to defer the database update when the writer executes the Setter: modified fields are merged into one UPDATE per entity, and written in batches on
+     * {@link Pignoo#flush()}, before the next SQL on the same table, or when the transaction commits
+     * <p>
+     * pignoo-spring中只在Spring事务内生效：事务外的Pignoo被所有线程共享，setter仍然立即更新
+     * <p>
+     * In pignoo-spring it only takes effect inside Spring transactions: the Pignoo outside of transactions is shared by all threads, so setters still update immediately
+     * 
+     * @version 1.2.0
+     */
+    private Boolean deferSetterUpdate = false;
+
+    /**
+     * 事务内是否开启一级缓存：同一个事务中writer按主键读取过的实体，再次按主键读取时不再查询，直接返回同一个对象；事务提交或回滚时清空
+     * <p>
+     * Whether to enable the first-level cache in transactions: entities read by primary key through writers in the same transaction are returned as the same object
+     * without querying again when read by primary key again; cleared when the transaction commits or rolls back
+     * 
+     * @version 1.2.0
+     */
+    private Boolean transactionIdentityMap = false;
+
+    /**
+     * 按主键的二级缓存，为null时不缓存。复制配置时共享同一个登记处
+     * <p>
+     * Second-level cache by primary key, no cache when null. The same registry is shared when the configuration is copied
+     * 
+     * @version 1.2.0
+     */
+    private EntityCaches entityCaches;
+
+    /**
+     * 查询结果缓存，为null时不缓存。复制配置时共享同一个登记处
+     * <p>
+     * Query result cache, no cache when null. The same registry is shared when the configuration is copied
+     * 
+     * @version 1.2.0
+     */
+    private QueryCaches queryCaches;
+
+    /**
+     * getById的合并器，为null时不合并。复制配置时共享同一个合并器
+     * <p>
+     * Batcher of getById, no batching when null. The same batcher is shared when the configuration is copied
+     * 
+     * @version 1.2.0
+     */
+    private IdBatcher idBatcher;
 }
@@ -3,7 +3,9 @@ package com.xuesinuo.pignoo.core;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.xuesinuo.pignoo.core.PignooSorter.SMode;
 
@@ -27,7 +29,7 @@ import com.xuesinuo.pignoo.core.PignooSorter.SMode;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.2.3
- * @version 1.1.0
+ * @version 1.2.0
  */
 public interface PignooReader<E> extends Iterable<E> {
 
@@ -97,6 +99,86 @@ public interface PignooReader<E> extends Iterable<E> {
      */
     List<E> getAll();
 
+    /**
+     * 投影查询：SELECT中只包含被选择的列，结果可以是部分实体、DTO或record
+     * <p>
+     * Projection query: only the selected columns are included in SELECT, and the result can be partial entities, DTOs or records
+     *
+     * @param fields 被选择的属性，如Pig::getId
+     *               <p>
+     *               Selected properties, such as Pig::getId
+     * @return 投影查询
+     *         <p>
+     *         Projection query
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    PignooSelector<E> select(Function<E, ?>... fields);
+
+    /**
+     * 获取一列的long数组：直接从结果集读取，不装箱、不创建实体，跳过NULL
+     * <p>
+     * Get a long array of one column: read directly from the result set without boxing or creating entities, NULL values are skipped
+     *
+     * @param field 要读取的字段
+     *              <p>
+     *              Field
+     * @return long数组，顺序与过滤、排序后的结果一致；有NULL时长度小于结果的行数
+     *         <p>
+     *         long array, in the order of the filtered and sorted result; shorter than the number of rows when there are NULL values
+     * @since 1.2.0
+     */
+    long[] getLongs(Function<E, ?> field);
+
+    /**
+     * 获取一列的int数组：直接从结果集读取，不装箱、不创建实体，跳过NULL
+     * <p>
+     * Get a int array of one column: read directly from the result set without boxing or creating entities, NULL values are skipped
+     *
+     * @param field 要读取的字段
+     *              <p>
+     *              Field
+     * @return int数组，顺序与过滤、排序后的结果一致；有NULL时长度小于结果的行数
+     *         <p>
+     *         int array, in the order of the filtered and sorted result; shorter than the number of rows when there are NULL values
+     * @since 1.2.0
+     */
+    int[] getInts(Function<E, ?> field);
+
+    /**
+     * 获取一列的double数组：直接从结果集读取，不装箱、不创建实体，跳过NULL
+     * <p>
+     * Get a double array of one column: read directly from the result set without boxing or creating entities, NULL values are skipped
+     *
+     * @param field 要读取的字段
+     *              <p>
+     *              Field
+     * @return double数组，顺序与过滤、排序后的结果一致；有NULL时长度小于结果的行数
+     *         <p>
+     *         double array, in the order of the filtered and sorted result; shorter than the number of rows when there are NULL values
+     * @since 1.2.0
+     */
+    double[] getDoubles(Function<E, ?> field);
+
+    /**
+     * 流式获取列表：与{@link #getAll()}使用相同的过滤与排序，只执行一次查询，数据库游标逐行读取并惰性解析，内存占用不随数据量增长
+     * <p>
+     * Get the list as a stream: uses the same filter and sort as {@link #getAll()}, executes only one query, reads row by row through a database cursor and decodes lazily, so memory does not
+     * grow with the amount of data
+     * <p>
+     * 流必须关闭（推荐try-with-resources）。MySQL的流式结果集独占连接：关闭前同一个连接（如同一个Pignoo或事务）上的任何其他语句（包括forEach中的writer调用、setter代理的更新）都会立即抛出PignooRuntimeException
+     * <p>
+     * The stream must be closed (try-with-resources is recommended). A MySQL streaming result set holds the connection exclusively: before it is closed, any other
+     * statement on the same connection, such as in the same Pignoo or transaction, fails immediately with PignooRuntimeException, including writer calls inside forEach and
+     * updates of setter proxies
+     *
+     * @return 惰性解析的流
+     *         <p>
+     *         Lazily decoded stream
+     * @since 1.2.0
+     */
+    Stream<E> stream();
+
     /**
      * 获取部分List
      * <p>
@@ -595,6 +677,44 @@ public interface PignooReader<E> extends Iterable<E> {
      */
     boolean containsIds(Collection<E> collection);
 
+    /**
+     * 按主键获取一条数据，filter同样生效
+     * <p>
+     * Get one data by primary key, the filter also applies
+     * <p>
+     * 配置了PignooConfig.idBatcher时，不在事务中且没有filter的调用会与其他线程短时间内的调用合并为一次IN查询
+     * <p>
+     * When PignooConfig.idBatcher is configured, calls outside of transactions without a filter are merged with calls from other threads within a short window into
+     * one IN query
+     *
+     * @param id 主键
+     *           <p>
+     *           Primary key
+     * @return 数据，不存在时为null
+     *         <p>
+     *         Data, null when not found
+     * @since 1.2.0
+     */
+    E getById(Object id);
+
+    /**
+     * 按主键批量获取数据，filter同样生效；主键较多时分批执行IN查询
+     * <p>
+     * Get data by primary keys, the filter also applies; IN queries are executed in chunks when there are many primary keys
+     *
+     * @param <K> 主键类型
+     *            <p>
+     *            Primary key type
+     * @param ids 主键集合
+     *            <p>
+     *            Primary keys
+     * @return 主键 -&gt; 数据，按传入的顺序，不存在的主键不在其中
+     *         <p>
+     *         Primary key -&gt; data, in the given order, primary keys not found are absent
+     * @since 1.2.0
+     */
+    <K> Map<K, E> getByIds(Collection<K> ids);
+
     /**
      * 设置迭代器步长：用于默认迭代器，也就是用于forEach循环
      * <p>
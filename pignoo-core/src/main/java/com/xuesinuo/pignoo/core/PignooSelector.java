@@ -0,0 +1,76 @@
+package com.xuesinuo.pignoo.core;
+
+import java.util.List;
+
+/**
+ * 投影查询：只查询、只解析被选择的列
+ * <p>
+ * Projection query: only queries and decodes the selected columns
+ * <p>
+ * 由{@link PignooReader#select(java.util.function.Function...)}创建，保持创建时的查询条件与排序；投影查询总是只读的，不会加写锁
+ * <p>
+ * Created by {@link PignooReader#select(java.util.function.Function...)}, keeps the query conditions and sorting at creation time; projection queries are always read-only and do not form write locks
+ *
+ * @param <E> JavaBean Type
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public interface PignooSelector<E> {
+
+    /**
+     * 获取部分实体的列表：只有被选择的属性有值
+     * <p>
+     * Get a list of partial entities: only the selected properties have values
+     *
+     * @return 部分实体的列表
+     *         <p>
+     *         List of partial entities
+     */
+    List<E> getAll();
+
+    /**
+     * 获取第一个部分实体
+     * <p>
+     * Get the first partial entity
+     *
+     * @return 部分实体，没有数据时为null
+     *         <p>
+     *         Partial entity, null when there is no data
+     */
+    E getFirst();
+
+    /**
+     * 获取列表，映射到DTO或record：record按组件名映射，DTO按setter映射，属性名与实体的属性名一致
+     * <p>
+     * Get the list mapped to DTOs or records: records are mapped by component name, DTOs by setter, and the property names are the same as the entity
+     *
+     * @param <R> 目标类型
+     *            <p>
+     *            Target type
+     * @param c   目标类型
+     *            <p>
+     *            Target type
+     * @return 列表
+     *         <p>
+     *         The list
+     */
+    <R> List<R> into(Class<R> c);
+
+    /**
+     * 获取第一个结果，映射到DTO或record
+     * <p>
+     * Get the first result mapped to a DTO or record
+     *
+     * @param <R> 目标类型
+     *            <p>
+     *            Target type
+     * @param c   目标类型
+     *            <p>
+     *            Target type
+     * @return 结果，没有数据时为null
+     *         <p>
+     *         The result, null when there is no data
+     */
+    <R> R intoFirst(Class<R> c);
+}
@@ -1,8 +1,12 @@
 package com.xuesinuo.pignoo.core;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.function.Function;
 
+import com.xuesinuo.pignoo.core.config.LockMode;
+
 /**
  * PignooWriter是Pignoo提供的List
  * <p>
@@ -28,7 +32,7 @@ import java.util.function.Function;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.0
+ * @version 1.2.0
  */
 public interface PignooWriter<E> extends PignooReader<E> {
     /**
@@ -39,12 +43,91 @@ public interface PignooWriter<E> extends PignooReader<E> {
      * @param e 数据
      *          <p>
      *          Data
-     * @return 新增后的数据（从List反查出来的）
+     * @return 新增后的数据（从List反查出来的；关闭反查时为传入的数据，已回填主键）
      *         <p>
-     *         Data after adding (retrieved from the List)
+     *         Data after adding (retrieved from the List; the given data with primary key set when read-back is closed)
      */
     E add(E e);
 
+    /**
+     * 设置新增数据后是否从数据库反查，默认使用{@link PignooConfig}的readBackAfterAdd
+     * <p>
+     * Set whether to query the database after adding data, default to readBackAfterAdd of {@link PignooConfig}
+     * 
+     * @param readBackAfterAdd 是否反查
+     *                         <p>
+     *                         Whether to query back
+     * @since 1.2.0
+     */
+    void setReadBackAfterAdd(boolean readBackAfterAdd);
+
+    /**
+     * 新增数据后是否从数据库反查
+     * <p>
+     * Whether to query the database after adding data
+     * 
+     * @return 是否反查
+     *         <p>
+     *         Whether to query back
+     * @since 1.2.0
+     */
+    boolean isReadBackAfterAdd();
+
+    /**
+     * 设置事务中锁定读的方式，默认使用{@link PignooConfig}的lockMode
+     * <p>
+     * Set the locking read mode in a transaction, default to lockMode of {@link PignooConfig}
+     *
+     * @param lockMode 锁定读的方式
+     *                 <p>
+     *                 Locking read mode
+     * @since 1.2.0
+     */
+    void setLockMode(LockMode lockMode);
+
+    /**
+     * 事务中锁定读的方式
+     * <p>
+     * Locking read mode in a transaction
+     *
+     * @return 锁定读的方式
+     *         <p>
+     *         Locking read mode
+     * @since 1.2.0
+     */
+    LockMode getLockMode();
+
+    /**
+     * 批量新增数据：按{@link PignooConfig}的batchSize分批，每批一条多行INSERT，自增主键会回填到传入的数据中，不会再反查数据库
+     * <p>
+     * Add data in batches: split by batchSize of {@link PignooConfig}, one multi-row INSERT per batch, the auto-generated primary keys are set back to the given data, and the database will not be
+     * queried again
+     *
+     * @param collection 数据集合
+     *                   <p>
+     *                   Data collection
+     * @return 新增后的数据（传入的数据，已回填主键；数据库默认值不会被回填）
+     *         <p>
+     *         Data after adding (the given data with primary keys set; database default values are not set back)
+     * @since 1.2.0
+     */
+    List<E> addAll(Collection<E> collection);
+
+    /**
+     * 流式批量新增数据：边读取边分批写入，不在内存中保留全部数据，自增主键会回填到传入的数据中
+     * <p>
+     * Add data in batches as a stream: write while reading without keeping all the data in memory, the auto-generated primary keys are set back to the given data
+     *
+     * @param iterator 数据遍历器
+     *                 <p>
+     *                 Data iterator
+     * @return 新增条数
+     *         <p>
+     *         Number of added entries
+     * @since 1.2.0
+     */
+    long addAll(Iterator<E> iterator);
+
     /**
      * 取出并移除第一条数据
      * <p>
@@ -69,6 +152,30 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     E pollAny();
 
+    /**
+     * 取出并移除最多n条满足条件的数据：事务中一次查询锁定，一次删除
+     * <p>
+     * Take out and remove at most n data that meet the condition: in a transaction, one query to lock and one delete
+     * <p>
+     * 在事务中配合{@link LockMode#SKIP_LOCKED}，多个消费者可以同时从一张队列表中各自取走不同的数据
+     * <p>
+     * In a transaction with {@link LockMode#SKIP_LOCKED}, multiple consumers can take different data from the same queue table at the same time
+     * <p>
+     * 不在事务中时读取不加锁，选中的行逐条删除，只返回本次删除成功的行，可能少于选中的行
+     * <p>
+     * Outside of transactions the read takes no lock, the selected rows are deleted one by one, and only the rows deleted by this call are returned, which may be fewer
+     * than the selected rows
+     *
+     * @param n 最多取出的条数
+     *          <p>
+     *          The maximum number of data to take out
+     * @return 取出的数据
+     *         <p>
+     *         Data taken out
+     * @since 1.2.0
+     */
+    List<E> pollBatch(int n);
+
     /**
      * 根据ID修改数据：混入不为NULL的属性
      * <p>
@@ -83,6 +190,22 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     long mixById(E e);
 
+    /**
+     * 根据ID批量修改数据：混入不为NULL的属性；连续相同的SQL按{@link PignooConfig}的batchSize以JDBC批处理执行，按集合的顺序写入
+     * <p>
+     * Modify data in batches by Primary-Key: mix in properties that are not NULL; consecutive identical SQL is executed as JDBC batches split by batchSize of
+     * {@link PignooConfig}, written in the order of the collection
+     *
+     * @param collection 含ID的数据集合
+     *                   <p>
+     *                   Data collection with Primary-Key
+     * @return 受影响条数（驱动无法给出的行数不计入）
+     *         <p>
+     *         Number of affected entries (rows the driver cannot report are not counted)
+     * @since 1.2.0
+     */
+    long mixByIds(Collection<E> collection);
+
     /**
      * 修改数据：混入不为NULL的属性
      * <p>
@@ -111,6 +234,22 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     long replaceById(E e);
 
+    /**
+     * 根据ID批量修改数据：完全替换；连续相同的SQL按{@link PignooConfig}的batchSize以JDBC批处理执行，按集合的顺序写入
+     * <p>
+     * Modify data in batches by Primary-Key: completely replace; consecutive identical SQL is executed as JDBC batches split by batchSize of {@link PignooConfig}, written
+     * in the order of the collection
+     *
+     * @param collection 含ID的数据集合
+     *                   <p>
+     *                   Data collection with Primary-Key
+     * @return 受影响条数（驱动无法给出的行数不计入）
+     *         <p>
+     *         Number of affected entries (rows the driver cannot report are not counted)
+     * @since 1.2.0
+     */
+    long replaceByIds(Collection<E> collection);
+
     /**
      * 修改数据：完全替换
      * <p>
@@ -125,6 +264,84 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     long replaceAll(E e);
 
+    /**
+     * 根据ID新增或修改数据：主键不存在时新增，存在时混入不为NULL的属性
+     * <p>
+     * Add or modify data by Primary-Key: add when the Primary-Key does not exist, otherwise mix in properties that are not NULL
+     * <p>
+     * 自增主键不会回填
+     * <p>
+     * Auto-generated primary keys are not set back
+     *
+     * @param e 数据
+     *          <p>
+     *          Data
+     * @return 受影响条数（MySQL中新增计1，修改计2，未变化计0）
+     *         <p>
+     *         Number of affected entries (in MySQL, 1 for added, 2 for modified, 0 for unchanged)
+     * @since 1.2.0
+     */
+    long mixUpsert(E e);
+
+    /**
+     * 根据ID批量新增或修改数据：主键不存在时新增，存在时混入不为NULL的属性；按{@link PignooConfig}的batchSize分批，每批一条SQL
+     * <p>
+     * Add or modify data in batches by Primary-Key: add when the Primary-Key does not exist, otherwise mix in properties that are not NULL; split by batchSize of
+     * {@link PignooConfig}, one statement per batch
+     * <p>
+     * 不使用filter条件，自增主键不会回填
+     * <p>
+     * The filter is not used, and auto-generated primary keys are not set back
+     *
+     * @param collection 数据集合
+     *                   <p>
+     *                   Data collection
+     * @return 受影响条数（MySQL中新增计1，修改计2，未变化计0）
+     *         <p>
+     *         Number of affected entries (in MySQL, 1 for added, 2 for modified, 0 for unchanged)
+     * @since 1.2.0
+     */
+    long mixUpsertAll(Collection<E> collection);
+
+    /**
+     * 根据ID新增或修改数据：主键不存在时新增，存在时完全替换
+     * <p>
+     * Add or modify data by Primary-Key: add when the Primary-Key does not exist, otherwise completely replace
+     * <p>
+     * 自增主键不会回填
+     * <p>
+     * Auto-generated primary keys are not set back
+     *
+     * @param e 数据
+     *          <p>
+     *          Data
+     * @return 受影响条数（MySQL中新增计1，修改计2，未变化计0）
+     *         <p>
+     *         Number of affected entries (in MySQL, 1 for added, 2 for modified, 0 for unchanged)
+     * @since 1.2.0
+     */
+    long upsert(E e);
+
+    /**
+     * 根据ID批量新增或修改数据：主键不存在时新增，存在时完全替换；按{@link PignooConfig}的batchSize分批，每批一条SQL
+     * <p>
+     * Add or modify data in batches by Primary-Key: add when the Primary-Key does not exist, otherwise completely replace; split by batchSize of {@link PignooConfig},
+     * one statement per batch
+     * <p>
+     * 不使用filter条件，自增主键不会回填
+     * <p>
+     * The filter is not used, and auto-generated primary keys are not set back
+     *
+     * @param collection 数据集合
+     *                   <p>
+     *                   Data collection
+     * @return 受影响条数（MySQL中新增计1，修改计2，未变化计0）
+     *         <p>
+     *         Number of affected entries (in MySQL, 1 for added, 2 for modified, 0 for unchanged)
+     * @since 1.2.0
+     */
+    long upsertAll(Collection<E> collection);
+
     /**
      * 根据ID删除数据
      * <p>
@@ -139,6 +356,21 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     long removeById(E e);
 
+    /**
+     * 根据ID批量删除数据：按{@link PignooConfig}的batchSize分批，每批一条IN条件的DELETE
+     * <p>
+     * Delete data in batches by Primary-Key: split by batchSize of {@link PignooConfig}, one DELETE with an IN condition per batch
+     *
+     * @param collection 含ID的数据集合
+     *                   <p>
+     *                   Data collection with Primary-Key
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     * @since 1.2.0
+     */
+    long removeByIds(Collection<E> collection);
+
     /**
      * 删除数据
      * <p>
@@ -150,6 +382,55 @@ public interface PignooWriter<E> extends PignooReader<E> {
      */
     long removeAll();
 
+    /**
+     * 原子地增加满足条件的数据的一个数值属性：一条UPDATE col = col + delta，不需要先查询再写回
+     * <p>
+     * Atomically increase a numeric property of the data that meets the condition: one UPDATE col = col + delta, without reading first and writing back
+     * <p>
+     * delta为负数时即为减少；值为NULL的列仍为NULL
+     * <p>
+     * A negative delta decreases the value; columns whose value is NULL stay NULL
+     *
+     * @param <N>   数值类型
+     *              <p>
+     *              Numeric type
+     * @param field 属性
+     *              <p>
+     *              Property
+     * @param delta 增量
+     *              <p>
+     *              Increment
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     * @since 1.2.0
+     */
+    <N extends Number> long increment(Function<E, N> field, N delta);
+
+    /**
+     * 比较并设置：满足条件且属性值等于expected的数据，属性值改为newValue
+     * <p>
+     * Compare and set: for the data that meets the condition and whose property value equals expected, set the property value to newValue
+     *
+     * @param <R>      属性类型
+     *                 <p>
+     *                 Property type
+     * @param field    属性
+     *                 <p>
+     *                 Property
+     * @param expected 期望的当前值，NULL表示当前值为NULL
+     *                 <p>
+     *                 Expected current value, NULL means the current value is NULL
+     * @param newValue 新值
+     *                 <p>
+     *                 New value
+     * @return 是否修改了至少一条数据
+     *         <p>
+     *         Whether at least one data was modified
+     * @since 1.2.0
+     */
+    <R> boolean compareAndSet(Function<E, R> field, R expected, R newValue);
+
     @Override
     PignooWriter<E> sort(Function<E, ?> field, PignooSorter.SMode mode);
 
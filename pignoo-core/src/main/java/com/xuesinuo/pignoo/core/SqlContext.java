@@ -0,0 +1,159 @@
+package com.xuesinuo.pignoo.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * 一次SQL执行的上下文，在{@link SqlInterceptor}之间传递
+ * <p>
+ * Context of one SQL execution, passed between {@link SqlInterceptor}s
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Data
+public class SqlContext {
+
+    private static final ThreadLocal<SqlContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 当前线程正在执行的SQL上下文，没有拦截器时为null；SqlExecuter实现可以向其中填写各阶段耗时
+     * <p>
+     * The SQL context being executed by the current thread, null when there is no interceptor; SqlExecuter implementations can fill the phase timings into it
+     *
+     * @return SQL执行上下文
+     *         <p>
+     *         SQL execution context
+     */
+    public static SqlContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 绑定当前线程的SQL上下文，由拦截器链在调用SqlExecuter前后使用
+     * <p>
+     * Bind the SQL context of the current thread, used by the interceptor chain before and after calling the SqlExecuter
+     *
+     * @param context SQL执行上下文，null表示解绑
+     *                <p>
+     *                SQL execution context, null to unbind
+     */
+    public static void bind(SqlContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+    /**
+     * SQL执行的类型，对应{@link SqlExecuter}的方法
+     * <p>
+     * Type of SQL execution, corresponding to the methods of {@link SqlExecuter}
+     */
+    public static enum SqlType {
+        /** 查询一个实体 / Select one entity */
+        SELECT_ONE,
+        /** 查询实体List / Select entity list */
+        SELECT_LIST,
+        /** 查询List，由行映射函数解析 / Select list mapped by a row mapper */
+        SELECT_ROWS,
+        /** 逐行处理查询结果 / Handle the result row by row */
+        SELECT_EACH,
+        /** 流式查询实体 / Select entities as a stream */
+        SELECT_STREAM,
+        /** 查询Map结果 / Select map result */
+        SELECT_MAP,
+        /** 查询一个列 / Select one column */
+        SELECT_COLUMN,
+        /** 插入一条数据 / Insert one row */
+        INSERT,
+        /** 插入多条数据 / Insert multiple rows */
+        INSERT_ALL,
+        /** 执行一个非查询 / Execute a non-query */
+        UPDATE,
+        /** 批量执行一个非查询 / Execute a non-query in batch */
+        UPDATE_BATCH;
+    }
+
+    /**
+     * SQL执行的类型
+     * <p>
+     * Type of SQL execution
+     */
+    private SqlType type;
+
+    /**
+     * 要执行的SQL
+     * <p>
+     * SQL to be executed
+     */
+    private String sql;
+
+    /**
+     * SQL参数，key为参数序号（从0开始）
+     * <p>
+     * SQL parameters, the key is the parameter index (starting from 0)
+     */
+    private Map<Integer, Object> params;
+
+    /**
+     * 查询返回或受影响的行数；流式查询在流打开时为-1
+     * <p>
+     * Rows returned or affected; -1 for a streaming query when the stream is opened
+     */
+    private long rows = -1L;
+
+    /**
+     * 开始执行的时间（{@link System#nanoTime()}）
+     * <p>
+     * Start time of execution ({@link System#nanoTime()})
+     */
+    private long startNanos;
+
+    /**
+     * 执行耗时（纳秒），after/error阶段可用
+     * <p>
+     * Elapsed time of execution (nanoseconds), available in the after/error phase
+     */
+    private long elapsedNanos;
+
+    /**
+     * 实体类型：reader与writer发出的SQL（包括写入与列查询）是其实体类，其他调用是查询结果的实体类型，非实体查询时为null
+     * <p>
+     * Entity type: for SQL issued by a reader or writer (including writes and column queries) it is their entity class, for other calls it is the entity type of the
+     * result, null for non-entity queries
+     */
+    private Class<?> entityType;
+
+    /**
+     * 获取连接耗时（纳秒），-1表示未知
+     * <p>
+     * Connection acquisition time (nanoseconds), -1 means unknown
+     */
+    private long connectNanos = -1L;
+
+    /**
+     * 语句执行耗时（纳秒），-1表示未知
+     * <p>
+     * Statement execution time (nanoseconds), -1 means unknown
+     */
+    private long executeNanos = -1L;
+
+    /**
+     * 结果映射耗时（纳秒），-1表示未知
+     * <p>
+     * Result mapping time (nanoseconds), -1 means unknown
+     */
+    private long mappingNanos = -1L;
+
+    /**
+     * 拦截器之间共享的自定义属性
+     * <p>
+     * Custom attributes shared between interceptors
+     */
+    private final Map<String, Object> attributes = new HashMap<>();
+}
@@ -1,11 +1,13 @@
 package com.xuesinuo.pignoo.core;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Pignoo的SQL执行器
@@ -14,10 +16,35 @@ import java.util.function.Supplier;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 0.1.0
+ * @version 1.2.0
  */
 public interface SqlExecuter {
 
+    /**
+     * 行映射函数：将查询结果的当前行映射为一个对象
+     * <p>
+     * Row mapper: maps the current row of the result to an object
+     *
+     * @param <R> 映射结果类型
+     * @since 1.2.0
+     */
+    @FunctionalInterface
+    public static interface RowMapper<R> {
+        R map(ResultSet rs) throws Throwable;
+    }
+
+    /**
+     * 行处理函数：逐行读取查询结果，不产生中间对象
+     * <p>
+     * Row handler: reads the result row by row without intermediate objects
+     *
+     * @since 1.2.0
+     */
+    @FunctionalInterface
+    public static interface RowHandler {
+        void handle(ResultSet rs) throws Throwable;
+    }
+
     /**
      * 查询一个实体
      *
@@ -46,6 +73,48 @@ public interface SqlExecuter {
      */
     <E> List<E> selectList(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config);
 
+    /**
+     * 查询List，每行由行映射函数解析
+     *
+     * @param connGetter 获取连接的函数
+     * @param connCloser 注销连接的函数
+     * @param sql        要执行的SQL
+     * @param params     SQL参数
+     * @param rowMapper  行映射函数
+     * @param <R>        映射结果类型
+     * @return 查询结果
+     * @since 1.2.0
+     */
+    <R> List<R> selectRows(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowMapper<R> rowMapper);
+
+    /**
+     * 逐行处理查询结果
+     *
+     * @param connGetter 获取连接的函数
+     * @param connCloser 注销连接的函数
+     * @param sql        要执行的SQL
+     * @param params     SQL参数
+     * @param rowHandler 行处理函数
+     * @return 处理的行数
+     * @since 1.2.0
+     */
+    long selectEach(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowHandler rowHandler);
+
+    /**
+     * 流式查询实体：使用服务端游标逐行读取，内存占用与结果集大小无关；流必须关闭，关闭时注销连接
+     *
+     * @param connGetter 获取连接的函数
+     * @param connCloser 注销连接的函数
+     * @param sql        要执行的SQL
+     * @param params     SQL参数
+     * @param c          执行结果的映射对象类型
+     * @param config     配置
+     * @param <E>        执行结果的映射对象类型
+     * @return 惰性解析的查询结果
+     * @since 1.2.0
+     */
+    <E> Stream<E> selectStream(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config);
+
     /**
      * 查询Map结果
      *
@@ -83,6 +152,20 @@ public interface SqlExecuter {
      */
     <R> Object insert(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c);
 
+    /**
+     * 插入多条数据（一条多行INSERT语句），按插入顺序返回生成的主键
+     *
+     * @param connGetter 获取连接的函数
+     * @param connCloser 注销连接的函数
+     * @param sql        要执行的SQL
+     * @param params     SQL参数
+     * @param c          主键的映射数据类型（单个值）
+     * @param <R>        主键的映射数据类型（单个值）
+     * @return 生成的主键
+     * @since 1.2.0
+     */
+    <R> List<Object> insertAll(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c);
+
     /**
      * 执行一个非查询，返回受影响行数
      *
@@ -93,4 +176,22 @@ public interface SqlExecuter {
      * @return 受影响行数
      */
     long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params);
+
+    /**
+     * 批量执行同一个非查询（JDBC batch），返回每组参数的受影响行数。默认逐条执行{@link #update}
+     *
+     * @param connGetter 获取连接的函数
+     * @param connCloser 注销连接的函数
+     * @param sql        要执行的SQL
+     * @param paramsList 每次执行的SQL参数
+     * @return 每组参数的受影响行数
+     * @since 1.2.0
+     */
+    default long[] updateBatch(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, List<Map<Integer, Object>> paramsList) {
+        long[] rows = new long[paramsList.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = this.update(connGetter, connCloser, sql, paramsList.get(i));
+        }
+        return rows;
+    }
 }
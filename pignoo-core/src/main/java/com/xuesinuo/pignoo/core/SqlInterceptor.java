@@ -0,0 +1,53 @@
+package com.xuesinuo.pignoo.core;
+
+/**
+ * SQL拦截器：在{@link SqlExecuter}的每次调用前后执行，可用于计时、慢查询日志、监控等
+ * <p>
+ * SQL interceptor: executed before and after each call of {@link SqlExecuter}, can be used for timing, slow query log, monitoring, etc.
+ * <p>
+ * 多个拦截器按配置顺序执行before，按相反顺序执行after与error
+ * <p>
+ * Multiple interceptors execute before in the configured order, and after and error in the reverse order
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public interface SqlInterceptor {
+
+    /**
+     * SQL执行前
+     * <p>
+     * Before SQL execution
+     *
+     * @param context SQL执行上下文
+     *                <p>
+     *                SQL execution context
+     */
+    default void before(SqlContext context) {}
+
+    /**
+     * SQL执行成功后，上下文中已有行数与耗时
+     * <p>
+     * After SQL execution succeeds, the context has rows and elapsed time
+     *
+     * @param context SQL执行上下文
+     *                <p>
+     *                SQL execution context
+     */
+    default void after(SqlContext context) {}
+
+    /**
+     * SQL执行失败后，上下文中已有耗时；异常会继续抛出
+     * <p>
+     * After SQL execution fails, the context has elapsed time; the exception will still be thrown
+     *
+     * @param context SQL执行上下文
+     *                <p>
+     *                SQL execution context
+     * @param e       异常
+     *                <p>
+     *                Exception
+     */
+    default void error(SqlContext context, Throwable e) {}
+}
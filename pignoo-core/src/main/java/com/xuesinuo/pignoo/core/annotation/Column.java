@@ -13,7 +13,7 @@ import java.lang.annotation.Target;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.0.0
+ * @version 1.2.0
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -69,6 +69,24 @@ public @interface Column {
      */
     PrimaryKey primaryKey() default PrimaryKey.DEFAULT;
 
+    /**
+     * 是否为乐观锁的版本列：根据ID修改时比较并递增版本，版本不匹配时抛出{@link com.xuesinuo.pignoo.core.exception.OptimisticLockException}；
+     * 按条件修改（包括increment与compareAndSet）与upsert修改已有行时不写入实体上的版本，只递增版本；
+     * 配合{@link com.xuesinuo.pignoo.core.config.LockMode#OPTIMISTIC}，事务中的锁定读不再加行锁。类型必须为int、long、short或对应的包装类型
+     * <p>
+     * Whether it is the version column of optimistic locking: when modifying by Primary-Key, the version is compared and increased, and
+     * {@link com.xuesinuo.pignoo.core.exception.OptimisticLockException} is thrown when the version does not match; modifications by condition (including increment and compareAndSet) and upserts that update an existing row do not write the version of the entity, but
+     * only increase it; with
+     * {@link com.xuesinuo.pignoo.core.config.LockMode#OPTIMISTIC}, locking reads in a transaction no longer take row locks. The type must be int, long, short or the
+     * corresponding wrapper type
+     * 
+     * @return 是否为版本列
+     *         <p>
+     *         Whether it is the version column
+     * @since 1.2.0
+     */
+    boolean version() default false;
+
     /**
      * Pignoo中预设的规模档位
      * <p>
@@ -0,0 +1,34 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一个实体缓存的统计快照
+ * <p>
+ * Statistics snapshot of an entity cache
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+    /** 实体类型 / Entity type */
+    private final Class<?> entityType;
+    /** 当前缓存条数 / Current number of cached entries */
+    private final long size;
+    /** 最多缓存条数 / The maximum number of cached entries */
+    private final long maxSize;
+    /** 命中次数 / Hit count */
+    private final long hits;
+    /** 未命中次数 / Miss count */
+    private final long misses;
+    /** 因容量淘汰的条数 / Number of entries evicted by capacity */
+    private final long evictions;
+    /** 因写入失效的次数 / Number of invalidations by writes */
+    private final long invalidations;
+}
@@ -0,0 +1,277 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个实体类型的二级缓存：按主键缓存，读取无锁，容量满时按采样LFU淘汰
+ * <p>
+ * Second-level cache of an entity type: cached by primary key, lock-free reads, sampled LFU eviction when full
+ * <p>
+ * 淘汰：从上次停下的位置继续扫描若干条，淘汰其中访问频率最低的一条，其余的频率减半，使旧的热点逐渐冷却
+ * <p>
+ * Eviction: continue scanning a few entries from where the last scan stopped, evict the one with the lowest access frequency, and halve the frequency of the others so
+ * that old hot spots cool down over time
+ * <p>
+ * 一致性：每次失效都会推进版本号，查询开始前取得的版本号已过期时，查询结果不会写入缓存；事务中写过的主键在事务结束前不会写入缓存
+ * <p>
+ * Consistency: every invalidation advances the stamp, and a query result is not cached when the stamp taken before the query has expired; primary keys written in a
+ * transaction are not cached until the transaction ends
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class EntityCache {
+
+    private static final int SAMPLE_SIZE = 8;
+    private static final Object ALL = new Object();// 事务中的批量写入：整个类型都不写入缓存
+
+    private final Class<?> entityType;
+    private final int maxSize;
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong stamp = new AtomicLong();
+    private final Map<Object, Set<Object>> pendingByOwner = new IdentityHashMap<>();// 事务 -> 写过的主键
+    private final Map<Object, Integer> pendingKeys = new HashMap<>();// 主键 -> 写过它且未结束的事务数
+    private Iterator<Entry> sampler;// 淘汰扫描的位置
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static class Entry {
+        private final Object key;
+        private final Object value;
+        private final AtomicInteger frequency = new AtomicInteger(1);
+
+        private Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param maxSize    最多缓存条数
+     *                   <p>
+     *                   The maximum number of cached entries
+     */
+    public EntityCache(Class<?> entityType, int maxSize) {
+        this.entityType = entityType;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * 读取缓存
+     * <p>
+     * Read the cache
+     *
+     * @param key 主键
+     *            <p>
+     *            Primary key
+     * @return 缓存的实体，未命中时为null
+     *         <p>
+     *         Cached entity, null on a miss
+     */
+    public Object get(Object key) {
+        Entry entry = entries.get(normalize(key));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.frequency.incrementAndGet();
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * 当前版本号，在查询数据库之前取得，写入缓存时用于判断查询期间是否发生过失效
+     * <p>
+     * Current stamp, taken before querying the database, used when caching to check whether an invalidation happened during the query
+     *
+     * @return 版本号
+     *         <p>
+     *         Stamp
+     */
+    public long stamp() {
+        return stamp.get();
+    }
+
+    /**
+     * 写入缓存
+     * <p>
+     * Put into the cache
+     *
+     * @param key   主键
+     *              <p>
+     *              Primary key
+     * @param value 实体
+     *              <p>
+     *              Entity
+     * @param stamp 查询数据库之前取得的版本号
+     *              <p>
+     *              Stamp taken before querying the database
+     */
+    public void put(Object key, Object value, long stamp) {
+        if (key == null || value == null) {
+            return;
+        }
+        key = normalize(key);
+        synchronized (this) {
+            if (this.stamp.get() != stamp || pendingKeys.containsKey(key) || pendingKeys.containsKey(ALL)) {
+                return;
+            }
+            entries.put(key, new Entry(key, value));
+            while (entries.size() > maxSize) {
+                this.evict();
+            }
+        }
+    }
+
+    /**
+     * 整数主键统一为Long，使filter中的1与实体中的1L是同一个键
+     * <p>
+     * Integer primary keys are unified to Long, so that 1 in the filter and 1L in the entity are the same key
+     */
+    private static Object normalize(Object key) {
+        if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        return key;
+    }
+
+    private void evict() {
+        Entry victim = null;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            if (sampler == null || !sampler.hasNext()) {
+                sampler = entries.values().iterator();
+                if (!sampler.hasNext()) {
+                    break;
+                }
+            }
+            Entry entry = sampler.next();
+            if (victim == null || entry.frequency.get() < victim.frequency.get()) {
+                if (victim != null) {
+                    victim.frequency.updateAndGet(f -> f >> 1);
+                }
+                victim = entry;
+            } else {
+                entry.frequency.updateAndGet(f -> f >> 1);
+            }
+        }
+        if (victim != null && entries.remove(victim.key, victim)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 写入一个主键后使缓存失效
+     * <p>
+     * Invalidate the cache after writing a primary key
+     *
+     * @param key   主键
+     *              <p>
+     *              Primary key
+     * @param owner 写入所在的事务，在{@link #release(Object)}之前这个主键不会写入缓存；不在事务中时为null
+     *              <p>
+     *              The transaction of the write, this primary key is not cached until {@link #release(Object)}; null when not in a transaction
+     */
+    public synchronized void invalidate(Object key, Object owner) {
+        if (key == null) {
+            return;
+        }
+        key = normalize(key);
+        stamp.incrementAndGet();
+        invalidations.increment();
+        entries.remove(key);
+        this.block(key, owner);
+    }
+
+    /**
+     * 按条件批量写入后，使整个缓存失效
+     * <p>
+     * Invalidate the whole cache after a mass write by condition
+     *
+     * @param owner 写入所在的事务，在{@link #release(Object)}之前不会写入缓存；不在事务中时为null
+     *              <p>
+     *              The transaction of the write, nothing is cached until {@link #release(Object)}; null when not in a transaction
+     */
+    public synchronized void invalidateAll(Object owner) {
+        stamp.incrementAndGet();
+        invalidations.increment();
+        entries.clear();
+        sampler = null;
+        this.block(ALL, owner);
+    }
+
+    private void block(Object key, Object owner) {
+        if (owner != null && pendingByOwner.computeIfAbsent(owner, k -> new HashSet<>()).add(key)) {
+            pendingKeys.merge(key, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 事务结束：再次失效这个事务写过的主键，并允许它们重新写入缓存
+     * <p>
+     * Transaction ended: invalidate the primary keys written by this transaction again, and allow them to be cached again
+     *
+     * @param owner 事务
+     *              <p>
+     *              Transaction
+     */
+    public synchronized void release(Object owner) {
+        Set<Object> keys = pendingByOwner.remove(owner);
+        if (keys == null) {
+            return;
+        }
+        stamp.incrementAndGet();
+        for (Object key : keys) {
+            if (key == ALL) {
+                entries.clear();
+                sampler = null;
+            } else {
+                entries.remove(key);
+            }
+            pendingKeys.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * 清空缓存
+     * <p>
+     * Clear the cache
+     */
+    public synchronized void clear() {
+        stamp.incrementAndGet();
+        entries.clear();
+        sampler = null;
+    }
+
+    /**
+     * 读取统计快照
+     * <p>
+     * Read the statistics snapshot
+     *
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public CacheStats stats() {
+        return new CacheStats(entityType, entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+}
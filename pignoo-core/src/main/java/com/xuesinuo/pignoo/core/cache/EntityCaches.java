@@ -0,0 +1,99 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存登记处：为开启缓存的实体类型各维护一个{@link EntityCache}，通过PignooConfig.entityCaches交给Gru，同一个Gru下的全部Pignoo共享
+ * <p>
+ * Second-level cache registry: maintains an {@link EntityCache} for each entity type with caching enabled, handed to Gru through PignooConfig.entityCaches, and shared by
+ * all Pignoo under the same Gru
+ * <p>
+ * 只有不在事务中的、filter只有一个主键等于条件的getFirst/getAny读取缓存；同一个JVM中writer的写入会使缓存失效，其他进程的写入不会
+ * <p>
+ * Only getFirst/getAny outside of transactions whose filter is a single primary key equality read the cache; writes by writers in the same JVM invalidate the cache,
+ * writes by other processes do not
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class EntityCaches {
+
+    private final Map<Class<?>, EntityCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 为一个实体类型开启缓存
+     * <p>
+     * Enable the cache for an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param maxSize    最多缓存条数
+     *                   <p>
+     *                   The maximum number of cached entries
+     * @return 登记处本身
+     *         <p>
+     *         The registry itself
+     */
+    public EntityCaches enable(Class<?> entityType, int maxSize) {
+        caches.put(entityType, new EntityCache(entityType, maxSize));
+        return this;
+    }
+
+    /**
+     * 一个实体类型的缓存
+     * <p>
+     * The cache of an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @return 缓存，未开启时为null
+     *         <p>
+     *         Cache, null when not enabled
+     */
+    public EntityCache get(Class<?> entityType) {
+        return caches.get(entityType);
+    }
+
+    /**
+     * 事务结束，见{@link EntityCache#release(Object)}
+     * <p>
+     * Transaction ended, see {@link EntityCache#release(Object)}
+     *
+     * @param owner 事务
+     *              <p>
+     *              Transaction
+     */
+    public void release(Object owner) {
+        caches.values().forEach(cache -> cache.release(owner));
+    }
+
+    /**
+     * 读取全部缓存的统计快照
+     * <p>
+     * Read the statistics snapshot of all caches
+     *
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public List<CacheStats> stats() {
+        List<CacheStats> list = new ArrayList<>(caches.size());
+        caches.values().forEach(cache -> list.add(cache.stats()));
+        return list;
+    }
+
+    /**
+     * 清空全部缓存
+     * <p>
+     * Clear all caches
+     */
+    public void clear() {
+        caches.values().forEach(EntityCache::clear);
+    }
+}
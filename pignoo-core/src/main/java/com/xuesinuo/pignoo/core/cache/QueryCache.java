@@ -0,0 +1,247 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 一个实体类型的查询结果缓存：按（SQL，参数，结果类型）缓存，到期或表上发生写入后失效，缓存的总行数有上限
+ * <p>
+ * Query result cache of an entity type: cached by (SQL, parameters, result type), expires after the TTL or after a write on the table, and the total number of cached rows
+ * is bounded
+ * <p>
+ * 合并：同一个查询同时未命中时，只有一个线程查询数据库，其余线程等待它的结果
+ * <p>
+ * Coalescing: when the same query misses concurrently, only one thread queries the database and the others wait for its result
+ * <p>
+ * 淘汰：容量满时先清理过期的结果，仍然不够时从上次停下的位置扫描若干条，淘汰其中最早到期的一条
+ * <p>
+ * Eviction: when full, expired results are removed first, and if that is not enough, a few entries are scanned from where the last scan stopped and the one expiring
+ * first is evicted
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class QueryCache {
+
+    private static final int SAMPLE_SIZE = 8;
+
+    private final QueryCaches registry;
+    private final Class<?> entityType;
+    private final long ttlNanos;
+    private final int maxRows;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LoadKey, CompletableFuture<Object>> loadings = new ConcurrentHashMap<>();
+    private final AtomicLong rows = new AtomicLong();
+    private Iterator<Entry> sampler;// 淘汰扫描的位置
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static record Key(String tableName, String sql, Map<Integer, Object> params, Class<?> resultType) {}
+
+    private static record LoadKey(Key key, long version) {}
+
+    private static class Entry {
+        private final Key key;
+        private final Object value;
+        private final int rows;
+        private final long version;// 写入时表的版本号
+        private final long expiresAt;
+
+        private Entry(Key key, Object value, int rows, long version, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.rows = rows;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 构造器，由{@link QueryCaches#enable(Class, long, int)}创建
+     * <p>
+     * Constructor, created by {@link QueryCaches#enable(Class, long, int)}
+     *
+     * @param registry   所属的登记处，提供表的版本号
+     *                   <p>
+     *                   The owning registry, provides the version of tables
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param ttlMillis  结果的存活时间（毫秒）
+     *                   <p>
+     *                   Time to live of results (milliseconds)
+     * @param maxRows    最多缓存的行数，单值结果算作一行
+     *                   <p>
+     *                   The maximum number of cached rows, a single value counts as one row
+     */
+    QueryCache(QueryCaches registry, Class<?> entityType, long ttlMillis, int maxRows) {
+        this.registry = registry;
+        this.entityType = entityType;
+        this.ttlNanos = Math.max(0L, ttlMillis) * 1_000_000L;
+        this.maxRows = Math.max(1, maxRows);
+    }
+
+    /**
+     * 读取缓存，未命中时查询数据库并写入缓存；表在事务中被写过且事务未结束时直接查询数据库
+     * <p>
+     * Read the cache, query the database and cache the result on a miss; query the database directly when the table was written in a transaction that has not ended
+     *
+     * @param <R>        结果类型
+     *                   <p>
+     *                   Result type
+     * @param tableName  表名
+     *                   <p>
+     *                   Table name
+     * @param sql        SQL
+     * @param params     SQL参数
+     *                   <p>
+     *                   SQL parameters
+     * @param resultType 结果类型，同一条SQL按不同类型读取时分开缓存
+     *                   <p>
+     *                   Result type, the same SQL read as different types is cached separately
+     * @param loader     查询数据库
+     *                   <p>
+     *                   Query the database
+     * @return 结果，调用方不能修改
+     *         <p>
+     *         Result, must not be modified by the caller
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(String tableName, String sql, Map<Integer, Object> params, Class<?> resultType, Supplier<R> loader) {
+        if (registry.blocked(tableName)) {
+            misses.increment();
+            return loader.get();
+        }
+        Key key = new Key(tableName, sql, params, resultType);
+        long version = registry.version(tableName);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.version == version && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return (R) entry.value;
+            }
+            this.remove(entry);
+        }
+        LoadKey loadKey = new LoadKey(key, version);
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> running = loadings.putIfAbsent(loadKey, loading);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return (R) running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+        misses.increment();
+        try {
+            R value = loader.get();
+            this.put(key, value, version);
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(loadKey, loading);
+        }
+    }
+
+    private synchronized void put(Key key, Object value, long version) {
+        int weight = value instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1;
+        if (ttlNanos <= 0L || weight > maxRows || registry.version(key.tableName()) != version || registry.blocked(key.tableName())) {
+            return;
+        }
+        Entry old = entries.put(key, new Entry(key, value, weight, version, System.nanoTime() + ttlNanos));
+        if (old != null) {
+            rows.addAndGet(-old.rows);
+        }
+        rows.addAndGet(weight);
+        if (rows.get() > maxRows) {
+            this.purge();
+        }
+        while (rows.get() > maxRows) {
+            this.evict();
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            rows.addAndGet(-entry.rows);
+        }
+    }
+
+    private void purge() {
+        long now = System.nanoTime();
+        for (Entry entry : entries.values()) {
+            if (entry.expiresAt - now <= 0 || entry.version != registry.version(entry.key.tableName())) {
+                this.remove(entry);
+            }
+        }
+    }
+
+    private void evict() {
+        Entry victim = null;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            if (sampler == null || !sampler.hasNext()) {
+                sampler = entries.values().iterator();
+                if (!sampler.hasNext()) {
+                    break;
+                }
+            }
+            Entry entry = sampler.next();
+            if (victim == null || entry.expiresAt - victim.expiresAt < 0) {
+                victim = entry;
+            }
+        }
+        if (victim == null) {
+            rows.set(0L);
+            return;
+        }
+        if (entries.remove(victim.key, victim)) {
+            rows.addAndGet(-victim.rows);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 清空缓存
+     * <p>
+     * Clear the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+        rows.set(0L);
+        sampler = null;
+    }
+
+    /**
+     * 读取统计快照
+     * <p>
+     * Read the statistics snapshot
+     *
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public QueryCacheStats stats() {
+        return new QueryCacheStats(entityType, entries.size(), rows.get(), maxRows, hits.sum(), misses.sum(), coalesced.sum(), evictions.sum());
+    }
+}
@@ -0,0 +1,36 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一个查询结果缓存的统计快照
+ * <p>
+ * Statistics snapshot of a query result cache
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class QueryCacheStats {
+    /** 实体类型 / Entity type */
+    private final Class<?> entityType;
+    /** 当前缓存的查询数 / Current number of cached queries */
+    private final long size;
+    /** 当前缓存的行数 / Current number of cached rows */
+    private final long rows;
+    /** 最多缓存的行数 / The maximum number of cached rows */
+    private final long maxRows;
+    /** 命中次数 / Hit count */
+    private final long hits;
+    /** 未命中次数 / Miss count */
+    private final long misses;
+    /** 合并到其他线程查询的次数 / Number of misses coalesced into a query of another thread */
+    private final long coalesced;
+    /** 因容量淘汰的条数 / Number of entries evicted by capacity */
+    private final long evictions;
+}
@@ -0,0 +1,273 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.SqlExecuter;
+
+/**
+ * 查询结果缓存登记处：为开启缓存的实体类型各维护一个{@link QueryCache}，通过PignooConfig.queryCaches交给Gru，同一个Gru下的全部Pignoo共享
+ * <p>
+ * Query result cache registry: maintains a {@link QueryCache} for each entity type with caching enabled, handed to Gru through PignooConfig.queryCaches, and shared by all
+ * Pignoo under the same Gru
+ * <p>
+ * 只有不在事务中的只读reader的size、getAll、get和聚合查询读取缓存；同一个JVM中writer对一张表的任何写入会使这张表上的全部结果失效，其他进程的写入只能等结果到期
+ * <p>
+ * Only size, getAll, get and aggregate queries of read-only readers outside of transactions read the cache; any write on a table by writers in the same JVM invalidates all
+ * results of this table, writes by other processes are only seen after the results expire
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class QueryCaches {
+
+    private final Map<Class<?>, QueryCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();// 表名 -> 版本号，每次写入推进
+    private final Map<Object, Set<String>> pendingByOwner = new IdentityHashMap<>();// 事务 -> 写过的表
+    private final Map<String, Integer> pendingTables = new ConcurrentHashMap<>();// 表名 -> 写过它且未结束的事务数
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * 为一个实体类型开启查询结果缓存
+     * <p>
+     * Enable the query result cache for an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param ttlMillis  结果的存活时间（毫秒）
+     *                   <p>
+     *                   Time to live of results (milliseconds)
+     * @param maxRows    最多缓存的行数，单值结果算作一行
+     *                   <p>
+     *                   The maximum number of cached rows, a single value counts as one row
+     * @return 登记处本身
+     *         <p>
+     *         The registry itself
+     */
+    public QueryCaches enable(Class<?> entityType, long ttlMillis, int maxRows) {
+        caches.put(entityType, new QueryCache(this, entityType, ttlMillis, maxRows));
+        return this;
+    }
+
+    /**
+     * 一个实体类型的查询结果缓存
+     * <p>
+     * The query result cache of an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @return 缓存，未开启时为null
+     *         <p>
+     *         Cache, null when not enabled
+     */
+    public QueryCache get(Class<?> entityType) {
+        return caches.get(entityType);
+    }
+
+    long version(String tableName) {
+        AtomicLong version = versions.get(tableName);
+        return version == null ? 0L : version.get();
+    }
+
+    boolean blocked(String tableName) {
+        return !pendingTables.isEmpty() && pendingTables.containsKey(tableName);
+    }
+
+    /**
+     * 一张表上发生写入后，使这张表上的全部查询结果失效
+     * <p>
+     * Invalidate all query results of a table after a write on it
+     *
+     * @param tableName 表名
+     *                  <p>
+     *                  Table name
+     * @param owner     写入所在的事务，在{@link #release(Object)}之前这张表上的结果不会写入缓存；不在事务中时为null
+     *                  <p>
+     *                  The transaction of the write, results of this table are not cached until {@link #release(Object)}; null when not in a transaction
+     */
+    public synchronized void invalidate(String tableName, Object owner) {
+        versions.computeIfAbsent(tableName, k -> new AtomicLong()).incrementAndGet();
+        invalidations.increment();
+        if (owner != null && pendingByOwner.computeIfAbsent(owner, k -> new HashSet<>()).add(tableName)) {
+            pendingTables.merge(tableName, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 事务结束：再次失效这个事务写过的表，并允许它们的结果重新写入缓存
+     * <p>
+     * Transaction ended: invalidate the tables written by this transaction again, and allow their results to be cached again
+     *
+     * @param owner 事务
+     *              <p>
+     *              Transaction
+     */
+    public synchronized void release(Object owner) {
+        Set<String> tableNames = pendingByOwner.remove(owner);
+        if (tableNames == null) {
+            return;
+        }
+        for (String tableName : tableNames) {
+            versions.computeIfAbsent(tableName, k -> new AtomicLong()).incrementAndGet();
+            pendingTables.computeIfPresent(tableName, (k, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * 包装SQL执行器：每次写入之后，使这张表上的查询结果失效
+     * <p>
+     * Wrap the SQL executer: invalidate the query results of the table after every write
+     *
+     * @param sqlExecuter 被包装的SQL执行器
+     *                    <p>
+     *                    The wrapped SQL executer
+     * @param tableName   表名
+     *                    <p>
+     *                    Table name
+     * @param owner       写入所在的事务，不在事务中时为null
+     *                    <p>
+     *                    The transaction of the writes, null when not in a transaction
+     * @return SQL执行器
+     *         <p>
+     *         SQL executer
+     */
+    public SqlExecuter invalidateAfterWrite(SqlExecuter sqlExecuter, String tableName, Object owner) {
+        return new InvalidatingSqlExecuter(sqlExecuter, tableName, owner);
+    }
+
+    /**
+     * 读取全部缓存的统计快照
+     * <p>
+     * Read the statistics snapshot of all caches
+     *
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public List<QueryCacheStats> stats() {
+        List<QueryCacheStats> list = new ArrayList<>(caches.size());
+        caches.values().forEach(cache -> list.add(cache.stats()));
+        return list;
+    }
+
+    /**
+     * 因写入使表失效的次数
+     * <p>
+     * Number of table invalidations by writes
+     *
+     * @return 次数
+     *         <p>
+     *         Count
+     */
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * 清空全部缓存
+     * <p>
+     * Clear all caches
+     */
+    public void clear() {
+        caches.values().forEach(QueryCache::clear);
+    }
+
+    private class InvalidatingSqlExecuter implements SqlExecuter {
+        private final SqlExecuter sqlExecuter;
+        private final String tableName;
+        private final Object owner;
+
+        private InvalidatingSqlExecuter(SqlExecuter sqlExecuter, String tableName, Object owner) {
+            this.sqlExecuter = sqlExecuter;
+            this.tableName = tableName;
+            this.owner = owner;
+        }
+
+        @Override
+        public <E> E selectOne(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            return sqlExecuter.selectOne(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public <E> List<E> selectList(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            return sqlExecuter.selectList(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public <R> List<R> selectRows(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowMapper<R> rowMapper) {
+            return sqlExecuter.selectRows(connGetter, connCloser, sql, params, rowMapper);
+        }
+
+        @Override
+        public long selectEach(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowHandler rowHandler) {
+            return sqlExecuter.selectEach(connGetter, connCloser, sql, params, rowHandler);
+        }
+
+        @Override
+        public <E> Stream<E> selectStream(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            return sqlExecuter.selectStream(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public List<LinkedHashMap<String, String>> selectLinkedHashMap(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+            return sqlExecuter.selectLinkedHashMap(connGetter, connCloser, sql, params);
+        }
+
+        @Override
+        public <R> R selectColumn(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            return sqlExecuter.selectColumn(connGetter, connCloser, sql, params, c);
+        }
+
+        @Override
+        public <R> Object insert(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            try {
+                return sqlExecuter.insert(connGetter, connCloser, sql, params, c);
+            } finally {
+                invalidate(tableName, owner);
+            }
+        }
+
+        @Override
+        public <R> List<Object> insertAll(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            try {
+                return sqlExecuter.insertAll(connGetter, connCloser, sql, params, c);
+            } finally {
+                invalidate(tableName, owner);
+            }
+        }
+
+        @Override
+        public long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+            try {
+                return sqlExecuter.update(connGetter, connCloser, sql, params);
+            } finally {
+                invalidate(tableName, owner);
+            }
+        }
+
+        @Override
+        public long[] updateBatch(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, List<Map<Integer, Object>> paramsList) {
+            try {
+                return sqlExecuter.updateBatch(connGetter, connCloser, sql, paramsList);
+            } finally {
+                invalidate(tableName, owner);
+            }
+        }
+    }
+}
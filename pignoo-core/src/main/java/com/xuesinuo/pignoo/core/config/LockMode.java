@@ -0,0 +1,41 @@
+package com.xuesinuo.pignoo.core.config;
+
+/**
+ * 事务中writer的锁定读方式
+ * <p>
+ * The locking read mode of the writer in a transaction
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public enum LockMode {
+    /**
+     * 【默认】FOR UPDATE：等待其他事务释放行锁
+     * <p>
+     * [Default] FOR UPDATE: wait for other transactions to release the row locks
+     */
+    WAIT,
+
+    /**
+     * 实体有乐观锁版本列时读取不加行锁，由版本检查发现并发修改；没有版本列时同{@link #WAIT}。poll与开启一级缓存时按主键的读取仍然加行锁
+     * <p>
+     * No row lock on reads when the entity has an optimistic locking version column, concurrent modifications are detected by the version check; same as {@link #WAIT}
+     * without a version column. poll and reads by primary key with the first-level cache on still lock the rows
+     */
+    OPTIMISTIC,
+
+    /**
+     * FOR UPDATE NOWAIT：行已被锁定时立即失败
+     * <p>
+     * FOR UPDATE NOWAIT: fail immediately when a row is already locked
+     */
+    NOWAIT,
+
+    /**
+     * FOR UPDATE SKIP LOCKED：跳过已被锁定的行，适合多个消费者轮询同一张队列表
+     * <p>
+     * FOR UPDATE SKIP LOCKED: skip rows that are already locked, suitable for multiple consumers polling the same queue table
+     */
+    SKIP_LOCKED;
+}
@@ -0,0 +1,135 @@
+package com.xuesinuo.pignoo.core.entity;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatchers;
+import net.bytebuddy.utility.RandomString;
+
+/**
+ * 访问器工厂：用ByteBuddy生成直接调用getter/setter/无参构造器的字节码，替代反射与MethodHandle
+ * <p>
+ * Accessor factory: uses ByteBuddy to generate bytecode that calls the getter/setter/no-args constructor directly, instead of reflection and MethodHandle
+ * <p>
+ * 生成的类通过实体的Lookup定义在实体所在的包与ClassLoader中，不为每个类新建ClassLoader；只访问public的类与方法；无法生成时返回null，由调用方使用MethodHandle兜底
+ * <p>
+ * The generated classes are defined through the Lookup of the entity, in the package and ClassLoader of the entity, without a new ClassLoader per class; only public
+ * classes and methods are accessed; returns null when generation is impossible, and the caller falls back to MethodHandle
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Slf4j
+public class AccessorFactory {
+
+    private AccessorFactory() {}
+
+    /**
+     * 生成属性访问器
+     * <p>
+     * Generate a property accessor
+     *
+     * @param c      实体类型
+     *               <p>
+     *               Entity type
+     * @param getter getter方法
+     *               <p>
+     *               Getter method
+     * @param setter setter方法
+     *               <p>
+     *               Setter method
+     * @return 属性访问器，无法生成时为null
+     *         <p>
+     *         Property accessor, null when it can not be generated
+     */
+    public static PropertyAccessor property(Class<?> c, Method getter, Method setter) {
+        if (!isPublic(c) || !Modifier.isPublic(getter.getModifiers()) || !Modifier.isPublic(setter.getModifiers())) {
+            return null;
+        }
+        try {
+            Class<?> type = setter.getParameterTypes()[0];
+            Implementation get = MethodCall.invoke(getter).onArgument(0).withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC);
+            Implementation set = MethodCall.invoke(setter).onArgument(0).withArgument(1).withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC);
+            DynamicType.Builder<PropertyAccessor> builder = new ByteBuddy()
+                    .subclass(PropertyAccessor.class)
+                    .name(c.getName() + "$PignooAccessor$" + RandomString.make())
+                    .method(ElementMatchers.named("get")).intercept(get)
+                    .method(ElementMatchers.named("set")).intercept(set);
+            if (type.isPrimitive() && getter.getReturnType() == type) {// 类型一致的基本类型方法不装箱
+                String typeName = type.getName().substring(0, 1).toUpperCase() + type.getName().substring(1);
+                builder = builder
+                        .method(ElementMatchers.named("get" + typeName)).intercept(get)
+                        .method(ElementMatchers.named("set" + typeName)).intercept(set);
+            }
+            return load(c, builder.make())
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Throwable e) {
+            log.debug("Generate accessor of " + c.getName() + "#" + setter.getName() + " failed, fall back to MethodHandle", e);
+            return null;
+        }
+    }
+
+    /**
+     * 生成实体的构造函数
+     * <p>
+     * Generate the instantiator of an entity
+     *
+     * @param <E>         实体类型
+     *                    <p>
+     *                    Entity type
+     * @param c           实体类型
+     *                    <p>
+     *                    Entity type
+     * @param constructor 无参构造器
+     *                    <p>
+     *                    No-args constructor
+     * @return 构造函数，无法生成时为null
+     *         <p>
+     *         Instantiator, null when it can not be generated
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Supplier<E> instantiator(Class<E> c, Constructor<E> constructor) {
+        if (constructor == null || !isPublic(c) || Modifier.isAbstract(c.getModifiers()) || !Modifier.isPublic(constructor.getModifiers())) {
+            return null;
+        }
+        try {
+            return load(c, new ByteBuddy()
+                    .subclass(Supplier.class)
+                    .name(c.getName() + "$PignooInstantiator$" + RandomString.make())
+                    .method(ElementMatchers.named("get"))
+                    .intercept(MethodCall.construct(constructor))
+                    .make())
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Throwable e) {
+            log.debug("Generate instantiator of " + c.getName() + " failed, fall back to reflection", e);
+            return null;
+        }
+    }
+
+    private static <T> Class<? extends T> load(Class<?> c, DynamicType.Unloaded<T> unloaded) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());// 定义在实体的包中，与实体共用ClassLoader
+        return unloaded.load(c.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(lookup)).getLoaded();
+    }
+
+    private static boolean isPublic(Class<?> c) {
+        for (Class<?> current = c; current != null; current = current.getDeclaringClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -8,6 +8,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import com.xuesinuo.pignoo.core.PignooConfig;
 import com.xuesinuo.pignoo.core.annotation.Column;
@@ -27,16 +28,18 @@ import com.xuesinuo.pignoo.core.config.NamingMode;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.3
+ * @version 1.2.0
  */
 public class ClassInfo<E> {
     protected Constructor<E> constructor;
+    protected Supplier<E> instantiator;
     protected String tableName;
     protected Boolean autoPrimaryKey;
     protected Field primaryKeyField;
     protected String primaryKeyColumn;
     protected MethodRunner primaryKeyGetter;
     protected MethodRunner primaryKeySetter;
+    protected int versionIndex = -1;
 
     protected List<Field> fields = new ArrayList<>();
     protected List<String> columns = new ArrayList<>();
@@ -93,6 +96,7 @@ public class ClassInfo<E> {
         } catch (NoSuchMethodException | SecurityException e) {
             e.printStackTrace();
         }
+        this.instantiator = AccessorFactory.instantiator(c, this.constructor);
         Field[] classFields = c.getDeclaredFields();
         for (Field field : classFields) {
             Column columnAnn = field.getAnnotation(Column.class);
@@ -122,10 +126,9 @@ public class ClassInfo<E> {
                 } else {
                     this.primaryKeyField = field;
                 }
-                Method[] getterSetter = this.fields2GetterSetter(c, field);
-                MethodHandle[] getterSetterHandle = this.fields2GetterSetterHandle(c, field);
-                this.primaryKeyGetter = new MethodRunner(getterSetter[0], getterSetterHandle[0]);
-                this.primaryKeySetter = new MethodRunner(getterSetter[1], getterSetterHandle[1]);
+                MethodRunner[] getterSetterRunner = this.fields2GetterSetterRunner(c, field);
+                this.primaryKeyGetter = getterSetterRunner[0];
+                this.primaryKeySetter = getterSetterRunner[1];
             }
             if (field.isAnnotationPresent(Column.class) || config.getAnnotationMode() == AnnotationMode.MIX) {
                 this.fields.add(field);
@@ -144,12 +147,12 @@ public class ClassInfo<E> {
                     throw new MapperException("Entity " + c.getName() + "#" + field.getName() + " read column name failed");
                 }
                 this.columns.add(columnName);
-                Method[] getterSetter = this.fields2GetterSetter(c, field);
-                MethodHandle[] getterSetterHandle = this.fields2GetterSetterHandle(c, field);
-                this.getters.add(new MethodRunner(getterSetter[0], getterSetterHandle[0]));
-                this.setters.add(new MethodRunner(getterSetter[1], getterSetterHandle[1]));
-                this.getterNames.add(getterSetter[0].getName());
-                this.setterNames.add(getterSetter[1].getName());
+                MethodRunner[] getterSetterRunner = this.fields2GetterSetterRunner(c, field);
+                this.getters.add(getterSetterRunner[0]);
+                this.setters.add(getterSetterRunner[1]);
+                String[] getterSetterName = this.fields2GetterSetterName(c, field);
+                this.getterNames.add(getterSetterName[0]);
+                this.setterNames.add(getterSetterName[1]);
             }
         }
         if (this.primaryKeyField == null) {
@@ -196,6 +199,24 @@ public class ClassInfo<E> {
                 }
             }
         }
+        for (int i = 0; i < this.fields.size(); i++) {
+            Field field = this.fields.get(i);
+            Column columnAnn = field.getAnnotation(Column.class);
+            if (columnAnn == null || !columnAnn.version()) {
+                continue;
+            }
+            if (this.versionIndex >= 0) {
+                throw new MapperException("Entity " + c.getName() + " can't has more than one version column");
+            }
+            if (field == this.primaryKeyField) {
+                throw new MapperException("Entity " + c.getName() + " PrimaryKey can't be the version column");
+            }
+            Class<?> type = field.getType();
+            if (type != Integer.class && type != int.class && type != Long.class && type != long.class && type != Short.class && type != short.class) {
+                throw new MapperException("Entity " + c.getName() + "#" + field.getName() + " version column must be int, long or short");
+            }
+            this.versionIndex = i;
+        }
         for (Field field : this.fields) {
             field.setAccessible(true);
         }
@@ -258,6 +279,15 @@ public class ClassInfo<E> {
         return new Method[] { getter, setter };
     }
 
+    private MethodRunner[] fields2GetterSetterRunner(Class<E> c, Field field) {
+        Method[] getterSetter = this.fields2GetterSetter(c, field);
+        MethodHandle[] getterSetterHandle = this.fields2GetterSetterHandle(c, field);
+        PropertyAccessor accessor = AccessorFactory.property(c, getterSetter[0], getterSetter[1]);
+        return new MethodRunner[] {
+                new MethodRunner(getterSetter[0], getterSetterHandle[0], accessor),
+                new MethodRunner(getterSetter[1], getterSetterHandle[1], accessor) };
+    }
+
     private MethodHandle[] fields2GetterSetterHandle(Class<E> c, Field field) {
         String[] getterSetterName = this.fields2GetterSetterName(c, field);
         MethodHandles.Lookup lookup = MethodHandles.lookup();
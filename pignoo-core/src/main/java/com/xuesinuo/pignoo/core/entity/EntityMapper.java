@@ -7,6 +7,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.config.AnnotationMode;
+import com.xuesinuo.pignoo.core.config.NamingMode;
+import com.xuesinuo.pignoo.core.config.PrimaryKeyNamingConvention;
+import com.xuesinuo.pignoo.core.exception.MapperException;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,26 +23,39 @@ import lombok.Data;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.4
+ * @version 1.2.0
  */
 public class EntityMapper<E> {
 
     private final Class<E> c;
     private ClassInfo<E> classInfo;
     private FunctionNameGetter<E> functionNameGetter;
+    private RowDecoder<E> rowDecoder;
+    private final ConcurrentHashMap<List<Object>, String> sqlCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Integer> functionIndexCache = new ConcurrentHashMap<>();// getter Lambda的类 -> 列的序号
+    private static final int UNCACHEABLE = -2;// 不能按类缓存的Lambda
     private static final ConcurrentHashMap<CacheKey, EntityMapper<?>> cache = new ConcurrentHashMap<>();
 
+    /**
+     * 缓存键：只包含影响实体解析的配置项，其他配置的变化不会产生新的解析
+     * <p>
+     * Cache key: only contains the configurations that affect entity parsing, changes to other configurations will not produce a new parsing
+     */
     @AllArgsConstructor
     @Data
     private static class CacheKey {
         Class<?> c;
-        PignooConfig config;
+        AnnotationMode annotationMode;
+        NamingMode namingMode;
+        PrimaryKeyNamingConvention primaryKeyNamingConvention;
+        Boolean autoPrimaryKey;
     }
 
     private EntityMapper(Class<E> c, PignooConfig config) {
         this.c = c;
         this.classInfo = new ClassInfo<>(c, config);
         this.functionNameGetter = new FunctionNameGetter<>(c);
+        this.rowDecoder = new RowDecoder<>(this);
     }
 
     /**
@@ -61,7 +78,7 @@ public class EntityMapper<E> {
      */
     @SuppressWarnings("unchecked")
     public static <E> EntityMapper<E> build(Class<E> c, PignooConfig config) {
-        CacheKey cacheKey = new CacheKey(c, config);
+        CacheKey cacheKey = new CacheKey(c, config.getAnnotationMode(), config.getNamingMode(), config.getPrimaryKeyNamingConvention(), config.getAutoPrimaryKey());
         EntityMapper<E> mapper = (EntityMapper<E>) cache.get(cacheKey);
         if (mapper == null) {
             mapper = new EntityMapper<>(c, config);
@@ -97,6 +114,34 @@ public class EntityMapper<E> {
         return classInfo.tableName;
     }
 
+    /**
+     * 预编译的行解析器，按{@link #columns()}的顺序读取查询结果
+     * <p>
+     * Precompiled row decoder, reads the result in the order of {@link #columns()}
+     *
+     * @return 行解析器
+     *         <p>
+     *         Row decoder
+     * @since 1.2.0
+     */
+    public RowDecoder<E> rowDecoder() {
+        return rowDecoder;
+    }
+
+    /**
+     * 按查询形态缓存的SQL，键由查询种类、排序器与过滤器的形态组成
+     * <p>
+     * SQL cached by query shape, the key consists of the query kind and the shapes of the sorter and the filter
+     *
+     * @return SQL缓存
+     *         <p>
+     *         SQL cache
+     * @since 1.2.0
+     */
+    public ConcurrentHashMap<List<Object>, String> sqlCache() {
+        return sqlCache;
+    }
+
     /**
      * 构造一个实体
      * <p>
@@ -107,12 +152,45 @@ public class EntityMapper<E> {
      *         New entity
      */
     public E buildEntity() {
+        if (classInfo.instantiator != null) {
+            return classInfo.instantiator.get();
+        }
+        if (classInfo.constructor == null) {
+            throw new MapperException("Entity " + c.getName() + " missing no-args constructor");
+        }
         try {
             return classInfo.constructor.newInstance();
         } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            e.printStackTrace();
+            throw new MapperException("Entity " + c.getName() + " build failed", e);
+        }
+    }
+
+    /**
+     * 复制一个实体的全部映射属性，用于缓存中的实体不被调用方修改
+     * <p>
+     * Copy all mapped properties of an entity, so that entities in the cache are not modified by the caller
+     *
+     * @param e 实体
+     *          <p>
+     *          Entity
+     * @return 新的实体
+     *         <p>
+     *         New entity
+     * @since 1.2.0
+     */
+    public E copyEntity(E e) {
+        if (e == null) {
             return null;
         }
+        E copy = this.buildEntity();
+        try {
+            for (Field field : classInfo.fields) {
+                field.set(copy, field.get(e));
+            }
+        } catch (IllegalAccessException exception) {
+            throw new MapperException("Entity " + c.getName() + " copy failed", exception);
+        }
+        return copy;
     }
 
     /**
@@ -212,6 +290,20 @@ public class EntityMapper<E> {
         return classInfo.primaryKeyGetter;
     }
 
+    /**
+     * 主键对应属性的setter
+     * <p>
+     * primary key setter
+     *
+     * @return 主键对应属性的setter
+     *         <p>
+     *         primary key setter
+     * @since 1.2.0
+     */
+    public MethodRunner primaryKeySetter() {
+        return classInfo.primaryKeySetter;
+    }
+
     /**
      * 是否为自增主键
      * <p>
@@ -225,6 +317,88 @@ public class EntityMapper<E> {
         return classInfo.autoPrimaryKey;
     }
 
+    /**
+     * 乐观锁版本列的序号
+     * <p>
+     * Index of the optimistic locking version column
+     *
+     * @return 版本列的序号，没有版本列时为-1
+     *         <p>
+     *         Index of the version column, -1 when there is no version column
+     * @since 1.2.0
+     */
+    public int versionIndex() {
+        return classInfo.versionIndex;
+    }
+
+    /**
+     * 乐观锁版本列的列名
+     * <p>
+     * Column name of the optimistic locking version column
+     *
+     * @return 版本列的列名，没有版本列时为null
+     *         <p>
+     *         Column name of the version column, null when there is no version column
+     * @since 1.2.0
+     */
+    public String versionColumn() {
+        return classInfo.versionIndex < 0 ? null : classInfo.columns.get(classInfo.versionIndex);
+    }
+
+    /**
+     * 读取实体的版本，代理读取其目标上的值
+     * <p>
+     * Read the version of the entity, the value on the target is read for a proxy
+     *
+     * @param e 实体
+     *          <p>
+     *          Entity
+     * @return 版本，没有版本列时为null
+     *         <p>
+     *         Version, null when there is no version column
+     * @since 1.2.0
+     */
+    public Object version(Object e) {
+        if (classInfo.versionIndex < 0) {
+            return null;
+        }
+        try {
+            return classInfo.fields.get(classInfo.versionIndex).get(EntityProxyFactory.unwrap(e));
+        } catch (IllegalAccessException exception) {
+            throw new MapperException("Read version failed " + e, exception);
+        }
+    }
+
+    /**
+     * 将实体的版本加1，用于修改成功之后
+     * <p>
+     * Increase the version of the entity by 1, used after a successful modification
+     *
+     * @param e 实体
+     *          <p>
+     *          Entity
+     * @since 1.2.0
+     */
+    public void increaseVersion(Object e) {
+        Object version = this.version(e);
+        if (version == null) {
+            return;
+        }
+        Object next;
+        if (version instanceof Long value) {
+            next = value + 1L;
+        } else if (version instanceof Integer value) {
+            next = value + 1;
+        } else {
+            next = (short) ((Short) version + 1);
+        }
+        try {
+            classInfo.fields.get(classInfo.versionIndex).set(EntityProxyFactory.unwrap(e), next);
+        } catch (IllegalAccessException exception) {
+            throw new MapperException("Write version failed " + e, exception);
+        }
+    }
+
     /**
      * 根据JavaBean的getter function获取对应的列名
      * <p>
@@ -238,11 +412,42 @@ public class EntityMapper<E> {
      *         column name
      */
     public String getColumnByFunction(Function<E, ?> function) {
-        String functionName = functionNameGetter.getFunctionName(function);
-        int index = classInfo.getterNames.indexOf(functionName);
+        int index = getColumnIndexByFunction(function);
         if (index >= 0) {
             return classInfo.columns.get(index);
         }
         return null;
     }
+
+    /**
+     * 根据JavaBean的getter function获取对应的列在{@link #columns()}中的序号
+     * <p>
+     * Get the index in {@link #columns()} of the column corresponding to the JavaBean getter function
+     * <p>
+     * 不捕获变量的Lambda按其类缓存解析结果，之后的解析不加锁、不调用代理
+     * <p>
+     * Lambdas that capture no variables are cached by their class, later resolutions take no lock and make no proxy call
+     *
+     * @param function getter方法
+     *                 <p>
+     *                 getter function
+     * @return 列的序号，不是列时为-1
+     *         <p>
+     *         Column index, -1 when it is not a column
+     * @since 1.2.0
+     */
+    public int getColumnIndexByFunction(Function<E, ?> function) {
+        Integer index = functionIndexCache.get(function.getClass());
+        if (index != null && index != UNCACHEABLE) {
+            return index;
+        }
+        String functionName = functionNameGetter.getFunctionName(function);
+        int resolved = classInfo.getterNames.indexOf(functionName);
+        if (index == null) {
+            // 捕获了变量的Lambda，同一个类的不同实例可能调用不同的getter，不能按类缓存
+            boolean capturing = function.getClass().getDeclaredFields().length > 0;
+            functionIndexCache.putIfAbsent(function.getClass(), capturing ? UNCACHEABLE : resolved);
+        }
+        return resolved;
+    }
 }
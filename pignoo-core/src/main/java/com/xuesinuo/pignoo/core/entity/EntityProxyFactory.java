@@ -1,7 +1,11 @@
 package com.xuesinuo.pignoo.core.entity;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import com.xuesinuo.pignoo.core.exception.PignooRuntimeException;
 
@@ -18,12 +22,51 @@ import net.bytebuddy.matcher.ElementMatchers;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.4
+ * @version 1.2.0
  */
 @Slf4j
 public class EntityProxyFactory<E> {
-    private Class<? extends E> porxyClass;
-    private Field proxyField;
+
+    private static final ConcurrentHashMap<Class<?>, ProxyType<?>> proxyTypes = new ConcurrentHashMap<>();// 实体类型 -> 代理类型
+    private static final ConcurrentHashMap<Class<?>, Field> targetFields = new ConcurrentHashMap<>();// 代理类 -> 保存目标的字段
+
+    private final ProxyType<E> proxyType;
+    private final InvocationHandler handler;
+
+    /**
+     * 代理类型：每个实体类型只生成一次，拦截逻辑由实例上的处理器字段提供
+     * <p>
+     * Proxy type: generated only once per entity type, the interception is provided by the handler field of each instance
+     */
+    private static class ProxyType<E> {
+        private final Constructor<? extends E> constructor;
+        private final Supplier<? extends E> instantiator;
+        private final Field proxyField;
+        private final Field handlerField;
+
+        @SuppressWarnings("unchecked")
+        private ProxyType(Class<E> c) throws ReflectiveOperationException {
+            Class<? extends E> proxyClass = new ByteBuddy()
+                    .subclass(c)
+                    .defineField("$proxy", c, java.lang.reflect.Modifier.PRIVATE)
+                    .defineField("$handler", InvocationHandler.class, java.lang.reflect.Modifier.PRIVATE)
+                    .method(ElementMatchers.not(ElementMatchers.isDeclaredBy(Object.class)))
+                    .intercept(InvocationHandlerAdapter.toField("$handler"))
+                    .make()
+                    .load(c.getClassLoader())
+                    .getLoaded();
+            this.constructor = proxyClass.getDeclaredConstructor();
+            this.instantiator = AccessorFactory.instantiator((Class<E>) proxyClass, (Constructor<E>) this.constructor);
+            this.proxyField = proxyClass.getDeclaredField("$proxy");
+            this.proxyField.setAccessible(true);
+            this.handlerField = proxyClass.getDeclaredField("$handler");
+            this.handlerField.setAccessible(true);
+        }
+
+        private E newInstance() throws ReflectiveOperationException {
+            return instantiator != null ? instantiator.get() : constructor.newInstance();
+        }
+    }
 
     /**
      * 在代理执行setter时，拦截并执行的update操作
@@ -39,10 +82,28 @@ public class EntityProxyFactory<E> {
         void run(int index, Object setterArg, Object obj);
     }
 
+    /**
+     * 在代理执行setter时，拦截并登记修改前后的值，用于延迟更新
+     * <p>
+     * Intercepts and registers the values before and after modification when the proxy executes a setter, used for deferred updates
+     *
+     * @author xuesinuo
+     * @since 1.2.0
+     * @version 1.2.0
+     */
+    @FunctionalInterface
+    public static interface Tracker {
+        void track(int index, Object oldValue, Object newValue, Object obj);
+    }
+
     /**
      * 代理工厂构造器：每个类型建造一座工厂
      * <p>
      * Proxy Factory Constructor: Each type builds a factory
+     * <p>
+     * 代理类按实体类型缓存，只在第一次使用时生成；每座工厂只创建自己的拦截处理器
+     * <p>
+     * The proxy class is cached by entity type and generated only on first use; each factory only creates its own interception handler
      *
      * @param c           实体类型
      *                    <p>
@@ -58,30 +119,89 @@ public class EntityProxyFactory<E> {
      *                    Update Operation Executed When Proxy Executes Setter
      */
     public EntityProxyFactory(Class<E> c, List<String> setterNames, List<Field> fields, Updater updater) {
+        this(c, setterNames, fields, (Tracker) (index, oldValue, newValue, obj) -> updater.run(index, newValue, obj));
+    }
+
+    /**
+     * 代理工厂构造器：setter修改由tracker登记，而不是立即更新
+     * <p>
+     * Proxy Factory Constructor: setter modifications are registered by the tracker instead of being updated immediately
+     *
+     * @param c           实体类型
+     *                    <p>
+     *                    Entity Type
+     * @param setterNames setter方法名列表
+     *                    <p>
+     *                    Setter Method Name List
+     * @param fields      字段列表
+     *                    <p>
+     *                    Field List
+     * @param tracker     在代理执行setter时，登记修改前后的值
+     *                    <p>
+     *                    Registers the values before and after modification when the proxy executes a setter
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    public EntityProxyFactory(Class<E> c, List<String> setterNames, List<Field> fields, Tracker tracker) {
         try {
-            this.porxyClass = new ByteBuddy()
-                    .subclass(c)
-                    .defineField("$proxy", c, java.lang.reflect.Modifier.PRIVATE)
-                    .method(ElementMatchers.not(ElementMatchers.isDeclaredBy(Object.class)))
-                    .intercept(InvocationHandlerAdapter.of((proxy, method, args) -> {
-                        Object $proxy = this.proxyField.get(proxy);
-                        Object invokeResult = method.invoke($proxy, args);
-                        String methodName = method.getName();
-                        int index = setterNames.indexOf(methodName);
-                        if (index >= 0 && method.getParameterCount() == 1 && fields.get(index).getType().isAssignableFrom(method.getParameterTypes()[0])) {
-                            Object fieldValue = fields.get(index).get($proxy);
-                            updater.run(index, fieldValue, $proxy);
-                        }
-                        return invokeResult;
-                    }))
-                    .make()
-                    .load(c.getClassLoader())
-                    .getLoaded();
-            this.proxyField = porxyClass.getDeclaredField("$proxy");
-            this.proxyField.setAccessible(true);
+            ProxyType<E> proxyType = (ProxyType<E>) proxyTypes.get(c);
+            if (proxyType == null) {
+                proxyType = new ProxyType<>(c);
+                ProxyType<E> existing = (ProxyType<E>) proxyTypes.putIfAbsent(c, proxyType);
+                if (existing != null) {
+                    proxyType = existing;
+                } else {
+                    targetFields.put(proxyType.proxyField.getDeclaringClass(), proxyType.proxyField);
+                }
+            }
+            this.proxyType = proxyType;
         } catch (Exception e) {
             throw new PignooRuntimeException("Pignoo create proxy-factory error", e);
         }
+        Field proxyField = this.proxyType.proxyField;
+        this.handler = (proxy, method, args) -> {
+            Object $proxy = proxyField.get(proxy);
+            String methodName = method.getName();
+            int index = setterNames.indexOf(methodName);
+            if (index < 0 || method.getParameterCount() != 1 || !fields.get(index).getType().isAssignableFrom(method.getParameterTypes()[0])) {
+                return method.invoke($proxy, args);
+            }
+            Object oldValue = fields.get(index).get($proxy);
+            Object invokeResult = method.invoke($proxy, args);
+            Object fieldValue = fields.get(index).get($proxy);
+            tracker.track(index, oldValue, fieldValue, $proxy);
+            return invokeResult;
+        };
+    }
+
+    /**
+     * 取出代理的目标；不是代理时原样返回。直接读写字段之前必须先取出目标，代理自身的字段没有值
+     * <p>
+     * Get the target of a proxy; returned as is when it is not a proxy. The target must be taken out before reading or writing fields directly, the fields of the proxy
+     * itself hold no values
+     *
+     * @param entity 实体或代理
+     *               <p>
+     *               Entity or proxy
+     * @return 代理的目标，或实体本身
+     *         <p>
+     *         Target of the proxy, or the entity itself
+     * @since 1.2.0
+     */
+    public static Object unwrap(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        Field targetField = targetFields.get(entity.getClass());
+        if (targetField == null) {
+            return entity;
+        }
+        try {
+            Object target = targetField.get(entity);
+            return target == null ? entity : target;
+        } catch (IllegalAccessException e) {
+            throw new PignooRuntimeException("Pignoo read proxy target error", e);
+        }
     }
 
     /**
@@ -102,8 +222,9 @@ public class EntityProxyFactory<E> {
         }
         E proxy = null;
         try {
-            proxy = (E) porxyClass.getDeclaredConstructor().newInstance();
-            proxyField.set(proxy, entity);
+            proxy = proxyType.newInstance();
+            proxyType.proxyField.set(proxy, entity);
+            proxyType.handlerField.set(proxy, handler);
         } catch (Exception e) {
             throw new PignooRuntimeException("Pignoo create proxy error", e);
         }
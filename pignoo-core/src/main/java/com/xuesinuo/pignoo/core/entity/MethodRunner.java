@@ -3,8 +3,6 @@ package com.xuesinuo.pignoo.core.entity;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 
-import lombok.AllArgsConstructor;
-
 /**
  * 方法执行器，用于经典反射与MethodHandle反射的切换，高频场景使用MethodHandle反射性能更优，经典反射兜底。
  * <p>
@@ -13,12 +11,134 @@ import lombok.AllArgsConstructor;
  * 
  * @author xuesinuo
  * @since 1.1.3
- * @version 1.1.3
+ * @version 1.2.0
  */
-@AllArgsConstructor
 public class MethodRunner {
     private final Method method;
     private final MethodHandle methodHandle;
+    private final PropertyAccessor accessor;// 生成的属性访问器，可能为null
+    private final boolean setter;// 是否是setter
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     * 
+     * @param method       方法
+     *                     <p>
+     *                     Method
+     * @param methodHandle 方法对应的MethodHandle
+     *                     <p>
+     *                     The MethodHandle of the method
+     */
+    public MethodRunner(Method method, MethodHandle methodHandle) {
+        this(method, methodHandle, null);
+    }
+
+    /**
+     * 构造器，带生成的属性访问器（getter或setter）
+     * <p>
+     * Constructor, with a generated property accessor (getter or setter)
+     * 
+     * @param method       方法
+     *                     <p>
+     *                     Method
+     * @param methodHandle 方法对应的MethodHandle
+     *                     <p>
+     *                     The MethodHandle of the method
+     * @param accessor     生成的属性访问器，可以为null
+     *                     <p>
+     *                     Generated property accessor, can be null
+     * @since 1.2.0
+     */
+    public MethodRunner(Method method, MethodHandle methodHandle, PropertyAccessor accessor) {
+        this.method = method;
+        this.methodHandle = methodHandle;
+        this.accessor = accessor;
+        this.setter = method.getParameterCount() == 1;
+    }
+
+    /**
+     * 方法对应的MethodHandle，可能为null
+     * <p>
+     * The MethodHandle of the method, may be null
+     * 
+     * @return MethodHandle
+     * @since 1.2.0
+     */
+    public MethodHandle methodHandle() {
+        return methodHandle;
+    }
+
+    /**
+     * 生成的属性访问器，可能为null
+     * <p>
+     * The generated property accessor, may be null
+     * 
+     * @return 属性访问器
+     *         <p>
+     *         Property accessor
+     * @since 1.2.0
+     */
+    public PropertyAccessor accessor() {
+        return accessor;
+    }
+
+    /**
+     * 执行无参方法（getter）
+     * <p>
+     * Execute a method without parameters (getter)
+     * 
+     * @param bean 方法所属对象
+     *             <p>
+     *             Method owner object
+     * @return 方法返回值
+     *         <p>
+     *         Method return value
+     * @throws Throwable 异常
+     *                   <p>
+     *                   Exception
+     * @since 1.2.0
+     */
+    public Object run(Object bean) throws Throwable {
+        if (accessor != null && !setter) {
+            return accessor.get(bean);
+        }
+        if (methodHandle != null) {
+            return methodHandle.invoke(bean);
+        }
+        return method.invoke(bean);
+    }
+
+    /**
+     * 执行单参数方法（setter）
+     * <p>
+     * Execute a method with one parameter (setter)
+     * 
+     * @param bean 方法所属对象
+     *             <p>
+     *             Method owner object
+     * @param arg  方法参数
+     *             <p>
+     *             Method parameter
+     * @return 方法返回值
+     *         <p>
+     *         Method return value
+     * @throws Throwable 异常
+     *                   <p>
+     *                   Exception
+     * @since 1.2.0
+     */
+    public Object run(Object bean, Object arg) throws Throwable {
+        if (accessor != null && setter) {
+            accessor.set(bean, arg);
+            return null;
+        }
+        if (methodHandle != null) {
+            return methodHandle.invoke(bean, arg);
+        }
+        return method.invoke(bean, arg);
+    }
 
     /**
      * 执行方法
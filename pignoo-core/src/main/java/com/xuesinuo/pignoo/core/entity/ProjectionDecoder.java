@@ -0,0 +1,183 @@
+package com.xuesinuo.pignoo.core.entity;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.xuesinuo.pignoo.core.exception.MapperException;
+
+/**
+ * 投影查询的行解析器：只解析被选择的列，写入部分实体、DTO或record
+ * <p>
+ * Row decoder of projection queries: only decodes the selected columns, into partial entities, DTOs or records
+ * <p>
+ * 列按实体的属性名映射到目标类型：record按组件名，DTO按setter名
+ * <p>
+ * Columns are mapped to the target type by the property names of the entity: records by component name, DTOs by setter name
+ *
+ * @param <R> 目标类型
+ *            <p>
+ *            Target type
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class ProjectionDecoder<R> {
+    private static final ConcurrentHashMap<List<Object>, ProjectionDecoder<?>> cache = new ConcurrentHashMap<>();
+
+    private final EntityMapper<?> mapper;// 实体映射器，目标是实体本身时使用
+    private final Class<?>[] types;// 每个被选择列的目标类型
+    private final MethodRunner[] setters;// 每个被选择列的setter，record时为null
+    private final Constructor<R> constructor;// record的规范构造器或DTO的无参构造器，目标是实体本身时为null
+    private final int[] argIndexes;// 每个被选择列在record构造参数中的位置
+    private final Object[] defaultArgs;// record构造参数的默认值
+
+    /**
+     * 获取投影解析器，相同的实体、列与目标类型共享一个解析器
+     * <p>
+     * Get a projection decoder, the same entity, columns and target type share one decoder
+     *
+     * @param <R>     目标类型
+     *                <p>
+     *                Target type
+     * @param mapper  实体映射器
+     *                <p>
+     *                Entity mapper
+     * @param indexes 被选择的列在{@link EntityMapper#columns()}中的序号
+     *                <p>
+     *                The indexes of the selected columns in {@link EntityMapper#columns()}
+     * @param c       目标类型
+     *                <p>
+     *                Target type
+     * @return 投影解析器
+     *         <p>
+     *         Projection decoder
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> ProjectionDecoder<R> build(EntityMapper<?> mapper, List<Integer> indexes, Class<R> c) {
+        List<Object> cacheKey = List.of(mapper, List.copyOf(indexes), c);
+        ProjectionDecoder<R> decoder = (ProjectionDecoder<R>) cache.get(cacheKey);
+        if (decoder == null) {
+            decoder = new ProjectionDecoder<>(mapper, indexes, c);
+            cache.put(cacheKey, decoder);
+        }
+        return decoder;
+    }
+
+    private ProjectionDecoder(EntityMapper<?> mapper, List<Integer> indexes, Class<R> c) {
+        this.mapper = mapper;
+        int size = indexes.size();
+        this.types = new Class<?>[size];
+        if (c == mapper.getType()) {// 部分实体
+            this.setters = new MethodRunner[size];
+            for (int i = 0; i < size; i++) {
+                this.types[i] = mapper.fields().get(indexes.get(i)).getType();
+                this.setters[i] = mapper.setters().get(indexes.get(i));
+            }
+            this.constructor = null;
+            this.argIndexes = null;
+            this.defaultArgs = null;
+        } else if (c.isRecord()) {
+            RecordComponent[] components = c.getRecordComponents();
+            Class<?>[] componentTypes = new Class<?>[components.length];
+            this.defaultArgs = new Object[components.length];
+            for (int j = 0; j < components.length; j++) {
+                componentTypes[j] = components[j].getType();
+                if (componentTypes[j].isPrimitive()) {
+                    this.defaultArgs[j] = Array.get(Array.newInstance(componentTypes[j], 1), 0);
+                }
+            }
+            this.argIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                String name = mapper.fields().get(indexes.get(i)).getName();
+                int argIndex = -1;
+                for (int j = 0; j < components.length; j++) {
+                    if (components[j].getName().equals(name)) {
+                        argIndex = j;
+                        break;
+                    }
+                }
+                if (argIndex < 0) {
+                    throw new MapperException("Record " + c.getName() + " missing component " + name);
+                }
+                this.argIndexes[i] = argIndex;
+                this.types[i] = componentTypes[argIndex];
+            }
+            try {
+                this.constructor = c.getDeclaredConstructor(componentTypes);
+                this.constructor.trySetAccessible();
+            } catch (NoSuchMethodException | SecurityException e) {
+                throw new MapperException("Record " + c.getName() + " read constructor failed", e);
+            }
+            this.setters = null;
+        } else {// DTO
+            this.setters = new MethodRunner[size];
+            for (int i = 0; i < size; i++) {
+                String name = mapper.fields().get(indexes.get(i)).getName();
+                String setterName = "set" + name.substring(0, 1).toUpperCase() + name.substring(1);
+                Method setter = null;
+                for (Method method : c.getMethods()) {
+                    if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+                        setter = method;
+                        break;
+                    }
+                }
+                if (setter == null) {
+                    throw new MapperException("Class " + c.getName() + " missing setter " + setterName);
+                }
+                setter.trySetAccessible();
+                this.types[i] = setter.getParameterTypes()[0];
+                this.setters[i] = new MethodRunner(setter, null);
+            }
+            try {
+                this.constructor = c.getDeclaredConstructor();
+                this.constructor.trySetAccessible();
+            } catch (NoSuchMethodException | SecurityException e) {
+                throw new MapperException("Class " + c.getName() + " missing no-args constructor", e);
+            }
+            this.argIndexes = null;
+            this.defaultArgs = null;
+        }
+    }
+
+    /**
+     * 将当前行解析为目标类型，查询结果的列与被选择的列顺序一致
+     * <p>
+     * Decode the current row into the target type, the columns of the result are in the order of the selected columns
+     *
+     * @param rs 查询结果，已指向要解析的行
+     *           <p>
+     *           Result set, pointing to the row to be decoded
+     * @return 解析结果
+     *         <p>
+     *         Decoded result
+     * @throws Throwable 读取或赋值异常
+     *                   <p>
+     *                   Read or assignment exception
+     */
+    @SuppressWarnings("unchecked")
+    public R decode(ResultSet rs) throws Throwable {
+        if (argIndexes != null) {
+            Object[] args = defaultArgs.clone();
+            for (int i = 0; i < types.length; i++) {
+                Object value = RowDecoder.read(rs, i + 1, types[i]);
+                if (value != null) {
+                    args[argIndexes[i]] = value;
+                }
+            }
+            return constructor.newInstance(args);
+        }
+        R result = constructor == null ? (R) mapper.buildEntity() : constructor.newInstance();
+        for (int i = 0; i < types.length; i++) {
+            Object value = RowDecoder.read(rs, i + 1, types[i]);
+            if (value != null || !types[i].isPrimitive()) {
+                setters[i].run(result, value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,308 @@
+package com.xuesinuo.pignoo.core.entity;
+
+/**
+ * 属性访问器：由{@link AccessorFactory}为每个属性生成子类，直接调用getter/setter，不经过反射
+ * <p>
+ * Property accessor: {@link AccessorFactory} generates a subclass for each property, which calls the getter/setter directly without reflection
+ * <p>
+ * 基本类型的方法（如{@link #getLong(Object)}）只在属性类型一致时被生成的子类重写，其他情况使用装箱的默认实现
+ * <p>
+ * Primitive methods (such as {@link #getLong(Object)}) are overridden by the generated subclass only when the property type matches, otherwise the boxing default implementation is used
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public abstract class PropertyAccessor {
+
+    /**
+     * 构造器，仅供生成的子类使用
+     * <p>
+     * Constructor, only for generated subclasses
+     */
+    protected PropertyAccessor() {}
+
+    /**
+     * 读取属性
+     * <p>
+     * Read the property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public abstract Object get(Object bean);
+
+    /**
+     * 写入属性
+     * <p>
+     * Write the property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public abstract void set(Object bean, Object value);
+
+    /**
+     * 读取long类型的属性
+     * <p>
+     * Read a long property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public long getLong(Object bean) {
+        return (Long) get(bean);
+    }
+
+    /**
+     * 写入long类型的属性
+     * <p>
+     * Write a long property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setLong(Object bean, long value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取int类型的属性
+     * <p>
+     * Read an int property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public int getInt(Object bean) {
+        return (Integer) get(bean);
+    }
+
+    /**
+     * 写入int类型的属性
+     * <p>
+     * Write an int property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setInt(Object bean, int value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取short类型的属性
+     * <p>
+     * Read a short property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public short getShort(Object bean) {
+        return (Short) get(bean);
+    }
+
+    /**
+     * 写入short类型的属性
+     * <p>
+     * Write a short property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setShort(Object bean, short value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取byte类型的属性
+     * <p>
+     * Read a byte property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public byte getByte(Object bean) {
+        return (Byte) get(bean);
+    }
+
+    /**
+     * 写入byte类型的属性
+     * <p>
+     * Write a byte property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setByte(Object bean, byte value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取double类型的属性
+     * <p>
+     * Read a double property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public double getDouble(Object bean) {
+        return (Double) get(bean);
+    }
+
+    /**
+     * 写入double类型的属性
+     * <p>
+     * Write a double property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setDouble(Object bean, double value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取float类型的属性
+     * <p>
+     * Read a float property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public float getFloat(Object bean) {
+        return (Float) get(bean);
+    }
+
+    /**
+     * 写入float类型的属性
+     * <p>
+     * Write a float property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setFloat(Object bean, float value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取boolean类型的属性
+     * <p>
+     * Read a boolean property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public boolean getBoolean(Object bean) {
+        return (Boolean) get(bean);
+    }
+
+    /**
+     * 写入boolean类型的属性
+     * <p>
+     * Write a boolean property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setBoolean(Object bean, boolean value) {
+        set(bean, value);
+    }
+
+    /**
+     * 读取char类型的属性
+     * <p>
+     * Read a char property
+     *
+     * @param bean 实体
+     *             <p>
+     *             Entity
+     * @return 属性值
+     *         <p>
+     *         Property value
+     */
+    public char getChar(Object bean) {
+        return (Character) get(bean);
+    }
+
+    /**
+     * 写入char类型的属性
+     * <p>
+     * Write a char property
+     *
+     * @param bean  实体
+     *              <p>
+     *              Entity
+     * @param value 属性值
+     *              <p>
+     *              Property value
+     */
+    public void setChar(Object bean, char value) {
+        set(bean, value);
+    }
+}
@@ -0,0 +1,321 @@
+package com.xuesinuo.pignoo.core.entity;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import com.xuesinuo.pignoo.core.exception.MapperException;
+
+/**
+ * 预编译的行解析器：每个{@link EntityMapper}编译一次，按列序号读取，使用类型化的getXXX方法，有生成的{@link PropertyAccessor}时基本类型属性不装箱
+ * <p>
+ * Precompiled row decoder: compiled once per {@link EntityMapper}, reads by column index, uses typed getXXX methods, and primitive properties are not boxed when a generated {@link PropertyAccessor} exists
+ * <p>
+ * 要求查询结果的列与{@link EntityMapper#columns()}顺序一致，可以用{@link #matches(ResultSetMetaData)}检查
+ * <p>
+ * Requires the columns of the result to be in the same order as {@link EntityMapper#columns()}, which can be checked by {@link #matches(ResultSetMetaData)}
+ *
+ * @param <E> JavaBean Type
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class RowDecoder<E> {
+
+    /**
+     * 单列的解析计划：读取一列并写入实体
+     * <p>
+     * Decoding plan of one column: read a column and write it to the entity
+     */
+    @FunctionalInterface
+    private static interface ColumnDecoder {
+        void decode(ResultSet rs, int index, Object entity) throws Throwable;
+    }
+
+    private final EntityMapper<E> mapper;
+    private final List<String> columns;
+    private final ColumnDecoder[] decoders;
+
+    /**
+     * 编译一个实体的行解析器
+     * <p>
+     * Compile the row decoder of an entity
+     *
+     * @param mapper 实体映射器
+     *               <p>
+     *               Entity mapper
+     */
+    public RowDecoder(EntityMapper<E> mapper) {
+        this.mapper = mapper;
+        this.columns = mapper.columns();
+        this.decoders = new ColumnDecoder[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            decoders[i] = compile(mapper.fields().get(i).getType(), mapper.setters().get(i));
+        }
+    }
+
+    /**
+     * 查询结果的列是否与实体的列一一对应
+     * <p>
+     * Whether the columns of the result correspond to the columns of the entity one by one
+     *
+     * @param metaData 查询结果的元数据
+     *                 <p>
+     *                 Metadata of the result
+     * @return 是否对应
+     *         <p>
+     *         Whether they correspond
+     * @throws SQLException SQL异常
+     */
+    public boolean matches(ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(metaData.getColumnLabel(i + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将当前行解析为实体
+     * <p>
+     * Decode the current row into an entity
+     *
+     * @param rs 查询结果，已指向要解析的行
+     *           <p>
+     *           Result set, pointing to the row to be decoded
+     * @return 实体
+     *         <p>
+     *         Entity
+     * @throws Throwable 读取或赋值异常
+     *                   <p>
+     *                   Read or assignment exception
+     */
+    public E decode(ResultSet rs) throws Throwable {
+        E entity = mapper.buildEntity();
+        for (int i = 0; i < decoders.length; i++) {
+            decoders[i].decode(rs, i + 1, entity);
+        }
+        return entity;
+    }
+
+    /**
+     * 引用类型属性的赋值动作
+     * <p>
+     * Assignment of a reference type property
+     */
+    @FunctionalInterface
+    private static interface Assigner {
+        void assign(Object entity, Object value) throws Throwable;
+    }
+
+    private static ColumnDecoder compile(Class<?> type, MethodRunner setter) {
+        PropertyAccessor accessor = setter.accessor();
+        if (accessor == null) {// 没有生成的访问器时使用MethodHandle或经典反射兜底，基本类型遇到NULL不赋值
+            MethodHandle handle = setter.methodHandle() == null ? null : setter.methodHandle().asType(MethodType.methodType(void.class, Object.class, Object.class));
+            Assigner assigner = handle == null ? setter::run : (entity, value) -> handle.invokeExact(entity, value);
+            if (!type.isPrimitive()) {
+                return compileReference(type, assigner);
+            }
+            return compileReference(wrap(type), (entity, value) -> {
+                if (value != null) {
+                    assigner.assign(entity, value);
+                }
+            });
+        }
+        if (!type.isPrimitive()) {
+            return compileReference(type, accessor::set);
+        }
+        if (type == long.class) {
+            return (rs, index, entity) -> {
+                long value = rs.getLong(index);
+                if (!rs.wasNull()) {
+                    accessor.setLong(entity, value);
+                }
+            };
+        } else if (type == int.class) {
+            return (rs, index, entity) -> {
+                int value = rs.getInt(index);
+                if (!rs.wasNull()) {
+                    accessor.setInt(entity, value);
+                }
+            };
+        } else if (type == double.class) {
+            return (rs, index, entity) -> {
+                double value = rs.getDouble(index);
+                if (!rs.wasNull()) {
+                    accessor.setDouble(entity, value);
+                }
+            };
+        } else if (type == boolean.class) {
+            return (rs, index, entity) -> {
+                boolean value = rs.getBoolean(index);
+                if (!rs.wasNull()) {
+                    accessor.setBoolean(entity, value);
+                }
+            };
+        } else if (type == float.class) {
+            return (rs, index, entity) -> {
+                float value = rs.getFloat(index);
+                if (!rs.wasNull()) {
+                    accessor.setFloat(entity, value);
+                }
+            };
+        } else if (type == short.class) {
+            return (rs, index, entity) -> {
+                short value = rs.getShort(index);
+                if (!rs.wasNull()) {
+                    accessor.setShort(entity, value);
+                }
+            };
+        } else if (type == byte.class) {
+            return (rs, index, entity) -> {
+                byte value = rs.getByte(index);
+                if (!rs.wasNull()) {
+                    accessor.setByte(entity, value);
+                }
+            };
+        } else if (type == char.class) {
+            return (rs, index, entity) -> {
+                String value = rs.getString(index);
+                if (value != null && !value.isEmpty()) {
+                    accessor.setChar(entity, value.charAt(0));
+                }
+            };
+        }
+        throw new MapperException("Unsupported primitive type " + type);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static ColumnDecoder compileReference(Class<?> type, Assigner assigner) {
+        if (type == Long.class) {
+            return (rs, index, entity) -> {
+                long value = rs.getLong(index);
+                assigner.assign(entity, rs.wasNull() ? null : Long.valueOf(value));
+            };
+        } else if (type == Integer.class) {
+            return (rs, index, entity) -> {
+                int value = rs.getInt(index);
+                assigner.assign(entity, rs.wasNull() ? null : Integer.valueOf(value));
+            };
+        } else if (type == Double.class) {
+            return (rs, index, entity) -> {
+                double value = rs.getDouble(index);
+                assigner.assign(entity, rs.wasNull() ? null : Double.valueOf(value));
+            };
+        } else if (type == Boolean.class) {
+            return (rs, index, entity) -> {
+                boolean value = rs.getBoolean(index);
+                assigner.assign(entity, rs.wasNull() ? null : Boolean.valueOf(value));
+            };
+        } else if (type == Float.class) {
+            return (rs, index, entity) -> {
+                float value = rs.getFloat(index);
+                assigner.assign(entity, rs.wasNull() ? null : Float.valueOf(value));
+            };
+        } else if (type == Short.class) {
+            return (rs, index, entity) -> {
+                short value = rs.getShort(index);
+                assigner.assign(entity, rs.wasNull() ? null : Short.valueOf(value));
+            };
+        } else if (type == Byte.class) {
+            return (rs, index, entity) -> {
+                byte value = rs.getByte(index);
+                assigner.assign(entity, rs.wasNull() ? null : Byte.valueOf(value));
+            };
+        } else if (type == String.class) {
+            return (rs, index, entity) -> assigner.assign(entity, rs.getString(index));
+        } else if (type == BigDecimal.class) {
+            return (rs, index, entity) -> assigner.assign(entity, rs.getBigDecimal(index));
+        } else if (type == Character.class) {
+            return (rs, index, entity) -> {
+                String value = rs.getString(index);
+                assigner.assign(entity, value == null || value.isEmpty() ? null : Character.valueOf(value.charAt(0)));
+            };
+        } else if (type == Instant.class) {
+            return (rs, index, entity) -> {
+                Timestamp value = rs.getTimestamp(index);
+                assigner.assign(entity, value == null ? null : value.toInstant());
+            };
+        } else if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return (rs, index, entity) -> {
+                String value = rs.getString(index);
+                assigner.assign(entity, value == null ? null : Enum.valueOf(enumType, value));
+            };
+        }
+        return (rs, index, entity) -> assigner.assign(entity, rs.getObject(index, type));
+    }
+
+    /**
+     * 按序号读取一列，转换为指定类型，NULL读取为null
+     * <p>
+     * Read a column by index and convert it to the given type, NULL is read as null
+     *
+     * @param rs    查询结果
+     *              <p>
+     *              Result set
+     * @param index 列序号，从1开始
+     *              <p>
+     *              Column index, starting from 1
+     * @param type  目标类型，基本类型按包装类型读取
+     *              <p>
+     *              Target type, primitive types are read as wrapper types
+     * @return 列的值
+     *         <p>
+     *         Column value
+     * @throws SQLException SQL异常
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+        type = wrap(type);
+        Object value;
+        if (type == Long.class) {
+            value = rs.getLong(index);
+        } else if (type == Integer.class) {
+            value = rs.getInt(index);
+        } else if (type == Double.class) {
+            value = rs.getDouble(index);
+        } else if (type == Boolean.class) {
+            value = rs.getBoolean(index);
+        } else if (type == Float.class) {
+            value = rs.getFloat(index);
+        } else if (type == Short.class) {
+            value = rs.getShort(index);
+        } else if (type == Byte.class) {
+            value = rs.getByte(index);
+        } else if (type == String.class) {
+            return rs.getString(index);
+        } else if (type == BigDecimal.class) {
+            return rs.getBigDecimal(index);
+        } else if (type == Character.class) {
+            String text = rs.getString(index);
+            return text == null || text.isEmpty() ? null : Character.valueOf(text.charAt(0));
+        } else if (type == Instant.class) {
+            Timestamp timestamp = rs.getTimestamp(index);
+            return timestamp == null ? null : timestamp.toInstant();
+        } else if (type.isEnum()) {
+            String text = rs.getString(index);
+            return text == null ? null : Enum.valueOf((Class<? extends Enum>) type, text);
+        } else {
+            return rs.getObject(index, type);
+        }
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
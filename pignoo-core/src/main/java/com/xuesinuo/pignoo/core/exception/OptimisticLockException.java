@@ -0,0 +1,33 @@
+package com.xuesinuo.pignoo.core.exception;
+
+/**
+ * 乐观锁冲突异常：根据ID修改时，数据库中的版本与实体的版本不一致，或数据已不存在
+ * <p>
+ * Optimistic lock exception: when modifying by Primary-Key, the version in the database does not match the version of the entity, or the data no longer exists
+ * 
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class OptimisticLockException extends PignooRuntimeException {
+
+    private final Object entity;// 冲突的实体
+
+    public OptimisticLockException(String string, Object entity) {
+        super(string);
+        this.entity = entity;
+    }
+
+    /**
+     * 冲突的实体
+     * <p>
+     * The conflicting entity
+     * 
+     * @return 冲突的实体
+     *         <p>
+     *         The conflicting entity
+     */
+    public Object getEntity() {
+        return entity;
+    }
+}
@@ -3,7 +3,6 @@ package com.xuesinuo.pignoo.core.implement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
@@ -29,7 +28,7 @@ import com.xuesinuo.pignoo.core.exception.PignooRuntimeException;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 0.2.3
+ * @version 1.2.0
  */
 @Slf4j
 public class BasePignoo implements Pignoo {
@@ -42,6 +41,8 @@ public class BasePignoo implements Pignoo {
 
     private boolean hasClosed = false;// 是否已经关闭
 
+    private final UnitOfWork unitOfWork;// 延迟的setter更新，未开启时为null
+
     /**
      * 构造器，使用默认配置
      * <p>
@@ -77,6 +78,8 @@ public class BasePignoo implements Pignoo {
         } else {
             this.config = pignooConfig.copy();
         }
+        this.unitOfWork = this.config.getDeferSetterUpdate() != null && this.config.getDeferSetterUpdate() ? new UnitOfWork(this.config.getEntityCaches(), null) : null;
+        this.connGetter = new StatementCache(() -> this.getConnection(), this.config.getStatementCacheSize() == null ? 0 : this.config.getStatementCacheSize());
         if (this.config.getEngine() == null) {
             try {
                 this.config.setEngine(DatabaseEngine.getDatabaseEngineByConnection(this.getConnection()));
@@ -110,7 +113,7 @@ public class BasePignoo implements Pignoo {
         return this.conn;
     }
 
-    private Supplier<Connection> connGetter = () -> this.getConnection();
+    private final StatementCache connGetter;// 获取连接函数，附带PreparedStatement缓存
 
     private Consumer<Connection> connCloser = (conn) -> {
         try {
@@ -126,7 +129,7 @@ public class BasePignoo implements Pignoo {
     public <E> PignooWriter<E> writer(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, false, c, this.config);
+            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, false, c, this.config, this.unitOfWork);
         }
         throw new DataSourceException("Unknow database engine");
     }
@@ -135,15 +138,25 @@ public class BasePignoo implements Pignoo {
     public <E> PignooReader<E> reader(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooReader4Mysql<E>(this, connGetter, connCloser, false, c, this.config);
+            return new PignooReader4Mysql<E>(this, connGetter, connCloser, false, c, this.config, this.unitOfWork);
         }
         throw new DataSourceException("Unknow database engine");
     }
 
     @Override
     public void close() {
+        RuntimeException flushError = null;
+        if (!this.hasClosed && this.unitOfWork != null) {
+            try {
+                this.unitOfWork.flush();
+            } catch (RuntimeException e) {
+                flushError = e;
+                this.unitOfWork.clear();
+            }
+        }
         this.hasClosed = true;
         this.dataSource = null;
+        this.connGetter.clear();
         if (this.conn != null) {
             try {
                 this.conn.close();
@@ -153,6 +166,30 @@ public class BasePignoo implements Pignoo {
                 this.conn = null;
             }
         }
+        if (flushError != null) {
+            throw flushError;
+        }
+    }
+
+    /**
+     * 当前连接的PreparedStatement缓存，可用于查看命中情况
+     * <p>
+     * PreparedStatement cache of the current connection, can be used to view the hit status
+     *
+     * @return PreparedStatement缓存
+     *         <p>
+     *         PreparedStatement cache
+     * @since 1.2.0
+     */
+    public StatementCache getStatementCache() {
+        return this.connGetter;
+    }
+
+    @Override
+    public void flush() {
+        if (this.unitOfWork != null) {
+            this.unitOfWork.flush();
+        }
     }
 
     @Override
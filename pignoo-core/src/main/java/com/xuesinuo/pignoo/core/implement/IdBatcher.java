@@ -0,0 +1,186 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 按主键查询的合并器：多个线程在一个短窗口内对同一个实体类型的getById合并为一次IN查询，结果分发给每个调用方
+ * <p>
+ * Batcher of queries by primary key: getById calls of the same entity type from many threads within a short window are merged into one IN query, and the results are
+ * dispatched to each caller
+ * <p>
+ * 没有后台线程：窗口内第一个调用方等待窗口结束（或批次已满）后，用自己的连接为整个批次查询；同一个批次中重复的主键只查询一次
+ * <p>
+ * No background thread: the first caller in a window waits for the window to end (or the batch to be full), then queries for the whole batch with its own connection;
+ * duplicate primary keys in a batch are queried once
+ * <p>
+ * 一个合并器只应交给一个Gru使用，批次按实体类型区分，不区分数据源
+ * <p>
+ * A batcher should only be handed to one Gru, batches are separated by entity type but not by data source
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class IdBatcher {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Map<Class<?>, Batch> batches = new ConcurrentHashMap<>();// 实体类型 -> 正在收集的批次
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    private static class Batch {
+        private final Map<Object, CompletableFuture<Object>> futures = new LinkedHashMap<>();// 主键 -> 结果
+        private boolean closed = false;
+    }
+
+    /**
+     * 默认的合并器：窗口2毫秒，每批最多500个主键
+     * <p>
+     * Default batcher: 2 milliseconds window, at most 500 primary keys per batch
+     */
+    public IdBatcher() {
+        this(2L, 500);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param windowMillis 合并窗口（毫秒）
+     *                     <p>
+     *                     Batching window (milliseconds)
+     * @param maxBatchSize 每批最多的主键个数，达到后立即查询
+     *                     <p>
+     *                     The maximum number of primary keys per batch, queried immediately when reached
+     */
+    public IdBatcher(long windowMillis, int maxBatchSize) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, windowMillis));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * 按主键查询，与其他线程的查询合并
+     * <p>
+     * Query by primary key, merged with the queries of other threads
+     *
+     * @param <E>        实体类型
+     *                   <p>
+     *                   Entity type
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param id         主键，与loader返回的Map的键可比较
+     *                   <p>
+     *                   Primary key, comparable with the keys of the Map returned by the loader
+     * @param loader     按一批主键查询，返回主键 -&gt; 实体
+     *                   <p>
+     *                   Query by a batch of primary keys, returns primary key -&gt; entity
+     * @return 实体，不存在时为null；同一批次中相同主键的调用方拿到同一个对象
+     *         <p>
+     *         Entity, null when not found; callers of the same primary key in a batch get the same object
+     */
+    @SuppressWarnings("unchecked")
+    public <E> E load(Class<E> entityType, Object id, Function<List<Object>, Map<Object, E>> loader) {
+        calls.increment();
+        while (true) {
+            Batch batch = batches.computeIfAbsent(entityType, k -> new Batch());
+            CompletableFuture<Object> future;
+            boolean leader;
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;// 批次刚刚关闭，加入下一个批次
+                }
+                leader = batch.futures.isEmpty();
+                future = batch.futures.computeIfAbsent(id, k -> new CompletableFuture<>());
+                if (batch.futures.size() >= maxBatchSize) {
+                    this.close(entityType, batch);
+                }
+            }
+            if (leader) {
+                this.lead(entityType, batch, loader);
+            }
+            try {
+                return (E) future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void close(Class<?> entityType, Batch batch) {
+        batch.closed = true;
+        batches.remove(entityType, batch);
+        batch.notifyAll();
+    }
+
+    private <E> void lead(Class<?> entityType, Batch batch, Function<List<Object>, Map<Object, E>> loader) {
+        List<Object> ids;
+        synchronized (batch) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining;
+            while (!batch.closed && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(batch, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!batch.closed) {
+                this.close(entityType, batch);
+            }
+            ids = new ArrayList<>(batch.futures.keySet());
+        }
+        loads.increment();
+        try {
+            Map<Object, E> found = loader.apply(ids);
+            batch.futures.forEach((id, future) -> future.complete(found.get(id)));
+        } catch (RuntimeException | Error e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 调用次数
+     * <p>
+     * Number of calls
+     *
+     * @return 次数
+     *         <p>
+     *         Count
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * 实际执行的批次查询次数
+     * <p>
+     * Number of batch queries actually executed
+     *
+     * @return 次数
+     *         <p>
+     *         Count
+     */
+    public long loads() {
+        return loads.sum();
+    }
+}
@@ -0,0 +1,159 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.xuesinuo.pignoo.core.entity.EntityMapper;
+import com.xuesinuo.pignoo.core.entity.EntityProxyFactory;
+import com.xuesinuo.pignoo.core.exception.MapperException;
+
+/**
+ * 事务内的一级缓存：同一个事务中writer按主键读取过（并已锁定）的实体，再次按主键读取时直接返回同一个对象
+ * <p>
+ * First-level cache in a transaction: entities read (and locked) by primary key through writers in the same transaction are returned as the same object when read by
+ * primary key again
+ * <p>
+ * 按主键的修改会同步到缓存的对象上，删除与按条件的批量写入会使对应的对象移出缓存；事务提交或回滚时清空
+ * <p>
+ * Modifications by primary key are synchronized to the cached objects, deletions and mass writes by condition remove the affected objects from the cache; cleared when the
+ * transaction commits or rolls back
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class IdentityMap {
+
+    private final Map<Class<?>, Map<Object, Entry>> entries = new HashMap<>();// 实体类型 -> 主键 -> 实体
+
+    private static record Entry(Object instance, Object target) {}
+
+    /**
+     * 读取缓存的实体
+     * <p>
+     * Read a cached entity
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param key        统一过类型的主键
+     *                   <p>
+     *                   Normalized primary key
+     * @return 实体（开启setter代理时为代理），未缓存时为null
+     *         <p>
+     *         Entity (the proxy when the setter proxy is on), null when not cached
+     */
+    public synchronized Object get(Class<?> entityType, Object key) {
+        Map<Object, Entry> typeEntries = entries.get(entityType);
+        Entry entry = typeEntries == null ? null : typeEntries.get(key);
+        return entry == null ? null : entry.instance();
+    }
+
+    /**
+     * 登记一个刚读取的实体；主键已登记时返回已登记的对象，保证同一个事务中同一行只有一个对象
+     * <p>
+     * Register an entity just read; returns the registered object when the primary key is already registered, so that one row has only one object in a transaction
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param key        统一过类型的主键
+     *                   <p>
+     *                   Normalized primary key
+     * @param instance   返回给调用方的实体（开启setter代理时为代理）
+     *                   <p>
+     *                   Entity returned to the caller (the proxy when the setter proxy is on)
+     * @param target     保存字段值的实体（代理的目标，没有代理时与instance相同）
+     *                   <p>
+     *                   Entity holding the field values (target of the proxy, the same as instance without a proxy)
+     * @return 已登记的实体
+     *         <p>
+     *         The registered entity
+     */
+    public synchronized Object register(Class<?> entityType, Object key, Object instance, Object target) {
+        return entries.computeIfAbsent(entityType, k -> new HashMap<>()).computeIfAbsent(key, k -> new Entry(instance, target)).instance();
+    }
+
+    /**
+     * 按主键修改成功后，把写入的值同步到缓存的实体上
+     * <p>
+     * After a successful modification by primary key, synchronize the written values to the cached entity
+     *
+     * @param mapper 实体映射器
+     *               <p>
+     *               Entity mapper
+     * @param key    统一过类型的主键
+     *               <p>
+     *               Normalized primary key
+     * @param source 写入的实体，代理读取其目标上的值
+     *               <p>
+     *               The written entity, the values on the target are read for a proxy
+     * @param mix    是否只同步非null的字段
+     *               <p>
+     *               Whether to synchronize only non-null fields
+     */
+    public synchronized void refresh(EntityMapper<?> mapper, Object key, Object source, boolean mix) {
+        Map<Object, Entry> typeEntries = entries.get(mapper.getType());
+        Entry entry = typeEntries == null ? null : typeEntries.get(key);
+        if (entry == null || entry.instance() == source || entry.target() == source) {
+            return;
+        }
+        Object values = EntityProxyFactory.unwrap(source);
+        if (entry.target() == values) {
+            return;
+        }
+        try {
+            for (Field field : mapper.fields()) {
+                Object value = field.get(values);
+                if (!mix || value != null) {
+                    field.set(entry.target(), value);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            typeEntries.remove(key);
+            throw new MapperException("Refresh cached entity failed " + source, e);
+        }
+    }
+
+    /**
+     * 移出一个实体
+     * <p>
+     * Remove an entity
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @param key        统一过类型的主键
+     *                   <p>
+     *                   Normalized primary key
+     */
+    public synchronized void remove(Class<?> entityType, Object key) {
+        Map<Object, Entry> typeEntries = entries.get(entityType);
+        if (typeEntries != null) {
+            typeEntries.remove(key);
+        }
+    }
+
+    /**
+     * 移出一个实体类型的全部实体
+     * <p>
+     * Remove all entities of an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     */
+    public synchronized void removeAll(Class<?> entityType) {
+        entries.remove(entityType);
+    }
+
+    /**
+     * 清空，用于事务提交或回滚
+     * <p>
+     * Clear, used when the transaction commits or rolls back
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,231 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.SqlContext;
+import com.xuesinuo.pignoo.core.SqlContext.SqlType;
+import com.xuesinuo.pignoo.core.SqlExecuter;
+import com.xuesinuo.pignoo.core.SqlInterceptor;
+
+/**
+ * 带拦截器链的{@link SqlExecuter}：包装另一个SqlExecuter，在每次调用前后执行{@link SqlInterceptor}
+ * <p>
+ * {@link SqlExecuter} with an interceptor chain: wraps another SqlExecuter and executes {@link SqlInterceptor}s before and after each call
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class InterceptingSqlExecuter implements SqlExecuter {
+
+    private final SqlExecuter sqlExecuter;// 被包装的SQL执行器
+
+    private final SqlInterceptor[] interceptors;// 拦截器，按执行顺序
+
+    private final Class<?> entityType;// 绑定的实体类型，记录在每个SqlContext中；未绑定时为null
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param sqlExecuter  被包装的SQL执行器
+     *                     <p>
+     *                     The wrapped SQL executer
+     * @param interceptors 拦截器，按执行顺序
+     *                     <p>
+     *                     Interceptors, in execution order
+     */
+    public InterceptingSqlExecuter(SqlExecuter sqlExecuter, List<SqlInterceptor> interceptors) {
+        this(sqlExecuter, interceptors, null);
+    }
+
+    /**
+     * 构造器，绑定实体类型
+     * <p>
+     * Constructor, binding an entity type
+     *
+     * @param sqlExecuter  被包装的SQL执行器
+     *                     <p>
+     *                     The wrapped SQL executer
+     * @param interceptors 拦截器，按执行顺序
+     *                     <p>
+     *                     Interceptors, in execution order
+     * @param entityType   实体类型，记录为每次调用的{@link SqlContext}实体类型，包括不带实体类型参数的写入与列查询；为null时只使用调用参数中的类型
+     *                     <p>
+     *                     Entity type, recorded as the {@link SqlContext} entity type of every call, including writes and column queries that take no entity type parameter;
+     *                     when null, only the type in the call parameters is used
+     */
+    public InterceptingSqlExecuter(SqlExecuter sqlExecuter, List<SqlInterceptor> interceptors, Class<?> entityType) {
+        this.sqlExecuter = sqlExecuter;
+        this.interceptors = interceptors.toArray(new SqlInterceptor[0]);
+        this.entityType = entityType;
+    }
+
+    /**
+     * 按配置构建SQL执行器：未配置执行器时使用{@link SimpleJdbcSqlExecuter}，没有拦截器时不包装
+     * <p>
+     * Build the SQL executer by configuration: uses {@link SimpleJdbcSqlExecuter} when no executer is configured, and does not wrap when there is no interceptor
+     *
+     * @param config 配置
+     *               <p>
+     *               Configuration
+     * @return SQL执行器
+     *         <p>
+     *         SQL executer
+     */
+    public static SqlExecuter build(PignooConfig config) {
+        return build(config, null);
+    }
+
+    /**
+     * 按配置构建一个实体类型的SQL执行器：未配置执行器时使用{@link SimpleJdbcSqlExecuter}，没有拦截器时不包装
+     * <p>
+     * Build the SQL executer of an entity type by configuration: uses {@link SimpleJdbcSqlExecuter} when no executer is configured, and does not wrap when there is no
+     * interceptor
+     *
+     * @param config     配置
+     *                   <p>
+     *                   Configuration
+     * @param entityType 绑定的实体类型，可以为null
+     *                   <p>
+     *                   The bound entity type, can be null
+     * @return SQL执行器
+     *         <p>
+     *         SQL executer
+     */
+    public static SqlExecuter build(PignooConfig config, Class<?> entityType) {
+        SqlExecuter sqlExecuter = config.getSqlExecuter() == null ? SimpleJdbcSqlExecuter.getInstance() : config.getSqlExecuter();
+        if (config.getSqlInterceptors() == null || config.getSqlInterceptors().isEmpty()) {
+            return sqlExecuter;
+        }
+        return new InterceptingSqlExecuter(sqlExecuter, config.getSqlInterceptors(), entityType);
+    }
+
+    /**
+     * 用拦截器包装SQL执行器，没有拦截器时不包装
+     * <p>
+     * Wrap the SQL executer with interceptors, does not wrap when there is no interceptor
+     *
+     * @param sqlExecuter  被包装的SQL执行器
+     *                     <p>
+     *                     The wrapped SQL executer
+     * @param interceptors 拦截器，按执行顺序
+     *                     <p>
+     *                     Interceptors, in execution order
+     * @return SQL执行器
+     *         <p>
+     *         SQL executer
+     */
+    public static SqlExecuter build(SqlExecuter sqlExecuter, List<SqlInterceptor> interceptors) {
+        if (interceptors == null || interceptors.isEmpty()) {
+            return sqlExecuter;
+        }
+        return new InterceptingSqlExecuter(sqlExecuter, interceptors);
+    }
+
+    private <T> T intercept(SqlType type, Class<?> entityType, String sql, Map<Integer, Object> params, Supplier<T> call, ToLongFunction<T> rowCounter) {
+        SqlContext context = new SqlContext();
+        context.setType(type);
+        context.setEntityType(this.entityType == null ? entityType : this.entityType);
+        context.setSql(sql);
+        context.setParams(params);
+        context.setStartNanos(System.nanoTime());
+        for (SqlInterceptor interceptor : interceptors) {
+            interceptor.before(context);
+        }
+        T result;
+        SqlContext outer = SqlContext.current();
+        SqlContext.bind(context);
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            context.setElapsedNanos(System.nanoTime() - context.getStartNanos());
+            for (int i = interceptors.length - 1; i >= 0; i--) {
+                try {
+                    interceptors[i].error(context, e);
+                } catch (Throwable interceptorError) {
+                    e.addSuppressed(interceptorError);
+                }
+            }
+            throw e;
+        } finally {
+            SqlContext.bind(outer);
+        }
+        context.setElapsedNanos(System.nanoTime() - context.getStartNanos());
+        context.setRows(rowCounter.applyAsLong(result));
+        for (int i = interceptors.length - 1; i >= 0; i--) {
+            interceptors[i].after(context);
+        }
+        return result;
+    }
+
+    @Override
+    public <E> E selectOne(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+        return intercept(SqlType.SELECT_ONE, c, sql, params, () -> sqlExecuter.selectOne(connGetter, connCloser, sql, params, c, config), e -> e == null ? 0L : 1L);
+    }
+
+    @Override
+    public <E> List<E> selectList(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+        return intercept(SqlType.SELECT_LIST, c, sql, params, () -> sqlExecuter.selectList(connGetter, connCloser, sql, params, c, config), List::size);
+    }
+
+    @Override
+    public <R> List<R> selectRows(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowMapper<R> rowMapper) {
+        return intercept(SqlType.SELECT_ROWS, null, sql, params, () -> sqlExecuter.selectRows(connGetter, connCloser, sql, params, rowMapper), List::size);
+    }
+
+    @Override
+    public long selectEach(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowHandler rowHandler) {
+        return intercept(SqlType.SELECT_EACH, null, sql, params, () -> sqlExecuter.selectEach(connGetter, connCloser, sql, params, rowHandler), rows -> rows);
+    }
+
+    @Override
+    public <E> Stream<E> selectStream(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+        return intercept(SqlType.SELECT_STREAM, c, sql, params, () -> sqlExecuter.selectStream(connGetter, connCloser, sql, params, c, config), stream -> -1L);
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> selectLinkedHashMap(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+        return intercept(SqlType.SELECT_MAP, null, sql, params, () -> sqlExecuter.selectLinkedHashMap(connGetter, connCloser, sql, params), List::size);
+    }
+
+    @Override
+    public <R> R selectColumn(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+        return intercept(SqlType.SELECT_COLUMN, null, sql, params, () -> sqlExecuter.selectColumn(connGetter, connCloser, sql, params, c), r -> r == null ? 0L : 1L);
+    }
+
+    @Override
+    public <R> Object insert(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+        return intercept(SqlType.INSERT, c, sql, params, () -> sqlExecuter.insert(connGetter, connCloser, sql, params, c), key -> 1L);
+    }
+
+    @Override
+    public <R> List<Object> insertAll(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+        return intercept(SqlType.INSERT_ALL, c, sql, params, () -> sqlExecuter.insertAll(connGetter, connCloser, sql, params, c), List::size);
+    }
+
+    @Override
+    public long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+        return intercept(SqlType.UPDATE, null, sql, params, () -> sqlExecuter.update(connGetter, connCloser, sql, params), rows -> rows);
+    }
+
+    @Override
+    public long[] updateBatch(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, List<Map<Integer, Object>> paramsList) {
+        return intercept(SqlType.UPDATE_BATCH, null, sql, paramsList.isEmpty() ? Map.of() : paramsList.get(0), () -> sqlExecuter.updateBatch(connGetter, connCloser, sql, paramsList), rows -> {
+            long total = 0L;
+            for (long row : rows) {
+                total += row;
+            }
+            return total;
+        });
+    }
+}
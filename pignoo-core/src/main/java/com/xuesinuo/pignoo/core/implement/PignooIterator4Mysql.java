@@ -8,7 +8,6 @@ import java.util.stream.Collectors;
 
 import com.xuesinuo.pignoo.core.PignooSorter.SMode;
 import com.xuesinuo.pignoo.core.PignooConfig;
-import com.xuesinuo.pignoo.core.SqlExecuter;
 import com.xuesinuo.pignoo.core.entity.SqlParam;
 import com.xuesinuo.pignoo.core.exception.MapperException;
 
@@ -18,17 +17,10 @@ import com.xuesinuo.pignoo.core.exception.MapperException;
  * MySQL Iterator
  * 
  * @author xuesinuo
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.1.3
  */
 public class PignooIterator4Mysql<E> implements Iterator<E> {
-    /**
-     * SQL执行器
-     * <p>
-     * SQL Executer
-     */
-    private static final SqlExecuter sqlExecuter = SimpleJdbcSqlExecuter.getInstance();
-
     private final PignooReader4Mysql<E> reader;
     private final PignooWriter4Mysql<E> writer;
     private final PignooConfig config;
@@ -126,7 +118,7 @@ public class PignooIterator4Mysql<E> implements Iterator<E> {
         } else {
             sql.append("LIMIT " + this.step + " ");
         }
-        this.list = sqlExecuter.selectList(this.reader.connGetter, this.reader.connCloser, sql.toString(), sqlParam.params, this.c, config);
+        this.list = this.reader.sqlExecuter.selectList(this.reader.connGetter, this.reader.connCloser, sql.toString(), sqlParam.params, this.c, config);
         this.stepIndex = 0;
     }
 
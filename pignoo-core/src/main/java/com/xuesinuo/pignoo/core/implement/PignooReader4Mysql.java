@@ -2,23 +2,36 @@
 package com.xuesinuo.pignoo.core.implement;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import com.xuesinuo.pignoo.core.Pignoo;
 import com.xuesinuo.pignoo.core.PignooConfig;
 import com.xuesinuo.pignoo.core.PignooFilter;
 import com.xuesinuo.pignoo.core.PignooReader;
+import com.xuesinuo.pignoo.core.PignooSelector;
 import com.xuesinuo.pignoo.core.PignooSorter;
 import com.xuesinuo.pignoo.core.SqlExecuter;
 import com.xuesinuo.pignoo.core.PignooFilter.FMode;
 import com.xuesinuo.pignoo.core.PignooFilter.XOR;
 import com.xuesinuo.pignoo.core.PignooSorter.SMode;
+import com.xuesinuo.pignoo.core.cache.EntityCache;
+import com.xuesinuo.pignoo.core.cache.QueryCache;
 import com.xuesinuo.pignoo.core.entity.EntityMapper;
 import com.xuesinuo.pignoo.core.entity.SqlParam;
 import com.xuesinuo.pignoo.core.exception.MapperException;
@@ -31,7 +44,7 @@ import com.xuesinuo.pignoo.core.exception.MapperException;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.2.3
- * @version 1.1.3
+ * @version 1.2.0
  */
 public class PignooReader4Mysql<E> implements PignooReader<E> {
 
@@ -40,7 +53,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
      * <p>
      * SQL Executer
      */
-    protected static final SqlExecuter sqlExecuter = SimpleJdbcSqlExecuter.getInstance();
+    protected final SqlExecuter sqlExecuter;
 
     protected final Pignoo pignoo;
     protected final Supplier<Connection> connGetter;
@@ -51,6 +64,20 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
     protected PignooFilter<E> filter;
     protected PignooSorter<E> sorter;
     protected final PignooConfig config;
+    protected final UnitOfWork unitOfWork;
+    protected final EntityCache entityCache;// 二级缓存，未开启时为null
+    protected final QueryCache queryCache;// 查询结果缓存，未开启时为null
+    protected final IdentityMap identityMap;// 事务内的一级缓存，未开启时为null
+
+    /**
+     * MySQL单条SQL允许的最多参数个数
+     * <p>
+     * The maximum number of parameters allowed in one MySQL statement
+     */
+    protected static final int MAX_PARAM_COUNT = 65535;
+
+    private static final int SQL_CACHE_SIZE = 256;// 每个实体缓存的SQL形态数量上限
+    private static final Object SHAPE_END = new Object();// 过滤器形态中一个节点的结束
 
     private int iteratorStep = 100;
     private SMode iteratorSortMode = SMode.MIN_FIRST;
@@ -78,6 +105,71 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
      *                      Configuration
      */
     public PignooReader4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config) {
+        this(pignoo, connGetter, connCloser, inTransaction, c, config, null);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param pignoo        pignoo
+     * @param connGetter    获取连接函数
+     *                      <p>
+     *                      Connection Getter
+     * @param connCloser    关闭连接函数
+     *                      <p>
+     *                      Connection Closer
+     * @param inTransaction 是否在事务中
+     *                      <p>
+     *                      Whether in transaction
+     * @param c             实体类型
+     *                      <p>
+     *                      Entity type
+     * @param config        配置
+     *                      <p>
+     *                      Configuration
+     * @param unitOfWork    延迟的setter更新，为null时不延迟
+     *                      <p>
+     *                      Deferred setter updates, no deferral when null
+     * @since 1.2.0
+     */
+    public PignooReader4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config,
+            UnitOfWork unitOfWork) {
+        this(pignoo, connGetter, connCloser, inTransaction, c, config, unitOfWork, null);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param pignoo        pignoo
+     * @param connGetter    获取连接函数
+     *                      <p>
+     *                      Connection Getter
+     * @param connCloser    关闭连接函数
+     *                      <p>
+     *                      Connection Closer
+     * @param inTransaction 是否在事务中
+     *                      <p>
+     *                      Whether in transaction
+     * @param c             实体类型
+     *                      <p>
+     *                      Entity type
+     * @param config        配置
+     *                      <p>
+     *                      Configuration
+     * @param unitOfWork    延迟的setter更新，为null时不延迟
+     *                      <p>
+     *                      Deferred setter updates, no deferral when null
+     * @param identityMap   事务内的一级缓存，为null时不缓存
+     *                      <p>
+     *                      First-level cache in the transaction, no cache when null
+     * @since 1.2.0
+     */
+    public PignooReader4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config,
+            UnitOfWork unitOfWork, IdentityMap identityMap) {
         this.pignoo = pignoo;
         this.inTransaction = inTransaction;
         this.connGetter = connGetter;
@@ -85,11 +177,20 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
         this.c = c;
         this.config = config.copy();
         this.entityMapper = EntityMapper.build(c, config);
+        this.unitOfWork = unitOfWork;
+        this.identityMap = identityMap;
+        this.entityCache = this.config.getEntityCaches() == null ? null : this.config.getEntityCaches().get(c);
+        this.queryCache = this.config.getQueryCaches() == null ? null : this.config.getQueryCaches().get(c);
+        SqlExecuter sqlExecuter = InterceptingSqlExecuter.build(this.config, c);
+        if (this.config.getQueryCaches() != null) {
+            sqlExecuter = this.config.getQueryCaches().invalidateAfterWrite(sqlExecuter, this.entityMapper.tableName(), inTransaction ? pignoo : null);
+        }
+        this.sqlExecuter = unitOfWork == null ? sqlExecuter : unitOfWork.flushBefore(sqlExecuter, this.entityMapper.tableName());
     }
 
     @Override
     public PignooWriter4Mysql<E> copyWriter() {
-        PignooWriter4Mysql<E> pignooWriter = new PignooWriter4Mysql<>(pignoo, connGetter, connCloser, inTransaction, c, config);
+        PignooWriter4Mysql<E> pignooWriter = new PignooWriter4Mysql<>(pignoo, connGetter, connCloser, inTransaction, c, config, unitOfWork, identityMap);
         pignooWriter.filter = PignooFilter.copy(filter);
         pignooWriter.sorter = PignooSorter.copy(sorter);
         return pignooWriter;
@@ -97,7 +198,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
 
     @Override
     public PignooReader4Mysql<E> copyReader() {
-        PignooReader4Mysql<E> pignooWriter = new PignooReader4Mysql<>(pignoo, connGetter, connCloser, inTransaction, c, config);
+        PignooReader4Mysql<E> pignooWriter = new PignooReader4Mysql<>(pignoo, connGetter, connCloser, inTransaction, c, config, unitOfWork, identityMap);
         pignooWriter.filter = PignooFilter.copy(filter);
         pignooWriter.sorter = PignooSorter.copy(sorter);
         return pignooWriter;
@@ -320,10 +421,114 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
         return sql.toString();
     }
 
-    @Override
-    public E getFirst() {
+    /**
+     * 按形态缓存SQL：过滤器与排序器的形态（字段、操作符、参数个数、嵌套结构）相同时只拼接一次SQL，之后只收集参数
+     * <p>
+     * Cache SQL by shape: when the shapes of the filter and the sorter (fields, operators, parameter counts, nesting) are the same, the SQL is built only once, and
+     * later calls only collect the parameters
+     *
+     * @param sqlParam 参数拼接工具，收集本次查询的参数
+     *                 <p>
+     *                 Parameter concatenation tool, collects the parameters of this query
+     * @param kind     查询种类，与形态一起组成缓存的键
+     *                 <p>
+     *                 Query kind, forms the cache key together with the shape
+     * @param sorted   SQL是否使用排序器
+     *                 <p>
+     *                 Whether the SQL uses the sorter
+     * @param builder  缓存未命中时拼接SQL
+     *                 <p>
+     *                 Builds the SQL when the cache misses
+     * @return SQL语句
+     *         <p>
+     *         SQL statement
+     * @since 1.2.0
+     */
+    protected String shapedSql(SqlParam sqlParam, Object kind, boolean sorted, Function<SqlParam, String> builder) {
+        List<Object> shape = new ArrayList<>();
+        shape.add(kind);
+        if (sorted) {
+            sorterShape(sorter, shape);
+        }
+        filterShape(filter, shape, sqlParam);
+        String sql = entityMapper.sqlCache().get(shape);
+        if (sql != null) {
+            return sql;
+        }
+        SqlParam builtParam = new SqlParam();
+        sql = builder.apply(builtParam);
+        if (new ArrayList<>(builtParam.params.values()).equals(new ArrayList<>(sqlParam.params.values()))) {
+            if (entityMapper.sqlCache().size() >= SQL_CACHE_SIZE) {
+                entityMapper.sqlCache().clear();// 满了就清空，让常用的形态重新进入缓存，而不是此后的新形态都不再缓存
+            }
+            entityMapper.sqlCache().put(shape, sql);
+        } else {// 形态与SQL的参数不一致时不缓存，以拼接结果为准
+            sqlParam.params = builtParam.params;
+            sqlParam.index = builtParam.index;
+        }
+        return sql;
+    }
+
+    private void sorterShape(PignooSorter<E> sorter, List<Object> shape) {
+        if (sorter != null) {
+            shape.add(entityMapper.getColumnByFunction(sorter.getField()));
+            shape.add(sorter.getMode());
+            if (sorter.getOtherPignooSorter() != null && sorter.getOtherPignooSorter().getMode() != null) {
+                sorterShape(sorter.getOtherPignooSorter(), shape);
+            }
+        }
+    }
+
+    private void filterShape(PignooFilter<E> filter, List<Object> shape, SqlParam sqlParam) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getXor() != null && filter.getXor() == XOR.OR) {
+            shape.add(XOR.OR);
+        } else {
+            shape.add(XOR.AND);
+            if (filter.getField() != null) {
+                shape.add(entityMapper.getColumnByFunction(filter.getField()));
+                shape.add(filter.getMode());
+                if (filter.getMode() != null) {
+                    int valueCount = 0;
+                    for (Object value : filter.getValues()) {
+                        if (value != null) {
+                            valueCount++;
+                            if (filter.getMode().getMaxCount() > 0) {
+                                sqlParam.next(value);
+                            }
+                        }
+                    }
+                    shape.add(valueCount);
+                    shape.add(valueCount != filter.getValues().size());
+                }
+            }
+        }
+        for (PignooFilter<E> childFilter : filter.getOtherPignooFilterList()) {
+            filterShape(childFilter, shape, sqlParam);
+        }
+        shape.add(SHAPE_END);
+    }
+
+    /**
+     * 查询实体的SQL：SELECT全部列，使用当前的过滤，可选使用当前的排序
+     * <p>
+     * SQL to query entities: SELECT all columns, using the current filter, and optionally the current sort
+     *
+     * @param sqlParam 参数拼接工具
+     *                 <p>
+     *                 Parameter concatenation tool
+     * @param sorted   是否使用排序器
+     *                 <p>
+     *                 Whether to use the sorter
+     * @return SQL语句
+     *         <p>
+     *         SQL statement
+     * @since 1.2.0
+     */
+    protected String selectSql(SqlParam sqlParam, boolean sorted) {
         StringBuilder sql = new StringBuilder("");
-        SqlParam sqlParam = new SqlParam();
         sql.append("SELECT ");
         sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
         sql.append("FROM ");
@@ -335,96 +540,329 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        if (sorter != null) {
+        if (sorted && sorter != null) {
             sql.append("ORDER BY ");
             sql.append(sorter2Sql(sorter));
         }
-        sql.append("LIMIT 1 ");
-        E e = sqlExecuter.selectOne(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
-        return e;
+        return sql.toString();
+    }
+
+    @Override
+    public E getFirst() {
+        return this.cached(() -> {
+            SqlParam sqlParam = new SqlParam();
+            String sql = shapedSql(sqlParam, "getFirst", true, sp -> selectSql(sp, true) + "LIMIT 1 ");
+            return sqlExecuter.selectOne(connGetter, connCloser, sql, sqlParam.params, c, config);
+        });
     }
 
     @Override
     public E getAny() {
-        StringBuilder sql = new StringBuilder("");
-        SqlParam sqlParam = new SqlParam();
-        sql.append("SELECT ");
-        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
-        sql.append("FROM ");
-        sql.append("`" + entityMapper.tableName() + "` ");
-        if (filter != null) {
-            String sqlWhere = filter2Sql(filter, sqlParam);
-            if (sqlWhere != null && !sqlWhere.isBlank()) {
-                sql.append("WHERE ");
-                sql.append(sqlWhere);
-            }
+        return this.cached(() -> {
+            SqlParam sqlParam = new SqlParam();
+            String sql = shapedSql(sqlParam, "getAny", false, sp -> selectSql(sp, false) + "LIMIT 1 ");
+            return sqlExecuter.selectOne(connGetter, connCloser, sql, sqlParam.params, c, config);
+        });
+    }
+
+    /**
+     * 二级缓存：filter只有一个主键等于条件时先读缓存，未命中时查询并写入缓存；缓存中与返回的都是副本
+     * <p>
+     * Second-level cache: when the filter is a single primary key equality, read the cache first, and query and cache on a miss; copies are cached and returned
+     *
+     * @param loader 查询数据库
+     *               <p>
+     *               Query the database
+     * @return 实体
+     *         <p>
+     *         Entity
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    protected E cached(Supplier<E> loader) {
+        Object cacheKey = this.cacheKey();
+        if (cacheKey == null) {
+            return loader.get();
+        }
+        E cachedEntity = (E) entityCache.get(cacheKey);
+        if (cachedEntity != null) {
+            return entityMapper.copyEntity(cachedEntity);
+        }
+        long stamp = entityCache.stamp();
+        E e = loader.get();
+        if (e != null) {
+            entityCache.put(cacheKey, entityMapper.copyEntity(e), stamp);
         }
-        sql.append("LIMIT 1 ");
-        E e = sqlExecuter.selectOne(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
         return e;
     }
 
+    /**
+     * 可以使用二级缓存时，返回filter中的主键值：不在事务中、没有待刷新的setter修改、filter只有一个主键等于条件
+     * <p>
+     * Returns the primary key value in the filter when the second-level cache can be used: not in a transaction, no pending setter modifications, and the filter is a
+     * single primary key equality
+     *
+     * @return 主键值，不能使用缓存时为null
+     *         <p>
+     *         Primary key value, null when the cache can not be used
+     */
+    private Object cacheKey() {
+        if (entityCache == null || inTransaction || filter == null || (unitOfWork != null && !unitOfWork.isEmpty())) {
+            return null;
+        }
+        return this.primaryKeyEquals(filter);
+    }
+
+    /**
+     * filter只有一个主键等于条件时，返回其中的主键值
+     * <p>
+     * Returns the primary key value when the filter is a single primary key equality
+     *
+     * @param filter 过滤器
+     *               <p>
+     *               Filter
+     * @return 主键值，不是单个主键等于条件时为null
+     *         <p>
+     *         Primary key value, null when it is not a single primary key equality
+     * @since 1.2.0
+     */
+    protected Object primaryKeyEquals(PignooFilter<E> filter) {
+        if (filter.getXor() == XOR.OR) {
+            return null;
+        }
+        List<PignooFilter<E>> children = filter.getOtherPignooFilterList();
+        if (filter.getField() == null) {
+            return children.size() == 1 ? this.primaryKeyEquals(children.get(0)) : null;
+        }
+        if (!children.isEmpty() || filter.getMode() != FMode.EQ || filter.getValues() == null || filter.getValues().size() != 1) {
+            return null;
+        }
+        if (!entityMapper.getColumnByFunction(filter.getField()).equals(entityMapper.primaryKeyColumn())) {
+            return null;
+        }
+        return filter.getValues().iterator().next();
+    }
+
+    /**
+     * 可以使用查询结果缓存：只读reader、不在事务中、没有待刷新的setter修改
+     * <p>
+     * The query result cache can be used: read-only reader, not in a transaction, and no pending setter modifications
+     */
+    private boolean queryCached() {
+        return queryCache != null && !inTransaction && this.isReadOnly() && (unitOfWork == null || unitOfWork.isEmpty());
+    }
+
+    /**
+     * 查询实体列表，可以时读写查询结果缓存；缓存中与返回的都是副本
+     * <p>
+     * Query a list of entities, reading and writing the query result cache when possible; both the cached and the returned entities are copies
+     *
+     * @param sql    SQL
+     * @param params SQL参数
+     *               <p>
+     *               SQL parameters
+     * @return 实体列表
+     *         <p>
+     *         List of entities
+     * @since 1.2.0
+     */
+    protected List<E> cachedList(String sql, Map<Integer, Object> params) {
+        if (!this.queryCached()) {
+            return sqlExecuter.selectList(connGetter, connCloser, sql, params, c, config);
+        }
+        List<E> cachedList = queryCache.get(entityMapper.tableName(), sql, params, c,
+                () -> sqlExecuter.selectList(connGetter, connCloser, sql, params, c, config).stream().map(entityMapper::copyEntity).toList());
+        List<E> eList = new ArrayList<>(cachedList.size());
+        cachedList.forEach(e -> eList.add(entityMapper.copyEntity(e)));
+        return eList;
+    }
+
+    /**
+     * 查询单个值，可以时读写查询结果缓存
+     * <p>
+     * Query a single value, reading and writing the query result cache when possible
+     *
+     * @param <R>    值类型
+     *               <p>
+     *               Value type
+     * @param sql    SQL
+     * @param params SQL参数
+     *               <p>
+     *               SQL parameters
+     * @param c      值类型
+     *               <p>
+     *               Value type
+     * @return 值
+     *         <p>
+     *         Value
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> R cachedColumn(String sql, Map<Integer, Object> params, Class<R> c) {
+        if (!this.queryCached()) {
+            return sqlExecuter.selectColumn(connGetter, connCloser, sql, params, c);
+        }
+        R value = queryCache.get(entityMapper.tableName(), sql, params, c, () -> sqlExecuter.selectColumn(connGetter, connCloser, sql, params, c));
+        if (value instanceof Date date) {
+            return (R) date.clone();// 日期是可变的
+        }
+        return value;
+    }
+
     @Override
     public List<E> getAll() {
-        StringBuilder sql = new StringBuilder("");
         SqlParam sqlParam = new SqlParam();
-        sql.append("SELECT ");
-        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
-        sql.append("FROM ");
-        sql.append("`" + entityMapper.tableName() + "` ");
-        if (filter != null) {
-            String sqlWhere = filter2Sql(filter, sqlParam);
-            if (sqlWhere != null && !sqlWhere.isBlank()) {
-                sql.append("WHERE ");
-                sql.append(sqlWhere);
-            }
+        String sql = shapedSql(sqlParam, "getAll", true, sp -> selectSql(sp, true));
+        List<E> eList = this.cachedList(sql, sqlParam.params);
+        return eList;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public PignooSelector<E> select(Function<E, ?>... fields) {
+        if (fields == null || fields.length == 0) {
+            throw new MapperException("Select needs at least one field -> " + entityMapper.tableName());
         }
-        if (sorter != null) {
-            sql.append("ORDER BY ");
-            sql.append(sorter2Sql(sorter));
+        List<Integer> indexes = new ArrayList<>(fields.length);
+        for (Function<E, ?> field : fields) {
+            int index = entityMapper.getColumnIndexByFunction(field);
+            if (index < 0) {
+                throw new MapperException("Select field is not a column -> " + entityMapper.tableName());
+            }
+            indexes.add(index);
         }
-        List<E> eList = sqlExecuter.selectList(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
-        return eList;
+        return new PignooSelector4Mysql<>(this, indexes);
+    }
+
+    /**
+     * 事务中锁定读的SQL片段，只有writer使用
+     * <p>
+     * SQL fragment of the locking read in a transaction, only used by writers
+     *
+     * @return SQL片段
+     *         <p>
+     *         SQL fragment
+     * @since 1.2.0
+     */
+    protected String lockSql() {
+        return "FOR UPDATE ";
     }
 
     @Override
-    public List<E> get(long offset, long limit) {
-        StringBuilder sql = new StringBuilder("");
+    public long[] getLongs(Function<E, ?> field) {
         SqlParam sqlParam = new SqlParam();
-        sql.append("SELECT ");
-        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
-        sql.append("FROM ");
-        sql.append("`" + entityMapper.tableName() + "` ");
-        if (filter != null) {
-            String sqlWhere = filter2Sql(filter, sqlParam);
-            if (sqlWhere != null && !sqlWhere.isBlank()) {
-                sql.append("WHERE ");
-                sql.append(sqlWhere);
+        String sql = columnSql(field, sqlParam);
+        LongStream.Builder builder = LongStream.builder();
+        sqlExecuter.selectEach(connGetter, connCloser, sql, sqlParam.params, rs -> {
+            long value = rs.getLong(1);
+            if (!rs.wasNull()) {
+                builder.add(value);
             }
+        });
+        return builder.build().toArray();
+    }
+
+    @Override
+    public int[] getInts(Function<E, ?> field) {
+        SqlParam sqlParam = new SqlParam();
+        String sql = columnSql(field, sqlParam);
+        IntStream.Builder builder = IntStream.builder();
+        sqlExecuter.selectEach(connGetter, connCloser, sql, sqlParam.params, rs -> {
+            int value = rs.getInt(1);
+            if (!rs.wasNull()) {
+                builder.add(value);
+            }
+        });
+        return builder.build().toArray();
+    }
+
+    @Override
+    public double[] getDoubles(Function<E, ?> field) {
+        SqlParam sqlParam = new SqlParam();
+        String sql = columnSql(field, sqlParam);
+        DoubleStream.Builder builder = DoubleStream.builder();
+        sqlExecuter.selectEach(connGetter, connCloser, sql, sqlParam.params, rs -> {
+            double value = rs.getDouble(1);
+            if (!rs.wasNull()) {
+                builder.add(value);
+            }
+        });
+        return builder.build().toArray();
+    }
+
+    /**
+     * 查询一列的SQL，使用当前的过滤与排序；writer在事务中按{@link #lockSql()}加锁
+     * <p>
+     * SQL to query one column, using the current filter and sort; a writer in a transaction locks by {@link #lockSql()}
+     *
+     * @param field    要查询的字段
+     *                 <p>
+     *                 Field
+     * @param sqlParam SQL参数
+     *                 <p>
+     *                 SQL parameters
+     * @return SQL
+     */
+    protected String columnSql(Function<E, ?> field, SqlParam sqlParam) {
+        String column = entityMapper.getColumnByFunction(field);
+        if (column == null) {
+            throw new MapperException("Field is not a column -> " + entityMapper.tableName());
         }
-        if (sorter != null) {
-            sql.append("ORDER BY ");
-            sql.append(sorter2Sql(sorter));
-        }
-        sql.append("LIMIT " + offset + "," + limit + " ");
-        List<E> eList = sqlExecuter.selectList(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
+        String lock = inTransaction && !isReadOnly() ? this.lockSql() : "";
+        return shapedSql(sqlParam, List.of("column", column, lock), true, sp -> {
+            StringBuilder sql = new StringBuilder("");
+            sql.append("SELECT ");
+            sql.append("`" + column + "` ");
+            sql.append("FROM ");
+            sql.append("`" + entityMapper.tableName() + "` ");
+            if (filter != null) {
+                String sqlWhere = filter2Sql(filter, sp);
+                if (sqlWhere != null && !sqlWhere.isBlank()) {
+                    sql.append("WHERE ");
+                    sql.append(sqlWhere);
+                }
+            }
+            if (sorter != null) {
+                sql.append("ORDER BY ");
+                sql.append(sorter2Sql(sorter));
+            }
+            sql.append(lock);
+            return sql.toString();
+        });
+    }
+
+    @Override
+    public Stream<E> stream() {
+        SqlParam sqlParam = new SqlParam();
+        String sql = shapedSql(sqlParam, "getAll", true, sp -> selectSql(sp, true));
+        return sqlExecuter.selectStream(connGetter, connCloser, sql, sqlParam.params, c, config);
+    }
+
+    @Override
+    public List<E> get(long offset, long limit) {
+        SqlParam sqlParam = new SqlParam();
+        String sql = shapedSql(sqlParam, "getAll", true, sp -> selectSql(sp, true)) + "LIMIT " + offset + "," + limit + " ";
+        List<E> eList = this.cachedList(sql, sqlParam.params);
         return eList;
     }
 
     @Override
     public long size() {
-        StringBuilder sql = new StringBuilder("");
         SqlParam sqlParam = new SqlParam();
-        sql.append("SELECT COUNT(*) FROM ");
-        sql.append("`" + entityMapper.tableName() + "` ");
-        if (filter != null) {
-            String sqlWhere = filter2Sql(filter, sqlParam);
-            if (sqlWhere != null && !sqlWhere.isBlank()) {
-                sql.append("WHERE ");
-                sql.append(sqlWhere);
+        String sql = shapedSql(sqlParam, "size", false, sp -> {
+            StringBuilder sizeSql = new StringBuilder("");
+            sizeSql.append("SELECT COUNT(*) FROM ");
+            sizeSql.append("`" + entityMapper.tableName() + "` ");
+            if (filter != null) {
+                String sqlWhere = filter2Sql(filter, sp);
+                if (sqlWhere != null && !sqlWhere.isBlank()) {
+                    sizeSql.append("WHERE ");
+                    sizeSql.append(sqlWhere);
+                }
             }
-        }
-        Long size = sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, Long.class);
+            return sizeSql.toString();
+        });
+        Long size = this.cachedColumn(sql, sqlParam.params, Long.class);
         return size == null ? 0L : size;
     }
 
@@ -544,7 +982,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -563,7 +1001,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -579,7 +1017,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -598,7 +1036,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -614,7 +1052,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -630,7 +1068,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -646,7 +1084,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -662,7 +1100,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        return sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        return this.cachedColumn(sql.toString(), sqlParam.params, c);
     }
 
     @Override
@@ -678,7 +1116,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        Long count = sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, Long.class);
+        Long count = this.cachedColumn(sql.toString(), sqlParam.params, Long.class);
         if (count == null) {
             return 0;
         }
@@ -698,7 +1136,7 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
                 sql.append(sqlWhere);
             }
         }
-        Long count = sqlExecuter.selectColumn(connGetter, connCloser, sql.toString(), sqlParam.params, Long.class);
+        Long count = this.cachedColumn(sql.toString(), sqlParam.params, Long.class);
         if (count == null) {
             return 0;
         }
@@ -769,6 +1207,133 @@ public class PignooReader4Mysql<E> implements PignooReader<E> {
         return size != null && size.intValue() == collection.size();
     }
 
+    @Override
+    public E getById(Object id) {
+        if (id == null) {
+            return null;
+        }
+        Object key = normalize(id);
+        IdBatcher idBatcher = config.getIdBatcher();
+        if (idBatcher != null && !inTransaction && filter == null && this.isReadOnly() && (unitOfWork == null || unitOfWork.isEmpty())) {
+            E e = idBatcher.load(c, key, this::loadByIds);
+            return e == null ? null : entityMapper.copyEntity(e);// 同一批次中相同主键的调用方共享查询结果
+        }
+        return this.loadByIds(List.of(key)).get(key);
+    }
+
+    @Override
+    public <K> Map<K, E> getByIds(Collection<K> ids) {
+        Map<K, E> result = new LinkedHashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        List<Object> keys = ids.stream().filter(Objects::nonNull).map(PignooReader4Mysql::normalize).distinct().toList();
+        Map<Object, E> found = this.loadByIds(keys);
+        for (K id : ids) {
+            E e = id == null ? null : found.get(normalize(id));
+            if (e != null) {
+                result.put(id, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按主键分批查询，可以时先读二级缓存
+     * <p>
+     * Query by primary keys in chunks, reading the second-level cache first when possible
+     *
+     * @param keys 统一过类型的主键，不重复
+     *             <p>
+     *             Normalized primary keys, without duplicates
+     * @return 统一过类型的主键 -&gt; 实体
+     *         <p>
+     *         Normalized primary key -&gt; entity
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<Object, E> loadByIds(List<Object> keys) {
+        Map<Object, E> found = new HashMap<>();
+        boolean cached = entityCache != null && !inTransaction && filter == null && (unitOfWork == null || unitOfWork.isEmpty());
+        List<Object> missKeys = keys;
+        long stamp = 0L;
+        if (cached) {
+            missKeys = new ArrayList<>();
+            for (Object key : keys) {
+                E cachedEntity = (E) entityCache.get(key);
+                if (cachedEntity != null) {
+                    found.put(key, entityMapper.copyEntity(cachedEntity));
+                } else {
+                    missKeys.add(key);
+                }
+            }
+            stamp = entityCache.stamp();
+        }
+        int batchSize = config.getBatchSize() == null || config.getBatchSize() <= 0 ? 1 : config.getBatchSize();
+        batchSize = Math.max(1, Math.min(batchSize, MAX_PARAM_COUNT / 2));// 为filter的参数留出余量
+        for (int from = 0; from < missKeys.size(); from += batchSize) {
+            List<Object> batch = missKeys.subList(from, Math.min(from + batchSize, missKeys.size()));
+            SqlParam sqlParam = new SqlParam();
+            String sql = this.selectByIdsSql(batch, sqlParam);
+            for (E e : sqlExecuter.selectList(connGetter, connCloser, sql, sqlParam.params, c, config)) {
+                Object key;
+                try {
+                    key = normalize(entityMapper.primaryKeyGetter().run(e));
+                } catch (Throwable throwable) {
+                    throw new MapperException("Primary key is not found " + e, throwable);
+                }
+                found.put(key, e);
+                if (cached) {
+                    entityCache.put(key, entityMapper.copyEntity(e), stamp);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 按一批主键查询的SQL，filter同样生效
+     * <p>
+     * SQL of querying by a batch of primary keys, the filter also applies
+     *
+     * @param ids      主键
+     *                 <p>
+     *                 Primary keys
+     * @param sqlParam SQL参数
+     *                 <p>
+     *                 SQL parameters
+     * @return SQL
+     * @since 1.2.0
+     */
+    protected String selectByIdsSql(List<Object> ids, SqlParam sqlParam) {
+        StringBuilder sql = new StringBuilder("");
+        sql.append("SELECT ");
+        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
+        sql.append("FROM ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        sql.append("WHERE `" + entityMapper.primaryKeyColumn() + "` IN (" + ids.stream().map(id -> sqlParam.next(id)).collect(Collectors.joining(",")) + ") ");
+        if (filter != null) {
+            String sqlWhere = filter2Sql(filter, sqlParam);
+            if (sqlWhere != null && !sqlWhere.isBlank()) {
+                sql.append("AND ");
+                sql.append(sqlWhere);
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 整数主键统一为Long，使1与1L是同一个键
+     * <p>
+     * Integer primary keys are unified to Long, so that 1 and 1L are the same key
+     */
+    static Object normalize(Object key) {
+        if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        return key;
+    }
+
     @Override
     public Iterator<E> iterator() {
         return new PignooIterator4Mysql<>(this, this.c, this.isReadOnly(), this.iteratorStep, 0, Long.MAX_VALUE, this.iteratorSortMode);
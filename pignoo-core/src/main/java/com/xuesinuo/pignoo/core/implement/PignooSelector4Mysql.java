@@ -0,0 +1,84 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.xuesinuo.pignoo.core.PignooSelector;
+import com.xuesinuo.pignoo.core.entity.ProjectionDecoder;
+import com.xuesinuo.pignoo.core.entity.SqlParam;
+
+/**
+ * 基于MySQL语法实现的{@link com.xuesinuo.pignoo.core.PignooSelector}
+ * <p>
+ * A MySQL implementation of {@link com.xuesinuo.pignoo.core.PignooSelector}
+ *
+ * @param <E> JavaBean Type
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class PignooSelector4Mysql<E> implements PignooSelector<E> {
+
+    private final PignooReader4Mysql<E> reader;
+    private final List<Integer> indexes;
+
+    /**
+     * 投影查询的构造方法
+     *
+     * @param reader  被查询的集合，复制后使用
+     * @param indexes 被选择的列在实体列中的序号
+     */
+    public PignooSelector4Mysql(PignooReader4Mysql<E> reader, List<Integer> indexes) {
+        this.reader = reader.copyReader();
+        this.indexes = List.copyOf(indexes);
+    }
+
+    @Override
+    public List<E> getAll() {
+        return this.into(reader.c);
+    }
+
+    @Override
+    public E getFirst() {
+        return this.intoFirst(reader.c);
+    }
+
+    @Override
+    public <R> List<R> into(Class<R> c) {
+        return this.select(c, false);
+    }
+
+    @Override
+    public <R> R intoFirst(Class<R> c) {
+        List<R> list = this.select(c, true);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    private <R> List<R> select(Class<R> c, boolean first) {
+        ProjectionDecoder<R> decoder = ProjectionDecoder.build(reader.entityMapper, indexes, c);
+        SqlParam sqlParam = new SqlParam();
+        String sql = reader.shapedSql(sqlParam, List.of("select", indexes, first), true, sp -> {
+            StringBuilder selectSql = new StringBuilder("");
+            selectSql.append("SELECT ");
+            selectSql.append(indexes.stream().map(index -> "`" + reader.entityMapper.columns().get(index) + "`").collect(Collectors.joining(",")) + " ");
+            selectSql.append("FROM ");
+            selectSql.append("`" + reader.entityMapper.tableName() + "` ");
+            if (reader.filter != null) {
+                String sqlWhere = reader.filter2Sql(reader.filter, sp);
+                if (sqlWhere != null && !sqlWhere.isBlank()) {
+                    selectSql.append("WHERE ");
+                    selectSql.append(sqlWhere);
+                }
+            }
+            if (reader.sorter != null) {
+                selectSql.append("ORDER BY ");
+                selectSql.append(reader.sorter2Sql(reader.sorter));
+            }
+            if (first) {
+                selectSql.append("LIMIT 1 ");
+            }
+            return selectSql.toString();
+        });
+        return reader.sqlExecuter.selectRows(reader.connGetter, reader.connCloser, sql, sqlParam.params, decoder::decode);
+    }
+}
@@ -1,25 +1,37 @@
 
 package com.xuesinuo.pignoo.core.implement;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.xuesinuo.pignoo.core.Pignoo;
 import com.xuesinuo.pignoo.core.PignooConfig;
 import com.xuesinuo.pignoo.core.PignooFilter;
 import com.xuesinuo.pignoo.core.PignooWriter;
 import com.xuesinuo.pignoo.core.PignooSorter;
+import com.xuesinuo.pignoo.core.config.LockMode;
 import com.xuesinuo.pignoo.core.entity.EntityProxyFactory;
 import com.xuesinuo.pignoo.core.entity.MethodRunner;
 import com.xuesinuo.pignoo.core.entity.SqlParam;
 import com.xuesinuo.pignoo.core.exception.MapperException;
+import com.xuesinuo.pignoo.core.exception.OptimisticLockException;
 
 /**
  * 基于MySQL语法实现的{@link com.xuesinuo.pignoo.core.PignooWriter}
@@ -30,12 +42,16 @@ import com.xuesinuo.pignoo.core.exception.MapperException;
  * @param <E> JavaBean Type
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.3
+ * @version 1.2.0
  */
 public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements PignooWriter<E> {
 
     protected final EntityProxyFactory<E> entityProxyFactory;
 
+    private Boolean rowAlias;// 数据库是否支持INSERT的行别名（MySQL 8.0.19+），第一次upsert时读取
+
+    private static final Pattern VERSION_NUMBERS = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
     /**
      * 构造器
      * <p>
@@ -59,8 +75,80 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
      *                      Configuration
      */
     public PignooWriter4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config) {
-        super(pignoo, connGetter, connCloser, inTransaction, c, config);
-        if (config.getOpenSetterProxy() == null || config.getOpenSetterProxy() == true) {
+        this(pignoo, connGetter, connCloser, inTransaction, c, config, null);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param pignoo        pignoo
+     * @param connGetter    获取连接函数
+     *                      <p>
+     *                      Connection Getter
+     * @param connCloser    关闭连接函数
+     *                      <p>
+     *                      Connection Closer
+     * @param inTransaction 是否在事务中
+     *                      <p>
+     *                      Whether in transaction
+     * @param c             实体类型
+     *                      <p>
+     *                      Entity type
+     * @param config        配置
+     *                      <p>
+     *                      Configuration
+     * @param unitOfWork    延迟的setter更新，为null时setter立即更新数据库
+     *                      <p>
+     *                      Deferred setter updates, the setter updates the database immediately when null
+     * @since 1.2.0
+     */
+    public PignooWriter4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config,
+            UnitOfWork unitOfWork) {
+        this(pignoo, connGetter, connCloser, inTransaction, c, config, unitOfWork, null);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param pignoo        pignoo
+     * @param connGetter    获取连接函数
+     *                      <p>
+     *                      Connection Getter
+     * @param connCloser    关闭连接函数
+     *                      <p>
+     *                      Connection Closer
+     * @param inTransaction 是否在事务中
+     *                      <p>
+     *                      Whether in transaction
+     * @param c             实体类型
+     *                      <p>
+     *                      Entity type
+     * @param config        配置
+     *                      <p>
+     *                      Configuration
+     * @param unitOfWork    延迟的setter更新，为null时setter立即更新数据库
+     *                      <p>
+     *                      Deferred setter updates, the setter updates the database immediately when null
+     * @param identityMap   事务内的一级缓存，为null时不缓存
+     *                      <p>
+     *                      First-level cache in the transaction, no cache when null
+     * @since 1.2.0
+     */
+    public PignooWriter4Mysql(Pignoo pignoo, Supplier<Connection> connGetter, Consumer<Connection> connCloser, boolean inTransaction, Class<E> c, PignooConfig config,
+            UnitOfWork unitOfWork, IdentityMap identityMap) {
+        super(pignoo, connGetter, connCloser, inTransaction, c, config, unitOfWork, identityMap);
+        if ((config.getOpenSetterProxy() == null || config.getOpenSetterProxy() == true) && unitOfWork != null) {
+            this.entityProxyFactory = new EntityProxyFactory<>(c, entityMapper.setterNames(), entityMapper.fields(), (EntityProxyFactory.Tracker) (index, oldValue, newValue, e) -> {
+                if (pignoo.closed()) {
+                    return;
+                }
+                unitOfWork.track(entityMapper, e, index, oldValue, sqlExecuter, connGetter, connCloser);
+            });
+        } else if (config.getOpenSetterProxy() == null || config.getOpenSetterProxy() == true) {
             this.entityProxyFactory = new EntityProxyFactory<>(c, entityMapper.setterNames(), entityMapper.fields(), (index, arg, e) -> {
                 if (pignoo.closed()) {
                     return;
@@ -79,10 +167,18 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
                 sql.append("UPDATE ");
                 sql.append("`" + entityMapper.tableName() + "` ");
                 sql.append("SET ");
-                sql.append("`" + entityMapper.columns().get(index) + "` = " + (arg == null ? "NULL" : sqlParam.next(arg)) + " ");
+                boolean versioned = index != entityMapper.versionIndex();// 直接修改版本列时不比较版本
+                Object version = versioned ? entityMapper.version(e) : null;
+                sql.append("`" + entityMapper.columns().get(index) + "` = " + (arg == null ? "NULL" : sqlParam.next(arg)) + (versioned ? this.versionSetSql() : "") + " ");
                 sql.append("WHERE ");
                 sql.append("`" + entityMapper.primaryKeyColumn() + "` = " + sqlParam.next(primaryKeyValue) + " ");
-                sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+                sql.append(this.versionWhereSql(version, sqlParam));
+                try {
+                    long rows = sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+                    this.checkVersion(e, version, rows);
+                } finally {
+                    this.invalidateCache(primaryKeyValue);
+                }
             });
         } else {
             this.entityProxyFactory = null;
@@ -94,14 +190,103 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         return false;
     }
 
+    @Override
+    public void setReadBackAfterAdd(boolean readBackAfterAdd) {
+        this.config.setReadBackAfterAdd(readBackAfterAdd);
+    }
+
+    @Override
+    public boolean isReadBackAfterAdd() {
+        return this.config.getReadBackAfterAdd() == null || this.config.getReadBackAfterAdd() == true;
+    }
+
+    @Override
+    public void setLockMode(LockMode lockMode) {
+        this.config.setLockMode(lockMode);
+    }
+
+    @Override
+    public LockMode getLockMode() {
+        return this.config.getLockMode() == null ? LockMode.WAIT : this.config.getLockMode();
+    }
+
+    /**
+     * 事务中锁定读的SQL片段
+     * <p>
+     * SQL fragment of the locking read in a transaction
+     *
+     * @return SQL片段
+     *         <p>
+     *         SQL fragment
+     */
+    @Override
+    protected String lockSql() {
+        switch (this.getLockMode()) {
+        case OPTIMISTIC:
+            return entityMapper.versionIndex() < 0 ? "FOR UPDATE " : "";// 有版本列时由乐观锁检查并发修改
+        case NOWAIT:
+            return "FOR UPDATE NOWAIT ";
+        case SKIP_LOCKED:
+            return "FOR UPDATE SKIP LOCKED ";
+        default:
+            return "FOR UPDATE ";
+        }
+    }
+
+    /**
+     * 必须锁定行的读取（poll与登记到一级缓存的读取）使用的SQL片段：{@link LockMode#OPTIMISTIC}时仍然加行锁
+     * <p>
+     * SQL fragment used by reads that must lock the rows (poll and reads registered in the first-level cache): rows are still locked under {@link LockMode#OPTIMISTIC}
+     *
+     * @return SQL片段
+     *         <p>
+     *         SQL fragment
+     */
+    private String pessimisticLockSql() {
+        return this.getLockMode() == LockMode.OPTIMISTIC ? "FOR UPDATE " : this.lockSql();
+    }
+
     @Override
     public E getFirst() {
-        E e;
+        return this.lockedFirst(true, identityMap != null ? this.pessimisticLockSql() : this.lockSql());
+    }
+
+    @Override
+    public E getAny() {
+        return this.lockedFirst(false, identityMap != null ? this.pessimisticLockSql() : this.lockSql());
+    }
+
+    /**
+     * 读取第一条或任意一条数据，事务中按给定的方式锁定
+     * <p>
+     * Read the first or any data, locked in the given way in a transaction
+     *
+     * @param sorted 是否按sorter排序
+     *               <p>
+     *               Whether to sort by the sorter
+     * @param lock   锁定读的SQL片段
+     *               <p>
+     *               SQL fragment of the locking read
+     * @return 数据
+     *         <p>
+     *         Data
+     */
+    private E lockedFirst(boolean sorted, String lock) {
+        E e = this.knownByFilter();
+        if (e != null) {
+            return e;
+        }
         if (inTransaction) {
+            // 跳过或不等待行锁时，子查询选出的行可能已被锁定，直接锁定读取满足条件的行；不加锁时也直接读取
+            boolean lockDirectly = this.getLockMode() == LockMode.NOWAIT || this.getLockMode() == LockMode.SKIP_LOCKED || lock.isEmpty();
             StringBuilder sql = new StringBuilder("");
             SqlParam sqlParam = new SqlParam();
             sql.append("SELECT ");
-            sql.append("`" + entityMapper.primaryKeyColumn() + "` ");
+            if (lockDirectly) {
+                sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
+            } else {
+                sql.append("`" + entityMapper.primaryKeyColumn() + "` ");
+            }
             sql.append("FROM ");
             sql.append("`" + entityMapper.tableName() + "` ");
             if (filter != null) {
@@ -111,61 +296,92 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
                     sql.append(sqlWhere);
                 }
             }
-            if (sorter != null) {
+            if (sorted && sorter != null) {
                 sql.append("ORDER BY ");
                 sql.append(sorter2Sql(sorter));
             }
             sql.append("LIMIT 1 ");
-            StringBuilder sql2 = new StringBuilder("");
-            sql2.append("SELECT ");
-            sql2.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
-            sql2.append("FROM ");
-            sql2.append("`" + entityMapper.tableName() + "` ");
-            sql2.append("WHERE `" + entityMapper.primaryKeyColumn() + "`=(" + sql.toString() + ") ");
-            sql2.append("FOR UPDATE ");
-            e = sqlExecuter.selectOne(connGetter, connCloser, sql2.toString(), sqlParam.params, c, config);
+            if (lockDirectly) {
+                sql.append(lock);
+                e = sqlExecuter.selectOne(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
+            } else {
+                StringBuilder sql2 = new StringBuilder("");
+                sql2.append("SELECT ");
+                sql2.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
+                sql2.append("FROM ");
+                sql2.append("`" + entityMapper.tableName() + "` ");
+                sql2.append("WHERE `" + entityMapper.primaryKeyColumn() + "`=(" + sql.toString() + ") ");
+                sql2.append(lock);
+                e = sqlExecuter.selectOne(connGetter, connCloser, sql2.toString(), sqlParam.params, c, config);
+            }
         } else {
             e = super.getFirst();
         }
-        if (entityProxyFactory != null && e != null) {
-            e = entityProxyFactory.build(e);
+        return this.managed(e);
+    }
+
+    /**
+     * filter只有一个主键等于条件且一级缓存中已有这个主键时，返回缓存的实体
+     * <p>
+     * Returns the cached entity when the filter is a single primary key equality and the first-level cache already holds this primary key
+     */
+    @SuppressWarnings("unchecked")
+    private E knownByFilter() {
+        if (identityMap == null || filter == null) {
+            return null;
         }
-        return e;
+        Object primaryKeyValue = this.primaryKeyEquals(filter);
+        return primaryKeyValue == null ? null : (E) identityMap.get(c, normalize(primaryKeyValue));
+    }
+
+    /**
+     * 读取出的实体：开启时构建setter代理，并登记到一级缓存；一级缓存中已有这个主键时返回已有的实体
+     * <p>
+     * Entity read out: build the setter proxy when enabled, and register it in the first-level cache; returns the existing entity when the first-level cache already
+     * holds this primary key
+     */
+    @SuppressWarnings("unchecked")
+    private E managed(E e) {
+        if (e == null) {
+            return null;
+        }
+        E instance = entityProxyFactory == null ? e : entityProxyFactory.build(e);
+        Object primaryKeyValue = identityMap == null ? null : this.primaryKeyOf(e);
+        if (primaryKeyValue == null) {
+            return instance;
+        }
+        return (E) identityMap.register(c, normalize(primaryKeyValue), instance, e);
     }
 
     @Override
-    public E getAny() {
-        E e;
-        if (inTransaction) {
-            StringBuilder sql = new StringBuilder("");
-            SqlParam sqlParam = new SqlParam();
-            sql.append("SELECT ");
-            sql.append("`" + entityMapper.primaryKeyColumn() + "` ");
-            sql.append("FROM ");
-            sql.append("`" + entityMapper.tableName() + "` ");
-            if (filter != null) {
-                String sqlWhere = filter2Sql(filter, sqlParam);
-                if (sqlWhere != null && !sqlWhere.isBlank()) {
-                    sql.append("WHERE ");
-                    sql.append(sqlWhere);
+    @SuppressWarnings("unchecked")
+    protected Map<Object, E> loadByIds(List<Object> keys) {
+        Map<Object, E> found = new HashMap<>();
+        List<Object> missKeys = keys;
+        if (identityMap != null && filter == null) {
+            missKeys = new ArrayList<>();
+            for (Object key : keys) {
+                E known = (E) identityMap.get(c, key);
+                if (known != null) {
+                    found.put(key, known);
+                } else {
+                    missKeys.add(key);
                 }
             }
-            sql.append("LIMIT 1 ");
-            StringBuilder sql2 = new StringBuilder("");
-            sql2.append("SELECT ");
-            sql2.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
-            sql2.append("FROM ");
-            sql2.append("`" + entityMapper.tableName() + "` ");
-            sql2.append("WHERE `" + entityMapper.primaryKeyColumn() + "`=(" + sql.toString() + ") ");
-            sql2.append("FOR UPDATE ");
-            e = sqlExecuter.selectOne(connGetter, connCloser, sql2.toString(), sqlParam.params, c, config);
-        } else {
-            e = super.getFirst();
         }
-        if (entityProxyFactory != null && e != null) {
-            e = entityProxyFactory.build(e);
+        if (!missKeys.isEmpty()) {
+            super.loadByIds(missKeys).forEach((key, e) -> found.put(key, this.managed(e)));
         }
-        return e;
+        return found;
+    }
+
+    @Override
+    protected String selectByIdsSql(List<Object> ids, SqlParam sqlParam) {
+        String sql = super.selectByIdsSql(ids, sqlParam);
+        if (!inTransaction) {
+            return sql;
+        }
+        return sql + (identityMap != null ? this.pessimisticLockSql() : this.lockSql());
     }
 
     @Override
@@ -185,12 +401,37 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             sql.append(sorter2Sql(sorter));
         }
         if (inTransaction) {
-            sql.append("FOR UPDATE ");
+            sql.append(this.lockSql());
         }
         List<E> eList = sqlExecuter.selectList(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
         return eList;
     }
 
+    @Override
+    public Stream<E> stream() {
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("SELECT ");
+        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
+        sql.append("FROM ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        if (filter != null) {
+            String sqlWhere = filter2Sql(filter, sqlParam);
+            if (sqlWhere != null && !sqlWhere.isBlank()) {
+                sql.append("WHERE ");
+                sql.append(sqlWhere);
+            }
+        }
+        if (sorter != null) {
+            sql.append("ORDER BY ");
+            sql.append(sorter2Sql(sorter));
+        }
+        if (inTransaction) {
+            sql.append(this.lockSql());
+        }
+        return sqlExecuter.selectStream(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
+    }
+
     @Override
     public List<E> get(long offset, long limit) {
         StringBuilder sql = new StringBuilder("");
@@ -209,7 +450,7 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         }
         sql.append("LIMIT " + offset + "," + limit + " ");
         if (inTransaction) {
-            sql.append("FOR UPDATE ");
+            sql.append(this.lockSql());
         }
         List<E> eList = sqlExecuter.selectList(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
         return eList;
@@ -252,6 +493,20 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             }
             sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
         }
+        this.invalidateCache(primaryKeyValue);
+        if (!this.isReadBackAfterAdd()) {
+            if (entityMapper.autoPrimaryKey() && primaryKeyValue != null) {
+                try {
+                    entityMapper.primaryKeySetter().run(e, castPrimaryKey(primaryKeyValue, entityMapper.primaryKeyField().getType()));
+                } catch (Throwable throwable) {
+                    throw new MapperException("Primary key can not be set " + e, throwable);
+                }
+            }
+            if (entityProxyFactory != null) {
+                e = entityProxyFactory.build(e);
+            }
+            return e;
+        }
 
         StringBuilder sql2 = new StringBuilder("");
         SqlParam sqlParam2 = new SqlParam();
@@ -267,9 +522,171 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         return e;
     }
 
+    @Override
+    public List<E> addAll(Collection<E> collection) {
+        List<E> list = new ArrayList<>();
+        if (collection == null || collection.isEmpty()) {
+            return list;
+        }
+        collection.stream().filter(e -> e != null).forEach(list::add);
+        this.addAll(list.iterator());
+        if (entityProxyFactory != null) {
+            return new ArrayList<>(entityProxyFactory.build(list));
+        }
+        return list;
+    }
+
+    @Override
+    public long addAll(Iterator<E> iterator) {
+        if (iterator == null) {
+            return 0L;
+        }
+        int batchSize = config.getBatchSize() == null || config.getBatchSize() <= 0 ? 1 : config.getBatchSize();
+        batchSize = Math.max(1, Math.min(batchSize, MAX_PARAM_COUNT / entityMapper.columns().size()));
+        long count = 0L;
+        List<E> batch = new ArrayList<>();
+        boolean batchHasPrimaryKey = false;
+        while (iterator.hasNext()) {
+            E e = iterator.next();
+            if (e == null) {
+                continue;
+            }
+            Object primaryKeyValue = null;
+            try {
+                primaryKeyValue = entityMapper.primaryKeyGetter().run(e);
+            } catch (Throwable throwable) {
+                throw new MapperException("Primary key is not found " + e, throwable);
+            }
+            boolean hasPrimaryKey = primaryKeyValue != null;
+            if (!hasPrimaryKey && !entityMapper.autoPrimaryKey()) {
+                throw new MapperException("Primary key can not be NULL " + e);
+            }
+            // 自增主键的回填依赖连续的主键值，已带主键的数据与未带主键的数据不放在同一批
+            if (!batch.isEmpty() && (batch.size() >= batchSize || batchHasPrimaryKey != hasPrimaryKey)) {
+                count += this.addBatch(batch, batchHasPrimaryKey);
+                batch.clear();
+            }
+            batch.add(e);
+            batchHasPrimaryKey = hasPrimaryKey;
+        }
+        if (!batch.isEmpty()) {
+            count += this.addBatch(batch, batchHasPrimaryKey);
+        }
+        return count;
+    }
+
+    /**
+     * 一条多行INSERT写入一批数据，NULL属性使用数据库默认值，并回填自增主键
+     * <p>
+     * Write a batch of data with one multi-row INSERT, NULL properties use the database default value, and set back the auto-generated primary keys
+     *
+     * @param batch         一批数据
+     *                      <p>
+     *                      A batch of data
+     * @param hasPrimaryKey 这批数据是否已带主键
+     *                      <p>
+     *                      Whether this batch of data already has primary keys
+     * @return 新增条数
+     *         <p>
+     *         Number of added entries
+     */
+    private long addBatch(List<E> batch, boolean hasPrimaryKey) {
+        int columnCount = entityMapper.columns().size();
+        Object[][] rows = new Object[batch.size()][columnCount];
+        boolean[] usedColumns = new boolean[columnCount];
+        try {
+            for (int r = 0; r < batch.size(); r++) {
+                for (int i = 0; i < columnCount; i++) {
+                    MethodRunner getter = entityMapper.getters().get(i);
+                    if (getter != null) {
+                        rows[r][i] = getter.run(batch.get(r));
+                        if (rows[r][i] != null) {
+                            usedColumns[i] = true;
+                        }
+                    }
+                }
+            }
+        } catch (Throwable throwable) {
+            throw new MapperException(throwable);
+        }
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("INSERT INTO ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        List<Integer> columnIndexes = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            if (usedColumns[i]) {
+                columnIndexes.add(i);
+            }
+        }
+        if (columnIndexes.isEmpty()) {
+            columnIndexes.add(entityMapper.columns().indexOf(entityMapper.primaryKeyColumn()));
+        }
+        sql.append("(" + columnIndexes.stream().map(i -> "`" + entityMapper.columns().get(i) + "`").collect(Collectors.joining(",")) + ") ");
+        sql.append("VALUES ");
+        for (int r = 0; r < rows.length; r++) {
+            Object[] row = rows[r];
+            sql.append(r == 0 ? "(" : ",(");
+            sql.append(columnIndexes.stream().map(i -> row[i] == null ? "DEFAULT" : sqlParam.next(row[i])).collect(Collectors.joining(",")));
+            sql.append(")");
+        }
+        sql.append(" ");
+        if (hasPrimaryKey || !entityMapper.autoPrimaryKey()) {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        }
+        List<Object> primaryKeyValues = sqlExecuter.insertAll(connGetter, connCloser, sql.toString(), sqlParam.params, c);
+        Class<?> primaryKeyType = entityMapper.primaryKeyField().getType();
+        for (int r = 0; r < batch.size() && r < primaryKeyValues.size(); r++) {
+            try {
+                entityMapper.primaryKeySetter().run(batch.get(r), castPrimaryKey(primaryKeyValues.get(r), primaryKeyType));
+            } catch (Throwable throwable) {
+                throw new MapperException("Primary key can not be set " + batch.get(r), throwable);
+            }
+        }
+        return primaryKeyValues.size();
+    }
+
+    /**
+     * 将数据库生成的主键转换为主键属性的类型
+     * <p>
+     * Cast the primary key generated by the database to the type of the primary key property
+     *
+     * @param value 数据库生成的主键
+     *              <p>
+     *              The primary key generated by the database
+     * @param type  主键属性的类型
+     *              <p>
+     *              The type of the primary key property
+     * @return 转换后的主键
+     *         <p>
+     *         The casted primary key
+     */
+    protected static Object castPrimaryKey(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            if (type == Long.class || type == long.class) {
+                return number.longValue();
+            } else if (type == Integer.class || type == int.class) {
+                return number.intValue();
+            } else if (type == Short.class || type == short.class) {
+                return number.shortValue();
+            } else if (type == BigInteger.class) {
+                return new BigInteger(number.toString());
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        throw new MapperException("Primary key " + value + " can not cast to " + type.getName());
+    }
+
     @Override
     public E pollFirst() {
-        E e = this.getFirst();
+        E e = this.lockedFirst(true, this.pessimisticLockSql());
         if (e == null) {
             return null;
         }
@@ -279,7 +696,7 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
 
     @Override
     public E pollAny() {
-        E e = this.getAny();
+        E e = this.lockedFirst(false, this.pessimisticLockSql());
         if (e == null) {
             return null;
         }
@@ -288,23 +705,132 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
     }
 
     @Override
-    public long mixById(E e) {
+    public List<E> pollBatch(int n) {
+        List<E> eList = new ArrayList<>();
+        if (n <= 0) {
+            return eList;
+        }
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("SELECT ");
+        sql.append(entityMapper.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(",")) + " ");
+        sql.append("FROM ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        if (filter != null) {
+            String sqlWhere = filter2Sql(filter, sqlParam);
+            if (sqlWhere != null && !sqlWhere.isBlank()) {
+                sql.append("WHERE ");
+                sql.append(sqlWhere);
+            }
+        }
+        if (sorter != null) {
+            sql.append("ORDER BY ");
+            sql.append(sorter2Sql(sorter));
+        }
+        sql.append("LIMIT " + n + " ");
+        if (inTransaction) {
+            sql.append(this.pessimisticLockSql());
+        }
+        eList = sqlExecuter.selectList(connGetter, connCloser, sql.toString(), sqlParam.params, c, config);
+        if (inTransaction) {
+            this.removeByIds(eList);// 读取时已锁定，全部可以删除
+            return eList;
+        }
+        // 没有行锁时其他消费者可能同时选中相同的行，逐条删除，只返回自己删除成功的行
+        List<E> claimed = new ArrayList<>(eList.size());
+        for (E e : eList) {
+            if (this.removeClaimed(e) > 0) {
+                claimed.add(e);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 按主键删除一条poll选中的数据，不检查乐观锁版本
+     * <p>
+     * Delete a data selected by poll by Primary-Key, without checking the optimistic locking version
+     *
+     * @param e 数据
+     *          <p>
+     *          Data
+     * @return 受影响条数，被其他消费者抢先删除时为0
+     *         <p>
+     *         Number of affected entries, 0 when deleted by another consumer first
+     */
+    private long removeClaimed(E e) {
         Object primaryKeyValue = null;
         try {
             primaryKeyValue = entityMapper.primaryKeyGetter().run(e);
         } catch (Throwable throwable) {
             throw new MapperException("Primary key is not found " + e, throwable);
         }
-        if (primaryKeyValue == null) {
-            throw new MapperException("Primary key can not be NULL " + e);
-        }
         StringBuilder sql = new StringBuilder("");
         SqlParam sqlParam = new SqlParam();
-        Map<String, Object> params = new LinkedHashMap<>();
-        try {
+        sql.append("DELETE FROM ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        sql.append("WHERE ");
+        sql.append("`" + entityMapper.primaryKeyColumn() + "`=" + sqlParam.next(primaryKeyValue) + " ");
+        if (filter != null) {
+            sql.append("AND " + filter2Sql(filter, sqlParam));
+        }
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache(primaryKeyValue);
+            this.removeIdentity(primaryKeyValue);
+        }
+    }
+
+    @Override
+    public long mixById(E e) {
+        SqlParam sqlParam = new SqlParam();
+        String sql = this.mixByIdSql(e, sqlParam);
+        if (sql == null) {
+            return 0L;
+        }
+        Object version = entityMapper.version(e);
+        try {
+            long rows = sqlExecuter.update(connGetter, connCloser, sql, sqlParam.params);
+            this.checkVersion(e, version, rows);
+            this.refreshIdentity(e, true);
+            return rows;
+        } finally {
+            this.invalidateCache(this.primaryKeyOf(e));
+        }
+    }
+
+    /**
+     * 根据ID混入不为NULL的属性的SQL
+     * <p>
+     * SQL to mix in properties that are not NULL by Primary-Key
+     *
+     * @param e        含ID的数据
+     *                 <p>
+     *                 data with Primary-Key
+     * @param sqlParam SQL参数
+     *                 <p>
+     *                 SQL parameters
+     * @return SQL，没有需要修改的属性时为null
+     *         <p>
+     *         SQL, null when there is no property to modify
+     */
+    private String mixByIdSql(E e, SqlParam sqlParam) {
+        Object primaryKeyValue = null;
+        try {
+            primaryKeyValue = entityMapper.primaryKeyGetter().run(e);
+        } catch (Throwable throwable) {
+            throw new MapperException("Primary key is not found " + e, throwable);
+        }
+        if (primaryKeyValue == null) {
+            throw new MapperException("Primary key can not be NULL " + e);
+        }
+        StringBuilder sql = new StringBuilder("");
+        Map<String, Object> params = new LinkedHashMap<>();
+        try {
             for (int i = 0; i < entityMapper.columns().size(); i++) {
                 MethodRunner getter = entityMapper.getters().get(i);
-                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn())) {
+                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn()) && i != entityMapper.versionIndex()) {
                     Object paramValue = getter.run(e);
                     if (paramValue != null) {
                         params.put(entityMapper.columns().get(i), paramValue);
@@ -315,17 +841,18 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             throw new MapperException(throwable);
         }
         if (params.size() == 0) {
-            return 0L;
+            return null;
         }
         sql.append("UPDATE ");
         sql.append("`" + entityMapper.tableName() + "` ");
         sql.append("SET ");
-        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + sqlParam.next(params.get(column))).collect(Collectors.joining(",")) + " ");
+        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + sqlParam.next(params.get(column))).collect(Collectors.joining(",")) + this.versionSetSql() + " ");
         sql.append("WHERE `" + entityMapper.primaryKeyColumn() + "`=" + sqlParam.next(primaryKeyValue) + " ");
+        sql.append(this.versionWhereSql(entityMapper.version(e), sqlParam));
         if (filter != null) {
             sql.append("AND " + filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        return sql.toString();
     }
 
     @Override
@@ -336,7 +863,7 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         try {
             for (int i = 0; i < entityMapper.columns().size(); i++) {
                 MethodRunner getter = entityMapper.getters().get(i);
-                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn())) {
+                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn()) && i != entityMapper.versionIndex()) {
                     Object paramValue = getter.run(e);
                     if (paramValue != null) {
                         params.put(entityMapper.columns().get(i), paramValue);
@@ -352,16 +879,52 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         sql.append("UPDATE ");
         sql.append("`" + entityMapper.tableName() + "` ");
         sql.append("SET ");
-        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + sqlParam.next(params.get(column))).collect(Collectors.joining(",")) + " ");
+        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + sqlParam.next(params.get(column))).collect(Collectors.joining(",")) + this.versionSetSql() + " ");
         if (filter != null) {
             sql.append("WHERE ");
             sql.append(filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache();
+        }
     }
 
     @Override
     public long replaceById(E e) {
+        SqlParam sqlParam = new SqlParam();
+        String sql = this.replaceByIdSql(e, sqlParam);
+        if (sql == null) {
+            return 0L;
+        }
+        Object version = entityMapper.version(e);
+        try {
+            long rows = sqlExecuter.update(connGetter, connCloser, sql, sqlParam.params);
+            this.checkVersion(e, version, rows);
+            this.refreshIdentity(e, false);
+            return rows;
+        } finally {
+            this.invalidateCache(this.primaryKeyOf(e));
+        }
+    }
+
+    /**
+     * 根据ID完全替换的SQL
+     * <p>
+     * SQL to completely replace by Primary-Key
+     *
+     * @param e        含ID的数据
+     *                 <p>
+     *                 data with Primary-Key
+     * @param sqlParam SQL参数
+     *                 <p>
+     *                 SQL parameters
+     * @return SQL，没有需要修改的属性时为null
+     *         <p>
+     *         SQL, null when there is no property to modify
+     */
+    private String replaceByIdSql(E e, SqlParam sqlParam) {
         Object primaryKeyValue = null;
         try {
             primaryKeyValue = entityMapper.primaryKeyGetter().run(e);
@@ -372,12 +935,11 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             throw new MapperException("Primary key can not be NULL " + e);
         }
         StringBuilder sql = new StringBuilder("");
-        SqlParam sqlParam = new SqlParam();
         Map<String, Object> params = new LinkedHashMap<>();
         try {
             for (int i = 0; i < entityMapper.columns().size(); i++) {
                 MethodRunner getter = entityMapper.getters().get(i);
-                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn())) {
+                if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn()) && i != entityMapper.versionIndex()) {
                     Object paramValue = getter.run(e);
                     params.put(entityMapper.columns().get(i), paramValue);
                 }
@@ -386,17 +948,245 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             throw new MapperException(throwable);
         }
         if (params.size() == 0) {
-            return 0L;
+            return null;
         }
         sql.append("UPDATE ");
         sql.append("`" + entityMapper.tableName() + "` ");
         sql.append("SET ");
-        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + (params.get(column) == null ? "NULL" : sqlParam.next(params.get(column)))).collect(Collectors.joining(",")) + " ");
+        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + (params.get(column) == null ? "NULL" : sqlParam.next(params.get(column)))).collect(Collectors.joining(",")) + this.versionSetSql() + " ");
         sql.append("WHERE `" + entityMapper.primaryKeyColumn() + "`=" + sqlParam.next(primaryKeyValue) + " ");
+        sql.append(this.versionWhereSql(entityMapper.version(e), sqlParam));
         if (filter != null) {
             sql.append("AND " + filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        return sql.toString();
+    }
+
+    @Override
+    public long mixByIds(Collection<E> collection) {
+        long rows = this.updateByIds(collection, this::mixByIdSql);
+        if (identityMap != null) {
+            collection.stream().filter(e -> e != null).forEach(e -> this.refreshIdentity(e, true));
+        }
+        return rows;
+    }
+
+    @Override
+    public long replaceByIds(Collection<E> collection) {
+        long rows = this.updateByIds(collection, this::replaceByIdSql);
+        if (identityMap != null) {
+            collection.stream().filter(e -> e != null).forEach(e -> this.refreshIdentity(e, false));
+        }
+        return rows;
+    }
+
+    /**
+     * 逐条生成根据ID修改的SQL，连续相同的SQL按batchSize分批，以JDBC批处理执行；不同SQL之间保持集合的顺序，加锁顺序与调用方一致
+     * <p>
+     * Generate the SQL to modify by Primary-Key one by one, consecutive identical SQL is split by batchSize and executed as JDBC batches; the order of the collection is
+     * kept across different SQL, so locks are acquired in the caller's order
+     *
+     * @param collection 含ID的数据集合
+     *                   <p>
+     *                   Data collection with Primary-Key
+     * @param sqlBuilder 生成一条数据的SQL，没有需要修改的属性时返回null
+     *                   <p>
+     *                   Builds the SQL of one data, returns null when there is no property to modify
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     */
+    private long updateByIds(Collection<E> collection, BiFunction<E, SqlParam, String> sqlBuilder) {
+        if (collection == null || collection.isEmpty()) {
+            return 0L;
+        }
+        int batchSize = config.getBatchSize() == null || config.getBatchSize() <= 0 ? 1 : config.getBatchSize();
+        String batchSql = null;// 当前批次的SQL
+        List<Map<Integer, Object>> batch = new ArrayList<>();// 当前批次的参数
+        List<E> entities = new ArrayList<>();// 当前批次的数据
+        long count = 0L;
+        for (E e : collection) {
+            if (e == null) {
+                continue;
+            }
+            SqlParam sqlParam = new SqlParam();
+            String sql = sqlBuilder.apply(e, sqlParam);
+            if (sql == null) {
+                continue;
+            }
+            if (!batch.isEmpty() && (!sql.equals(batchSql) || batch.size() >= batchSize)) {
+                count += this.executeUpdateBatch(batchSql, batch, entities);
+                batch = new ArrayList<>();
+                entities = new ArrayList<>();
+            }
+            batchSql = sql;
+            batch.add(sqlParam.params);
+            entities.add(e);
+        }
+        if (!batch.isEmpty()) {
+            count += this.executeUpdateBatch(batchSql, batch, entities);
+        }
+        return count;
+    }
+
+    /**
+     * 执行一批相同SQL的修改，只有一条时不使用批处理
+     * <p>
+     * Execute a batch of modifications with the same SQL, without JDBC batch when there is only one
+     *
+     * @param sql        SQL
+     * @param paramsList 每条修改的参数
+     *                   <p>
+     *                   Parameters of each modification
+     * @param entities   每条修改对应的数据，用于检查乐观锁版本
+     *                   <p>
+     *                   Data of each modification, used to check the optimistic locking version
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     */
+    private long executeUpdateBatch(String sql, List<Map<Integer, Object>> paramsList, List<E> entities) {
+        List<Object> versions = entities.stream().map(e -> entityMapper.version(e)).toList();
+        long[] rowsList;
+        try {
+            if (paramsList.size() == 1) {
+                rowsList = new long[] { sqlExecuter.update(connGetter, connCloser, sql, paramsList.get(0)) };
+            } else {
+                rowsList = sqlExecuter.updateBatch(connGetter, connCloser, sql, paramsList);
+            }
+        } finally {
+            entities.forEach(e -> this.invalidateCache(this.primaryKeyOf(e)));
+        }
+        long count = 0L;
+        for (int i = 0; i < rowsList.length; i++) {
+            if (rowsList[i] > 0) {// 驱动无法给出行数时为负数
+                count += rowsList[i];
+            }
+            this.checkVersion(entities.get(i), versions.get(i), rowsList[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 乐观锁：SET中递增版本的SQL片段
+     * <p>
+     * Optimistic locking: SQL fragment in SET that increases the version
+     *
+     * @return SQL片段，没有版本列时为空字符串
+     *         <p>
+     *         SQL fragment, empty string when there is no version column
+     */
+    private String versionSetSql() {
+        if (entityMapper.versionIndex() < 0) {
+            return "";
+        }
+        return ",`" + entityMapper.versionColumn() + "`=`" + entityMapper.versionColumn() + "`+1";
+    }
+
+    /**
+     * 乐观锁：WHERE中比较版本的SQL片段
+     * <p>
+     * Optimistic locking: SQL fragment in WHERE that compares the version
+     *
+     * @param version  实体的版本
+     *                 <p>
+     *                 Version of the entity
+     * @param sqlParam SQL参数
+     *                 <p>
+     *                 SQL parameters
+     * @return SQL片段，没有版本列或版本为NULL时为空字符串
+     *         <p>
+     *         SQL fragment, empty string when there is no version column or the version is NULL
+     */
+    private String versionWhereSql(Object version, SqlParam sqlParam) {
+        if (entityMapper.versionIndex() < 0 || version == null) {
+            return "";
+        }
+        return "AND `" + entityMapper.versionColumn() + "`=" + sqlParam.next(version) + " ";
+    }
+
+    /**
+     * 乐观锁：比较了版本却没有修改到数据时抛出冲突异常，修改成功时递增实体的版本
+     * <p>
+     * Optimistic locking: throw a conflict exception when the version was compared but no data was modified, and increase the version of the entity when the
+     * modification succeeds
+     *
+     * @param e       数据
+     *                <p>
+     *                Data
+     * @param version 修改前实体的版本
+     *                <p>
+     *                Version of the entity before the modification
+     * @param rows    受影响条数，驱动无法给出时为负数
+     *                <p>
+     *                Number of affected entries, negative when the driver cannot report it
+     */
+    private void checkVersion(Object e, Object version, long rows) {
+        if (entityMapper.versionIndex() < 0 || version == null) {
+            return;
+        }
+        if (rows == 0) {
+            throw new OptimisticLockException("Version " + version + " is out of date " + e, e);
+        }
+        entityMapper.increaseVersion(e);
+    }
+
+    /**
+     * 写入一个主键后使二级缓存失效；在事务中时，事务结束前这个主键不再写入缓存
+     * <p>
+     * Invalidate the second-level cache after writing a primary key; in a transaction, this primary key is not cached again until the transaction ends
+     *
+     * @param primaryKeyValue 主键
+     *                        <p>
+     *                        Primary key
+     */
+    private void invalidateCache(Object primaryKeyValue) {
+        if (entityCache != null) {
+            entityCache.invalidate(primaryKeyValue, inTransaction ? pignoo : null);
+        }
+    }
+
+    /**
+     * 按条件批量写入后使整个二级缓存失效，并移出一级缓存中这个类型的全部实体
+     * <p>
+     * Invalidate the whole second-level cache after a mass write by condition, and remove all entities of this type from the first-level cache
+     */
+    private void invalidateCache() {
+        if (entityCache != null) {
+            entityCache.invalidateAll(inTransaction ? pignoo : null);
+        }
+        if (identityMap != null) {
+            identityMap.removeAll(c);
+        }
+    }
+
+    /**
+     * 按主键修改成功后，把写入的值同步到一级缓存中的实体上
+     * <p>
+     * After a successful modification by primary key, synchronize the written values to the entity in the first-level cache
+     */
+    private void refreshIdentity(E e, boolean mix) {
+        Object primaryKeyValue = identityMap == null ? null : this.primaryKeyOf(e);
+        if (primaryKeyValue != null) {
+            identityMap.refresh(entityMapper, normalize(primaryKeyValue), e, mix);
+        }
+    }
+
+    private void removeIdentity(Object primaryKeyValue) {
+        if (identityMap != null && primaryKeyValue != null) {
+            identityMap.remove(c, normalize(primaryKeyValue));
+        }
+    }
+
+    private Object primaryKeyOf(Object e) {
+        if (entityCache == null && identityMap == null) {
+            return null;
+        }
+        try {
+            return entityMapper.primaryKeyGetter().run(e);
+        } catch (Throwable throwable) {
+            throw new MapperException("Primary key is not found " + e, throwable);
+        }
     }
 
     @Override
@@ -406,7 +1196,7 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         Map<String, Object> params = new LinkedHashMap<>();
         for (int i = 0; i < entityMapper.columns().size(); i++) {
             MethodRunner getter = entityMapper.getters().get(i);
-            if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn())) {
+            if (getter != null && !entityMapper.columns().get(i).equals(entityMapper.primaryKeyColumn()) && i != entityMapper.versionIndex()) {
                 try {
                     Object paramValue = getter.run(e);
                     params.put(entityMapper.columns().get(i), paramValue);
@@ -421,12 +1211,214 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         sql.append("UPDATE ");
         sql.append("`" + entityMapper.tableName() + "` ");
         sql.append("SET ");
-        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + (params.get(column) == null ? "NULL" : sqlParam.next(params.get(column)))).collect(Collectors.joining(",")) + " ");
+        sql.append(params.keySet().stream().map(column -> "`" + column + "`=" + (params.get(column) == null ? "NULL" : sqlParam.next(params.get(column)))).collect(Collectors.joining(",")) + this.versionSetSql() + " ");
         if (filter != null) {
             sql.append("WHERE ");
             sql.append(filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache();
+        }
+    }
+
+    @Override
+    public long mixUpsert(E e) {
+        if (e == null) {
+            return 0L;
+        }
+        return this.upsertAll(List.of(e), true);
+    }
+
+    @Override
+    public long mixUpsertAll(Collection<E> collection) {
+        return this.upsertAll(collection, true);
+    }
+
+    @Override
+    public long upsert(E e) {
+        if (e == null) {
+            return 0L;
+        }
+        return this.upsertAll(List.of(e), false);
+    }
+
+    @Override
+    public long upsertAll(Collection<E> collection) {
+        return this.upsertAll(collection, false);
+    }
+
+    /**
+     * 批量新增或修改：同一批的数据写入相同的列，混入时不为NULL的列相同的连续数据为一批，按batchSize分批；按集合的顺序写入
+     * <p>
+     * Add or modify in batches: data in the same batch writes the same columns, when mixing consecutive data with the same non-NULL columns forms a batch, split by
+     * batchSize; written in the order of the collection
+     *
+     * @param collection 数据集合
+     *                   <p>
+     *                   Data collection
+     * @param mix        是否只写入不为NULL的属性
+     *                   <p>
+     *                   Whether to only write properties that are not NULL
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     */
+    private long upsertAll(Collection<E> collection, boolean mix) {
+        if (collection == null || collection.isEmpty()) {
+            return 0L;
+        }
+        int columnCount = entityMapper.columns().size();
+        int primaryKeyIndex = entityMapper.columns().indexOf(entityMapper.primaryKeyColumn());
+        int batchSize = config.getBatchSize() == null || config.getBatchSize() <= 0 ? 1 : config.getBatchSize();
+        batchSize = Math.max(1, Math.min(batchSize, MAX_PARAM_COUNT / columnCount));
+        List<Integer> batchColumnIndexes = null;// 当前批次写入的列
+        List<Object[]> batch = new ArrayList<>();// 当前批次的数据
+        long count = 0L;
+        for (E e : collection) {
+            if (e == null) {
+                continue;
+            }
+            Object[] row = new Object[columnCount];
+            List<Integer> columnIndexes = new ArrayList<>();
+            try {
+                for (int i = 0; i < columnCount; i++) {
+                    MethodRunner getter = entityMapper.getters().get(i);
+                    if (getter != null) {
+                        row[i] = getter.run(e);
+                        if (!mix || row[i] != null) {
+                            columnIndexes.add(i);
+                        }
+                    }
+                }
+            } catch (Throwable throwable) {
+                throw new MapperException(throwable);
+            }
+            if (row[primaryKeyIndex] == null && !entityMapper.autoPrimaryKey()) {
+                throw new MapperException("Primary key can not be NULL " + e);
+            }
+            if (columnIndexes.isEmpty()) {
+                columnIndexes.add(primaryKeyIndex);
+            }
+            if (!batch.isEmpty() && (!columnIndexes.equals(batchColumnIndexes) || batch.size() >= batchSize)) {
+                count += this.upsertBatch(batchColumnIndexes, batch);
+                batch = new ArrayList<>();
+            }
+            batchColumnIndexes = columnIndexes;
+            batch.add(row);
+        }
+        if (!batch.isEmpty()) {
+            count += this.upsertBatch(batchColumnIndexes, batch);
+        }
+        return count;
+    }
+
+    /**
+     * 一条INSERT ... ON DUPLICATE KEY UPDATE写入一批数据
+     * <p>
+     * Write a batch of data with one INSERT ... ON DUPLICATE KEY UPDATE
+     *
+     * @param columnIndexes 写入的列序号
+     *                      <p>
+     *                      Indexes of the written columns
+     * @param rows          一批数据的各列值
+     *                      <p>
+     *                      Column values of a batch of data
+     * @return 受影响条数
+     *         <p>
+     *         Number of affected entries
+     */
+    private long upsertBatch(List<Integer> columnIndexes, List<Object[]> rows) {
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("INSERT INTO ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        sql.append("(" + columnIndexes.stream().map(i -> "`" + entityMapper.columns().get(i) + "`").collect(Collectors.joining(",")) + ") ");
+        sql.append("VALUES ");
+        for (int r = 0; r < rows.size(); r++) {
+            Object[] row = rows.get(r);
+            sql.append(r == 0 ? "(" : ",(");
+            sql.append(columnIndexes.stream().map(i -> row[i] == null ? "NULL" : sqlParam.next(row[i])).collect(Collectors.joining(",")));
+            sql.append(")");
+        }
+        sql.append(" ");
+        boolean rowAlias = this.rowAliasSupported();
+        if (rowAlias) {
+            sql.append("AS `new` ");
+        }
+        sql.append("ON DUPLICATE KEY UPDATE ");
+        List<String> updateColumns = columnIndexes.stream()
+                .map(i -> entityMapper.columns().get(i))
+                .filter(column -> !column.equals(entityMapper.primaryKeyColumn()) && !column.equals(entityMapper.versionColumn()))
+                .toList();
+        if (updateColumns.isEmpty()) {
+            sql.append("`" + entityMapper.primaryKeyColumn() + "`=`" + entityMapper.primaryKeyColumn() + "` ");
+        } else {
+            sql.append(updateColumns.stream().map(column -> "`" + column + "`=" + (rowAlias ? "`new`.`" + column + "`" : "VALUES(`" + column + "`)")).collect(Collectors.joining(",")) + this.versionSetSql() + " ");
+        }
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            int primaryKeyIndex = entityMapper.columns().indexOf(entityMapper.primaryKeyColumn());
+            rows.forEach(row -> {
+                this.invalidateCache(row[primaryKeyIndex]);
+                this.removeIdentity(row[primaryKeyIndex]);
+            });
+        }
+    }
+
+    /**
+     * 数据库是否支持INSERT的行别名：MySQL 8.0.20起ON DUPLICATE KEY UPDATE中的VALUES(col)已废弃，支持时改用行别名
+     * <p>
+     * Whether the database supports the row alias of INSERT: VALUES(col) in ON DUPLICATE KEY UPDATE is deprecated since MySQL 8.0.20, the row alias is used instead when
+     * supported
+     *
+     * @return 是否支持
+     *         <p>
+     *         Whether supported
+     */
+    private boolean rowAliasSupported() {
+        if (rowAlias == null) {
+            Connection conn = connGetter.get();
+            try {
+                rowAlias = conn != null && rowAliasSupported(conn.getMetaData().getDatabaseProductVersion());
+            } catch (SQLException e) {
+                rowAlias = false;
+            } finally {
+                if (conn != null) {
+                    connCloser.accept(conn);
+                }
+            }
+        }
+        return rowAlias;
+    }
+
+    /**
+     * 按数据库版本判断是否支持INSERT的行别名（MySQL 8.0.19+）；MariaDB不支持
+     * <p>
+     * Whether the row alias of INSERT is supported by the database version (MySQL 8.0.19+); MariaDB does not support it
+     *
+     * @param productVersion 数据库版本，如8.0.32
+     *                       <p>
+     *                       Database version, such as 8.0.32
+     * @return 是否支持
+     *         <p>
+     *         Whether supported
+     * @since 1.2.0
+     */
+    protected static boolean rowAliasSupported(String productVersion) {
+        if (productVersion == null || productVersion.toLowerCase().contains("mariadb")) {
+            return false;
+        }
+        Matcher matcher = VERSION_NUMBERS.matcher(productVersion.trim());
+        if (!matcher.find()) {
+            return false;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        int minor = Integer.parseInt(matcher.group(2));
+        int patch = Integer.parseInt(matcher.group(3));
+        return major > 8 || (major == 8 && (minor > 0 || patch >= 19));
     }
 
     @Override
@@ -446,10 +1438,67 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
         sql.append("`" + entityMapper.tableName() + "` ");
         sql.append("WHERE ");
         sql.append("`" + entityMapper.primaryKeyColumn() + "`=" + sqlParam.next(primaryKeyValue) + " ");
+        Object version = entityMapper.version(e);
+        sql.append(this.versionWhereSql(version, sqlParam));
         if (filter != null) {
             sql.append("AND " + filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        long rows;
+        try {
+            rows = sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache(primaryKeyValue);
+            this.removeIdentity(primaryKeyValue);
+        }
+        if (rows == 0 && entityMapper.versionIndex() >= 0 && version != null) {
+            throw new OptimisticLockException("Version " + version + " is out of date " + e, e);
+        }
+        return rows;
+    }
+
+    @Override
+    public long removeByIds(Collection<E> collection) {
+        if (collection == null || collection.isEmpty()) {
+            return 0L;
+        }
+        List<Object> primaryKeyValues = new ArrayList<>();
+        for (E e : collection) {
+            if (e == null) {
+                continue;
+            }
+            Object primaryKeyValue = null;
+            try {
+                primaryKeyValue = entityMapper.primaryKeyGetter().run(e);
+            } catch (Throwable throwable) {
+                throw new MapperException("Primary key is not found " + e, throwable);
+            }
+            if (primaryKeyValue == null) {
+                throw new MapperException("Primary key can not be NULL " + e);
+            }
+            primaryKeyValues.add(primaryKeyValue);
+        }
+        int batchSize = config.getBatchSize() == null || config.getBatchSize() <= 0 ? 1 : config.getBatchSize();
+        batchSize = Math.max(1, Math.min(batchSize, MAX_PARAM_COUNT / 2));// 为filter的参数留出余量
+        long count = 0L;
+        for (int from = 0; from < primaryKeyValues.size(); from += batchSize) {
+            List<Object> batch = primaryKeyValues.subList(from, Math.min(from + batchSize, primaryKeyValues.size()));
+            StringBuilder sql = new StringBuilder("");
+            SqlParam sqlParam = new SqlParam();
+            sql.append("DELETE FROM ");
+            sql.append("`" + entityMapper.tableName() + "` ");
+            sql.append("WHERE ");
+            sql.append("`" + entityMapper.primaryKeyColumn() + "` IN (" + batch.stream().map(value -> sqlParam.next(value)).collect(Collectors.joining(",")) + ") ");
+            if (filter != null) {
+                sql.append("AND " + filter2Sql(filter, sqlParam));
+            }
+            try {
+                count += sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+            } finally {
+                batch.forEach(this::invalidateCache);
+                batch.forEach(this::removeIdentity);
+            }
+        }
+        return count;
     }
 
     @Override
@@ -462,7 +1511,55 @@ public class PignooWriter4Mysql<E> extends PignooReader4Mysql<E> implements Pign
             sql.append("WHERE ");
             sql.append(filter2Sql(filter, sqlParam));
         }
-        return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache();
+        }
+    }
+
+    @Override
+    public <N extends Number> long increment(Function<E, N> field, N delta) {
+        if (delta == null) {
+            throw new MapperException("Increment delta can not be NULL");
+        }
+        String column = entityMapper.getColumnByFunction(field);
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("UPDATE ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        sql.append("SET ");
+        sql.append("`" + column + "`=`" + column + "`+" + sqlParam.next(delta) + (column.equals(entityMapper.versionColumn()) ? "" : this.versionSetSql()) + " ");
+        if (filter != null) {
+            sql.append("WHERE ");
+            sql.append(filter2Sql(filter, sqlParam));
+        }
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params);
+        } finally {
+            this.invalidateCache();
+        }
+    }
+
+    @Override
+    public <R> boolean compareAndSet(Function<E, R> field, R expected, R newValue) {
+        String column = entityMapper.getColumnByFunction(field);
+        StringBuilder sql = new StringBuilder("");
+        SqlParam sqlParam = new SqlParam();
+        sql.append("UPDATE ");
+        sql.append("`" + entityMapper.tableName() + "` ");
+        sql.append("SET ");
+        sql.append("`" + column + "`=" + (newValue == null ? "NULL" : sqlParam.next(newValue)) + (column.equals(entityMapper.versionColumn()) ? "" : this.versionSetSql()) + " ");
+        sql.append("WHERE ");
+        sql.append("`" + column + "`" + (expected == null ? " IS NULL " : "=" + sqlParam.next(expected) + " "));
+        if (filter != null) {
+            sql.append("AND " + filter2Sql(filter, sqlParam));
+        }
+        try {
+            return sqlExecuter.update(connGetter, connCloser, sql.toString(), sqlParam.params) > 0;
+        } finally {
+            this.invalidateCache();
+        }
     }
 
     @Override
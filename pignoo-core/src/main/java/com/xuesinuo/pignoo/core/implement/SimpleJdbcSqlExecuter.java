@@ -4,24 +4,31 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.SqlContext;
 import com.xuesinuo.pignoo.core.SqlExecuter;
 import com.xuesinuo.pignoo.core.entity.EntityMapper;
+import com.xuesinuo.pignoo.core.entity.RowDecoder;
 import com.xuesinuo.pignoo.core.exception.MapperException;
 import com.xuesinuo.pignoo.core.exception.PignooRuntimeException;
 import com.xuesinuo.pignoo.core.exception.SqlExecuteException;
 
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -31,17 +38,59 @@ import lombok.extern.slf4j.Slf4j;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 1.1.3
+ * @version 1.2.0
  */
 @Slf4j
-@NoArgsConstructor
-@AllArgsConstructor
 public class SimpleJdbcSqlExecuter implements SqlExecuter {
 
-    private boolean saveLog = true;
+    private final boolean saveLog;// 是否打印SQL日志
+
+    private final SlowSqlLog slowSqlLog;// 慢SQL日志，为null时不记录慢SQL
 
     private static final SimpleJdbcSqlExecuter instance = new SimpleJdbcSqlExecuter();
 
+    private static final Set<Connection> streamingConnections = ConcurrentHashMap.newKeySet();// 正在流式读取的连接，MySQL在流关闭前不能执行其他语句
+
+    /**
+     * 构造器，打印SQL日志，使用默认的{@link SlowSqlLog}
+     * <p>
+     * Constructor, prints SQL log and uses the default {@link SlowSqlLog}
+     */
+    public SimpleJdbcSqlExecuter() {
+        this(true);
+    }
+
+    /**
+     * 构造器，使用默认的{@link SlowSqlLog}
+     * <p>
+     * Constructor, uses the default {@link SlowSqlLog}
+     *
+     * @param saveLog 是否打印SQL日志
+     *                <p>
+     *                Whether to print SQL log
+     */
+    public SimpleJdbcSqlExecuter(boolean saveLog) {
+        this(saveLog, new SlowSqlLog());
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param saveLog    是否打印SQL日志：DEBUG级别打印每条SQL，WARN级别打印慢SQL
+     *                   <p>
+     *                   Whether to print SQL log: every SQL at DEBUG level, slow SQL at WARN level
+     * @param slowSqlLog 慢SQL日志，为null时不记录慢SQL
+     *                   <p>
+     *                   Slow SQL log, slow SQL is not recorded when null
+     * @since 1.2.0
+     */
+    public SimpleJdbcSqlExecuter(boolean saveLog, SlowSqlLog slowSqlLog) {
+        this.saveLog = saveLog;
+        this.slowSqlLog = slowSqlLog;
+    }
+
     /**
      * 单例的实现
      * <p>
@@ -57,33 +106,35 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
 
     @Override
     public <E> E selectOne(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
-        }
+        long startTime = System.nanoTime();
         EntityMapper<E> mapper = EntityMapper.build(c, config);
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 try (ResultSet rs = ps.executeQuery()) {
+                    phaseStart = markExecuted(context, phaseStart);
+                    RowDecoder<E> decoder = mapper.rowDecoder().matches(rs.getMetaData()) ? mapper.rowDecoder() : null;
                     while (rs.next()) {
-                        E entity = mapper.buildEntity();
-                        for (int i = 0; i < mapper.columns().size(); i++) {
-                            String columnName = mapper.columns().get(i);
-                            Object columnValue = getObject(rs, mapper.fields().get(i).getType(), null, columnName);
-                            mapper.setters().get(i).run(entity, columnValue);
-                        }
-                        if (saveLog) {
-                            log.debug("1 row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
-                        }
+                        E entity = decoder != null ? decoder.decode(rs) : decodeByLabel(rs, mapper);
+                        logSql(sql, params, 1L, startTime);
                         return entity;
                     }
                 }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
             }
         } catch (Throwable e) {
             throw handleException(e);
@@ -92,36 +143,41 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
+        logSql(sql, params, 0L, startTime);
         return null;
     }
 
     @Override
     public <E> List<E> selectList(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
-        }
+        long startTime = System.nanoTime();
         EntityMapper<E> mapper = EntityMapper.build(c, config);
         ArrayList<E> list = new ArrayList<>();
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 try (ResultSet rs = ps.executeQuery()) {
+                    phaseStart = markExecuted(context, phaseStart);
+                    RowDecoder<E> decoder = mapper.rowDecoder().matches(rs.getMetaData()) ? mapper.rowDecoder() : null;
                     while (rs.next()) {
-                        E entity = mapper.buildEntity();
-                        for (int i = 0; i < mapper.columns().size(); i++) {
-                            String columnName = mapper.columns().get(i);
-                            Object columnValue = getObject(rs, mapper.fields().get(i).getType(), null, columnName);
-                            mapper.setters().get(i).run(entity, columnValue);
-                        }
+                        E entity = decoder != null ? decoder.decode(rs) : decodeByLabel(rs, mapper);
                         list.add(entity);
                     }
                 }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
             }
         } catch (Throwable e) {
             throw handleException(e);
@@ -130,28 +186,171 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
-        if (saveLog) {
-            log.debug(list.size() + " row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
-        }
+        logSql(sql, params, list.size(), startTime);
         return list;
     }
 
     @Override
-    public List<LinkedHashMap<String, String>> selectLinkedHashMap(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
+    public <R> List<R> selectRows(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowMapper<R> rowMapper) {
+        ArrayList<R> list = new ArrayList<>();
+        this.selectEach(connGetter, connCloser, sql, params, rs -> list.add(rowMapper.map(rs)));
+        return list;
+    }
+
+    @Override
+    public long selectEach(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowHandler rowHandler) {
+        long startTime = System.nanoTime();
+        long rows = 0L;
+        Connection conn = null;
+        try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
+            conn = connGetter.get();
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
+                for (Map.Entry<Integer, Object> entry : params.entrySet()) {
+                    setParam(ps, entry.getKey() + 1, entry.getValue());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    phaseStart = markExecuted(context, phaseStart);
+                    while (rs.next()) {
+                        rowHandler.handle(rs);
+                        rows++;
+                    }
+                }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
+            }
+        } catch (Throwable e) {
+            throw handleException(e);
+        } finally {
+            if (conn != null) {
+                connCloser.accept(conn);
+            }
+        }
+        logSql(sql, params, rows, startTime);
+        return rows;
+    }
+
+    @Override
+    public <E> Stream<E> selectStream(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+        long startTime = System.nanoTime();
+        EntityMapper<E> mapper = EntityMapper.build(c, config);
+        RowSpliterator<E> spliterator = new RowSpliterator<>(connCloser, mapper);
+        try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
+            Connection conn = connGetter.get();
+            if (!streamingConnections.add(conn)) {
+                connCloser.accept(conn);
+                throw streamingException(sql);
+            }
+            spliterator.conn = conn;
+            phaseStart = markConnected(context, phaseStart);
+            // 流式结果集独占语句，不进入PreparedStatement缓存
+            spliterator.ps = spliterator.conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            spliterator.ps.setFetchSize(Integer.MIN_VALUE);
+            for (Map.Entry<Integer, Object> entry : params.entrySet()) {
+                setParam(spliterator.ps, entry.getKey() + 1, entry.getValue());
+            }
+            spliterator.rs = spliterator.ps.executeQuery();
+            markExecuted(context, phaseStart);
+            logSql(sql, params, -1L, startTime);
+            spliterator.decoder = mapper.rowDecoder().matches(spliterator.rs.getMetaData()) ? mapper.rowDecoder() : null;
+        } catch (Throwable e) {
+            spliterator.close();
+            throw handleException(e);
+        }
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * 流式查询的结果集迭代：读完或流关闭时释放结果集、语句与连接
+     * <p>
+     * Result set iteration of a streaming query: releases the result set, statement and connection when exhausted or when the stream is closed
+     */
+    private static class RowSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+        private final Consumer<Connection> connCloser;
+        private final EntityMapper<E> mapper;
+        private Connection conn;
+        private PreparedStatement ps;
+        private ResultSet rs;
+        private RowDecoder<E> decoder;
+        private boolean closed = false;
+
+        private RowSpliterator(Consumer<Connection> connCloser, EntityMapper<E> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connCloser = connCloser;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (closed) {
+                return false;
+            }
+            E entity;
+            try {
+                if (!rs.next()) {
+                    this.close();
+                    return false;
+                }
+                entity = decoder != null ? decoder.decode(rs) : decodeByLabel(rs, mapper);
+            } catch (Throwable e) {
+                this.close();
+                throw handleException(e);
+            }
+            action.accept(entity);
+            return true;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (ps != null) {
+                    ps.close();
+                }
+            } catch (SQLException e) {
+                throw new SqlExecuteException(e);
+            } finally {
+                if (conn != null) {
+                    streamingConnections.remove(conn);
+                    connCloser.accept(conn);
+                }
+            }
         }
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> selectLinkedHashMap(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+        long startTime = System.nanoTime();
         List<LinkedHashMap<String, String>> list = new ArrayList<>();
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 try (ResultSet rs = ps.executeQuery()) {
+                    phaseStart = markExecuted(context, phaseStart);
                     List<String> columnNames = new ArrayList<>();
                     for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
                         columnNames.add(rs.getMetaData().getColumnName(i));
@@ -164,6 +363,12 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                         list.add(row);
                     }
                 }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
             }
         } catch (Exception e) {
             throw handleException(e);
@@ -172,34 +377,38 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
-        if (saveLog) {
-            log.debug(list.size() + " row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
-        }
+        logSql(sql, params, list.size(), startTime);
         return list;
     }
 
     @Override
     public <R> R selectColumn(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
-        }
+        long startTime = System.nanoTime();
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 try (ResultSet rs = ps.executeQuery()) {
+                    phaseStart = markExecuted(context, phaseStart);
                     while (rs.next()) {
-                        if (saveLog) {
-                            log.debug("1 row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
-                        }
+                        logSql(sql, params, 1L, startTime);
                         return getObject(rs, c, 1, null);
                     }
                 }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
             }
         } catch (Exception e) {
             throw handleException(e);
@@ -208,25 +417,28 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
+        logSql(sql, params, 0L, startTime);
         return null;
     }
 
     @Override
     public <R> Object insert(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
-        }
+        long startTime = System.nanoTime();
         Object primaryKeyValue = null;
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, true);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 int rowsAffected = ps.executeUpdate();
+                phaseStart = markExecuted(context, phaseStart);
                 if (rowsAffected > 0) {
                     try (ResultSet rs = ps.getGeneratedKeys()) {
                         if (rs.next()) {
@@ -234,6 +446,12 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                         }
                     }
                 }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, true, ps, broken);
             }
         } catch (Exception e) {
             throw handleException(e);
@@ -242,31 +460,121 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
-        if (saveLog) {
-            log.debug((primaryKeyValue == null ? "0" : "1") + " row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
-        }
+        logSql(sql, params, primaryKeyValue == null ? 0L : 1L, startTime);
         return primaryKeyValue;
     }
 
     @Override
-    public long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
-        long startTime = System.currentTimeMillis();
-        if (saveLog) {
-            log.debug(sql);
-            log.debug(params.toString());
-        }
+    public <R> List<Object> insertAll(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+        long startTime = System.nanoTime();
+        List<Object> primaryKeyValues = new ArrayList<>();
         Connection conn = null;
         try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
             conn = connGetter.get();
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, true);
+            boolean broken = false;
+            try {
                 for (Map.Entry<Integer, Object> entry : params.entrySet()) {
                     setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
                 int rowsAffected = ps.executeUpdate();
-                if (saveLog) {
-                    log.debug(rowsAffected + " row(s) in " + (System.currentTimeMillis() - startTime) + " ms");
+                phaseStart = markExecuted(context, phaseStart);
+                if (rowsAffected > 0) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            primaryKeyValues.add(rs.getObject(1));
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, true, ps, broken);
+            }
+        } catch (Exception e) {
+            throw handleException(e);
+        } finally {
+            if (conn != null) {
+                connCloser.accept(conn);
+            }
+        }
+        logSql(sql, params, primaryKeyValues.size(), startTime);
+        return primaryKeyValues;
+    }
+
+    @Override
+    public long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+        long startTime = System.nanoTime();
+        Connection conn = null;
+        try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
+            conn = connGetter.get();
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
+                for (Map.Entry<Integer, Object> entry : params.entrySet()) {
+                    setParam(ps, entry.getKey() + 1, entry.getValue());
                 }
+                int rowsAffected = ps.executeUpdate();
+                phaseStart = markExecuted(context, phaseStart);
+                logSql(sql, params, rowsAffected, startTime);
                 return rowsAffected;
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
+            }
+        } catch (Exception e) {
+            throw handleException(e);
+        } finally {
+            if (conn != null) {
+                connCloser.accept(conn);
+            }
+        }
+    }
+
+    @Override
+    public long[] updateBatch(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, List<Map<Integer, Object>> paramsList) {
+        long startTime = System.nanoTime();
+        long[] rows = new long[paramsList.size()];
+        if (paramsList.isEmpty()) {
+            return rows;
+        }
+        Connection conn = null;
+        try {
+            SqlContext context = SqlContext.current();
+            long phaseStart = context == null ? 0L : System.nanoTime();
+            conn = connGetter.get();
+            phaseStart = markConnected(context, phaseStart);
+            PreparedStatement ps = prepareStatement(connGetter, conn, sql, false);
+            boolean broken = false;
+            try {
+                for (Map<Integer, Object> params : paramsList) {
+                    for (Map.Entry<Integer, Object> entry : params.entrySet()) {
+                        setParam(ps, entry.getKey() + 1, entry.getValue());
+                    }
+                    ps.addBatch();
+                }
+                int[] rowsAffected = ps.executeBatch();
+                phaseStart = markExecuted(context, phaseStart);
+                for (int i = 0; i < rows.length && i < rowsAffected.length; i++) {
+                    rows[i] = rowsAffected[i];
+                }
+            } catch (Throwable e) {
+                broken = true;
+                throw e;
+            } finally {
+                markMapped(context, phaseStart);
+                releaseStatement(connGetter, sql, false, ps, broken);
             }
         } catch (Exception e) {
             throw handleException(e);
@@ -275,15 +583,96 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
                 connCloser.accept(conn);
             }
         }
+        logSql(sql, paramsList.get(0), rows.length, startTime);
+        return rows;
+    }
+
+    private void logSql(String sql, Map<Integer, Object> params, long rows, long startTime) {
+        if (!saveLog) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {} row(s) in {} ms", sql, params, rows, elapsedNanos / 1_000_000L);
+        }
+        if (slowSqlLog != null) {
+            slowSqlLog.record(sql, params, rows, elapsedNanos);
+        }
+    }
+
+    private static final PreparedStatement prepareStatement(Supplier<Connection> connGetter, Connection conn, String sql, boolean returnGeneratedKeys) throws SQLException {
+        checkStreaming(conn, sql);
+        if (connGetter instanceof StatementCache statementCache) {
+            return statementCache.prepare(conn, sql, returnGeneratedKeys);
+        }
+        if (returnGeneratedKeys) {
+            return conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+        }
+        return conn.prepareStatement(sql);
+    }
+
+    private static final void checkStreaming(Connection conn, String sql) {
+        if (!streamingConnections.isEmpty() && streamingConnections.contains(conn)) {
+            throw streamingException(sql);
+        }
+    }
+
+    private static final PignooRuntimeException streamingException(String sql) {
+        return new PignooRuntimeException("A stream is still open on this connection, close it before executing other statements: " + sql);
+    }
+
+    private static final void releaseStatement(Supplier<Connection> connGetter, String sql, boolean returnGeneratedKeys, PreparedStatement ps, boolean broken) throws SQLException {
+        if (connGetter instanceof StatementCache statementCache) {
+            statementCache.release(sql, returnGeneratedKeys, ps, broken);
+        } else {
+            ps.close();
+        }
+    }
+
+    private static final long markConnected(SqlContext context, long phaseStart) {
+        if (context == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        context.setConnectNanos(now - phaseStart);
+        return now;
+    }
+
+    private static final long markExecuted(SqlContext context, long phaseStart) {
+        if (context == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        context.setExecuteNanos(now - phaseStart);
+        return now;
+    }
+
+    private static final void markMapped(SqlContext context, long phaseStart) {
+        if (context != null && context.getExecuteNanos() >= 0) {
+            context.setMappingNanos(System.nanoTime() - phaseStart);
+        }
     }
 
     private static final RuntimeException handleException(Throwable e) {
         if (e instanceof SQLException) {
             return new SqlExecuteException((SQLException) e);
         }
+        if (e instanceof PignooRuntimeException) {
+            return (PignooRuntimeException) e;
+        }
         return new PignooRuntimeException(e);
     }
 
+    private static final <E> E decodeByLabel(ResultSet rs, EntityMapper<E> mapper) throws Throwable {
+        E entity = mapper.buildEntity();
+        for (int i = 0; i < mapper.columns().size(); i++) {
+            String columnName = mapper.columns().get(i);
+            Object columnValue = getObject(rs, mapper.fields().get(i).getType(), null, columnName);
+            mapper.setters().get(i).run(entity, columnValue);
+        }
+        return entity;
+    }
+
     @SuppressWarnings("unchecked")
     private static final <R> R getObject(ResultSet rs, Class<R> c, Integer index, String columnLabel) throws SQLException {
         Class<?> getterClass = c;
@@ -309,7 +698,6 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
         } else if (Character.class.isAssignableFrom(c) || char.class.equals(c)) {
             result = (R) Character.valueOf(value.toString().charAt(0));
         } else if (Instant.class.isAssignableFrom(c)) {
-            log.debug("Instant:" + value);
             result = (R) ((Date) value).toInstant();
         } else {
             result = (R) value;
@@ -318,7 +706,9 @@ public class SimpleJdbcSqlExecuter implements SqlExecuter {
     }
 
     private static final void setParam(PreparedStatement ps, int index, Object value) throws SQLException {
-        if (value instanceof Character) {
+        if (value == null) {
+            ps.setNull(index, Types.NULL);
+        } else if (value instanceof Character) {
             ps.setObject(index, value.toString());
         } else if (value.getClass().isEnum()) {
             ps.setObject(index, value.toString());
@@ -0,0 +1,137 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 慢SQL日志：超过阈值的SQL按采样率与每秒上限以WARN级别打印，参数只在真正打印时才渲染
+ * <p>
+ * Slow SQL log: SQL exceeding the threshold is printed at WARN level by sampling rate and per-second limit, and parameters are only rendered when actually printed
+ * <p>
+ * 未超过阈值的SQL只做一次数值比较，不产生任何对象
+ * <p>
+ * SQL under the threshold only costs one numeric comparison and allocates nothing
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Slf4j
+public class SlowSqlLog {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * 慢SQL阈值（毫秒）
+     * <p>
+     * Slow SQL threshold (milliseconds)
+     */
+    @Getter
+    private final long thresholdMillis;
+
+    /**
+     * 慢SQL的采样率，0到1之间
+     * <p>
+     * Sampling rate of slow SQL, between 0 and 1
+     */
+    @Getter
+    private final double sampleRate;
+
+    /**
+     * 每秒最多打印的慢SQL条数，不大于0时不限制
+     * <p>
+     * The maximum number of slow SQL printed per second, no limit when it is not greater than 0
+     */
+    @Getter
+    private final int maxPerSecond;
+
+    private final long thresholdNanos;
+    private final AtomicLong window = new AtomicLong();// 当前限流窗口（秒）
+    private final AtomicInteger printed = new AtomicInteger();// 当前窗口已打印条数
+    private final LongAdder suppressed = new LongAdder();// 因限流未打印的条数
+
+    /**
+     * 默认的慢SQL日志：阈值1000毫秒，全部采样，每秒最多10条
+     * <p>
+     * Default slow SQL log: threshold 1000 milliseconds, samples all, at most 10 per second
+     */
+    public SlowSqlLog() {
+        this(1000L, 1.0, 10);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param thresholdMillis 慢SQL阈值（毫秒）
+     *                        <p>
+     *                        Slow SQL threshold (milliseconds)
+     * @param sampleRate      慢SQL的采样率，0到1之间
+     *                        <p>
+     *                        Sampling rate of slow SQL, between 0 and 1
+     * @param maxPerSecond    每秒最多打印的慢SQL条数，不大于0时不限制
+     *                        <p>
+     *                        The maximum number of slow SQL printed per second, no limit when it is not greater than 0
+     */
+    public SlowSqlLog(long thresholdMillis, double sampleRate, int maxPerSecond) {
+        this.thresholdMillis = thresholdMillis;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.thresholdNanos = thresholdMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * 记录一次SQL执行，超过阈值、命中采样且未被限流时打印
+     * <p>
+     * Record one SQL execution, printed when it exceeds the threshold, hits the sampling and is not rate limited
+     *
+     * @param sql          SQL
+     * @param params       SQL参数
+     *                     <p>
+     *                     SQL parameters
+     * @param rows         返回或受影响的行数，流式查询为-1
+     *                     <p>
+     *                     Rows returned or affected, -1 for streaming queries
+     * @param elapsedNanos 耗时（纳秒）
+     *                     <p>
+     *                     Elapsed time (nanoseconds)
+     */
+    public void record(String sql, Map<Integer, Object> params, long rows, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (!acquire(System.nanoTime())) {
+            suppressed.increment();
+            return;
+        }
+        long skipped = suppressed.sumThenReset();
+        if (rows < 0) {
+            log.warn("Slow SQL ({} ms, streaming, {} suppressed before): {} {}", elapsedNanos / NANOS_PER_MILLI, skipped, sql, params);
+        } else {
+            log.warn("Slow SQL ({} ms, {} row(s), {} suppressed before): {} {}", elapsedNanos / NANOS_PER_MILLI, rows, skipped, sql, params);
+        }
+    }
+
+    private boolean acquire(long now) {
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+        long second = now / NANOS_PER_SECOND;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            printed.set(0);
+        }
+        return printed.incrementAndGet() <= maxPerSecond;
+    }
+}
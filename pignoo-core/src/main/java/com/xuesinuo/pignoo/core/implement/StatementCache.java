@@ -0,0 +1,204 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 带PreparedStatement缓存的连接获取器
+ * <p>
+ * Connection getter with PreparedStatement cache
+ * <p>
+ * 缓存属于一个Pignoo独占的连接，按SQL文本LRU淘汰，Pignoo关闭时清空。{@link SimpleJdbcSqlExecuter}发现连接获取器是StatementCache时，会复用缓存的PreparedStatement
+ * <p>
+ * The cache belongs to a connection owned by one Pignoo, evicts by SQL text in LRU order, and is cleared when the Pignoo closes. When {@link SimpleJdbcSqlExecuter} finds that the connection getter
+ * is a StatementCache, it reuses the cached PreparedStatement
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Slf4j
+public class StatementCache implements Supplier<Connection> {
+
+    private final Supplier<Connection> connGetter;// 原始的连接获取函数
+
+    private final int capacity;// 缓存容量
+
+    private Connection conn;// 缓存所属的连接
+
+    private final Map<String, PreparedStatement> statements;// 普通语句
+
+    private final Map<String, PreparedStatement> generatedKeyStatements;// 返回自增主键的语句
+
+    private long hitCount = 0L;// 命中次数
+
+    private long missCount = 0L;// 未命中次数
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param connGetter 原始的连接获取函数
+     *                   <p>
+     *                   The original connection getter
+     * @param capacity   缓存容量，不大于0时不缓存
+     *                   <p>
+     *                   Cache capacity, no cache when it is not greater than 0
+     */
+    public StatementCache(Supplier<Connection> connGetter, int capacity) {
+        this.connGetter = connGetter;
+        this.capacity = capacity;
+        this.statements = this.lruMap();
+        this.generatedKeyStatements = this.lruMap();
+    }
+
+    private Map<String, PreparedStatement> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (this.size() > capacity) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Connection get() {
+        return connGetter.get();
+    }
+
+    /**
+     * 获取一个PreparedStatement，优先使用缓存
+     * <p>
+     * Get a PreparedStatement, use the cache first
+     *
+     * @param conn                数据库连接
+     *                            <p>
+     *                            Database connection
+     * @param sql                 SQL
+     * @param returnGeneratedKeys 是否返回自增主键
+     *                            <p>
+     *                            Whether to return generated keys
+     * @return PreparedStatement
+     * @throws SQLException SQL异常
+     */
+    public synchronized PreparedStatement prepare(Connection conn, String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (this.conn != conn) {
+            this.clear();
+            this.conn = conn;
+        }
+        Map<String, PreparedStatement> cache = returnGeneratedKeys ? generatedKeyStatements : statements;
+        PreparedStatement ps = cache.get(sql);
+        if (ps != null && !ps.isClosed()) {
+            hitCount++;
+            return ps;
+        }
+        missCount++;
+        if (returnGeneratedKeys) {
+            ps = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+        } else {
+            ps = conn.prepareStatement(sql);
+        }
+        if (capacity > 0) {
+            cache.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * 归还一个PreparedStatement：缓存中的语句保留，其他的关闭
+     * <p>
+     * Return a PreparedStatement: the statement in the cache is kept, others are closed
+     *
+     * @param sql                 SQL
+     * @param returnGeneratedKeys 是否返回自增主键
+     *                            <p>
+     *                            Whether to return generated keys
+     * @param ps                  PreparedStatement
+     * @param broken              执行是否出错，出错的语句不再复用
+     *                            <p>
+     *                            Whether the execution failed, a failed statement is no longer reused
+     */
+    public synchronized void release(String sql, boolean returnGeneratedKeys, PreparedStatement ps, boolean broken) {
+        Map<String, PreparedStatement> cache = returnGeneratedKeys ? generatedKeyStatements : statements;
+        if (cache.get(sql) == ps) {
+            if (!broken) {
+                return;
+            }
+            cache.remove(sql);
+        }
+        closeQuietly(ps);
+    }
+
+    /**
+     * 关闭并清空全部缓存的语句
+     * <p>
+     * Close and clear all cached statements
+     */
+    public synchronized void clear() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+        generatedKeyStatements.values().forEach(StatementCache::closeQuietly);
+        generatedKeyStatements.clear();
+        this.conn = null;
+    }
+
+    /**
+     * 命中次数
+     * <p>
+     * Hit count
+     *
+     * @return 命中次数
+     *         <p>
+     *         Hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 未命中次数
+     * <p>
+     * Miss count
+     *
+     * @return 未命中次数
+     *         <p>
+     *         Miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 当前缓存的语句数量
+     * <p>
+     * The number of statements currently cached
+     *
+     * @return 语句数量
+     *         <p>
+     *         Number of statements
+     */
+    public synchronized int size() {
+        return statements.size() + generatedKeyStatements.size();
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            log.warn("Close cached statement error", e);
+        }
+    }
+}
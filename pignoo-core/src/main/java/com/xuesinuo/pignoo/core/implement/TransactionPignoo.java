@@ -3,7 +3,6 @@ package com.xuesinuo.pignoo.core.implement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
@@ -23,7 +22,7 @@ import com.xuesinuo.pignoo.core.exception.SqlExecuteException;
  *
  * @author xuesinuo
  * @since 0.1.0
- * @version 0.1.0
+ * @version 1.2.0
  */
 public class TransactionPignoo implements Pignoo {
 
@@ -39,6 +38,10 @@ public class TransactionPignoo implements Pignoo {
 
     private boolean hasClosed = false;// 是否已经关闭
 
+    private final UnitOfWork unitOfWork;// 延迟的setter更新，未开启时为null
+
+    private final IdentityMap identityMap;// 事务内的一级缓存，未开启时为null
+
     /**
      * 构造器，使用默认配置
      * <p>
@@ -74,6 +77,9 @@ public class TransactionPignoo implements Pignoo {
         } else {
             this.config = pignooConfig.copy();
         }
+        this.unitOfWork = this.config.getDeferSetterUpdate() != null && this.config.getDeferSetterUpdate() ? new UnitOfWork(this.config.getEntityCaches(), this) : null;
+        this.identityMap = this.config.getTransactionIdentityMap() != null && this.config.getTransactionIdentityMap() ? new IdentityMap() : null;
+        this.connGetter = new StatementCache(() -> this.getConnection(), this.config.getStatementCacheSize() == null ? 0 : this.config.getStatementCacheSize());
         if (this.config.getEngine() == null) {
             try {
                 this.config.setEngine(DatabaseEngine.getDatabaseEngineByConnection(this.getConnection()));
@@ -105,7 +111,7 @@ public class TransactionPignoo implements Pignoo {
         return this.conn;
     }
 
-    private Supplier<Connection> connGetter = () -> this.getConnection();
+    private final StatementCache connGetter;// 获取连接函数，附带PreparedStatement缓存
 
     private Consumer<Connection> connCloser = (conn) -> {};
 
@@ -113,7 +119,7 @@ public class TransactionPignoo implements Pignoo {
     public <E> PignooWriter<E> writer(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, true, c, this.config);
+            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, true, c, this.config, this.unitOfWork, this.identityMap);
         }
         throw new DataSourceException("Unknow database engine");
     }
@@ -122,7 +128,7 @@ public class TransactionPignoo implements Pignoo {
     public <E> PignooReader<E> reader(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooReader4Mysql<E>(this, connGetter, connCloser, true, c, this.config);
+            return new PignooReader4Mysql<E>(this, connGetter, connCloser, true, c, this.config, this.unitOfWork, this.identityMap);
         }
         throw new DataSourceException("Unknow database engine");
     }
@@ -136,6 +142,12 @@ public class TransactionPignoo implements Pignoo {
         if (hasRollbacked) {
             return;
         }
+        if (unitOfWork != null) {
+            unitOfWork.clear();
+        }
+        if (identityMap != null) {
+            identityMap.clear();
+        }
         try {
             conn.rollback();
             hasRollbacked = true;
@@ -149,15 +161,41 @@ public class TransactionPignoo implements Pignoo {
         if (hasClosed) {
             return;
         }
+        RuntimeException flushError = null;
+        if (!hasRollbacked && unitOfWork != null) {
+            try {
+                unitOfWork.flush();
+            } catch (RuntimeException e) {
+                flushError = e;
+                try {
+                    this.rollback();
+                } catch (RuntimeException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+            }
+        }
         hasClosed = true;
         dataSource = null;
-        if (!hasRollbacked) {
-            try {
-                conn.commit();
-            } catch (SQLException e) {
-                throw new SqlExecuteException(e);
+        try {
+            if (!hasRollbacked) {
+                try {
+                    conn.commit();
+                } catch (SQLException e) {
+                    throw new SqlExecuteException(e);
+                }
+            }
+        } finally {
+            if (identityMap != null) {
+                identityMap.clear();
+            }
+            if (config.getEntityCaches() != null) {
+                config.getEntityCaches().release(this);// 事务结束，其中写过的主键可以重新写入缓存
+            }
+            if (config.getQueryCaches() != null) {
+                config.getQueryCaches().release(this);// 事务结束，其中写过的表可以重新写入缓存
             }
         }
+        connGetter.clear();
         try {
             if (connAutoCommit != conn.getAutoCommit()) {
                 conn.setAutoCommit(connAutoCommit);
@@ -170,6 +208,30 @@ public class TransactionPignoo implements Pignoo {
         } finally {
             conn = null;
         }
+        if (flushError != null) {
+            throw flushError;
+        }
+    }
+
+    /**
+     * 当前连接的PreparedStatement缓存，可用于查看命中情况
+     * <p>
+     * PreparedStatement cache of the current connection, can be used to view the hit status
+     *
+     * @return PreparedStatement缓存
+     *         <p>
+     *         PreparedStatement cache
+     * @since 1.2.0
+     */
+    public StatementCache getStatementCache() {
+        return this.connGetter;
+    }
+
+    @Override
+    public void flush() {
+        if (this.unitOfWork != null) {
+            this.unitOfWork.flush();
+        }
     }
 
     @Override
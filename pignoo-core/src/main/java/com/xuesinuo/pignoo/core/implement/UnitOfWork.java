@@ -0,0 +1,451 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.SqlExecuter;
+import com.xuesinuo.pignoo.core.cache.EntityCache;
+import com.xuesinuo.pignoo.core.cache.EntityCaches;
+import com.xuesinuo.pignoo.core.entity.EntityMapper;
+import com.xuesinuo.pignoo.core.entity.SqlParam;
+import com.xuesinuo.pignoo.core.exception.MapperException;
+import com.xuesinuo.pignoo.core.exception.OptimisticLockException;
+
+/**
+ * 延迟的setter更新：记录代理实体上被修改的字段，合并为每个实体一条UPDATE，在刷新时按SQL分组批量执行
+ * <p>
+ * Deferred setter updates: records the modified fields of proxied entities, merges them into one UPDATE per entity, and executes them in batches grouped by SQL when
+ * flushing
+ * <p>
+ * 刷新时机：{@link com.xuesinuo.pignoo.core.Pignoo#flush()}、同一张表上的下一条SQL之前、事务提交之前；值与第一次修改前相同的字段不会写入
+ * <p>
+ * Flush timing: {@link com.xuesinuo.pignoo.core.Pignoo#flush()}, before the next SQL on the same table, before the transaction commits; fields whose value equals the
+ * value before the first modification are not written
+ * <p>
+ * 一条UPDATE执行失败时，其余UPDATE照常执行，失败的实体保持待更新，可以再次刷新；版本冲突的实体不再保留。所有失败在刷新结束后一并抛出，第一个之外的作为suppressed
+ * <p>
+ * When an UPDATE fails, the other UPDATEs are still executed and the failed entities stay pending, so they can be flushed again; entities with a version conflict are not
+ * kept. All failures are thrown after the flush, those after the first as suppressed
+ * <p>
+ * 一个UnitOfWork属于一个Pignoo，不能在多个线程共享的Pignoo上使用：其他线程的SQL会刷新并承担这些修改
+ * <p>
+ * A UnitOfWork belongs to one Pignoo and must not be used on a Pignoo shared by threads: SQL of other threads would flush and carry these modifications
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class UnitOfWork {
+
+    private final Map<Object, Pending> pendings = new IdentityHashMap<>();// 实体 -> 待更新
+    private final Set<Pending> order = new LinkedHashSet<>();// 待更新的登记顺序，刷新成功后逐个移除
+    private boolean flushing = false;// 正在刷新，刷新产生的SQL不再触发刷新
+    private volatile boolean empty = true;// 没有待更新的实体，每条SQL之前不加锁地检查
+    private final EntityCaches entityCaches;// 刷新后需要失效的二级缓存，未开启时为null
+    private final Object owner;// 失效缓存时登记的事务，非事务时为null
+
+    private static class Pending {
+        private final EntityMapper<?> mapper;
+        private final Object entity;
+        private final SqlExecuter sqlExecuter;
+        private final Supplier<Connection> connGetter;
+        private final Consumer<Connection> connCloser;
+        private final Map<Integer, Object> originals = new LinkedHashMap<>();// 列序号 -> 第一次修改前的值
+        private Object version;// 刷新时比较的乐观锁版本
+        private Object primaryKeyValue;// 刷新时更新的主键
+
+        private Pending(EntityMapper<?> mapper, Object entity, SqlExecuter sqlExecuter, Supplier<Connection> connGetter, Consumer<Connection> connCloser) {
+            this.mapper = mapper;
+            this.entity = entity;
+            this.sqlExecuter = sqlExecuter;
+            this.connGetter = connGetter;
+            this.connCloser = connCloser;
+        }
+    }
+
+    private static record BatchKey(SqlExecuter sqlExecuter, Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql) {}
+
+    /**
+     * 构造器，不使用二级缓存
+     * <p>
+     * Constructor, without the second-level cache
+     */
+    public UnitOfWork() {
+        this(null, null);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param entityCaches 刷新后需要失效的二级缓存，可以为null
+     *                     <p>
+     *                     Second-level caches invalidated after flushing, can be null
+     * @param owner        失效缓存时登记的事务，事务提交或回滚前这些主键不再写入缓存；非事务时为null
+     *                     <p>
+     *                     The transaction registered when invalidating, these primary keys are not cached again until it commits or rolls back; null outside transactions
+     */
+    public UnitOfWork(EntityCaches entityCaches, Object owner) {
+        this.entityCaches = entityCaches;
+        this.owner = owner;
+    }
+
+    /**
+     * 登记一次setter修改
+     * <p>
+     * Register a setter modification
+     *
+     * @param mapper      实体映射器
+     *                    <p>
+     *                    Entity mapper
+     * @param entity      被修改的实体（代理的目标）
+     *                    <p>
+     *                    Modified entity (target of the proxy)
+     * @param index       被修改的列序号
+     *                    <p>
+     *                    Index of the modified column
+     * @param oldValue    修改前的值
+     *                    <p>
+     *                    Value before modification
+     * @param sqlExecuter 刷新时使用的SQL执行器
+     *                    <p>
+     *                    SQL executer used when flushing
+     * @param connGetter  获取连接函数
+     *                    <p>
+     *                    Connection getter
+     * @param connCloser  关闭连接函数
+     *                    <p>
+     *                    Connection closer
+     */
+    public synchronized void track(EntityMapper<?> mapper, Object entity, int index, Object oldValue, SqlExecuter sqlExecuter, Supplier<Connection> connGetter,
+            Consumer<Connection> connCloser) {
+        Pending pending = pendings.get(entity);
+        if (pending == null) {
+            pending = new Pending(mapper, entity, sqlExecuter, connGetter, connCloser);
+            pendings.put(entity, pending);
+            order.add(pending);
+            empty = false;
+        }
+        if (!pending.originals.containsKey(index)) {
+            pending.originals.put(index, oldValue);
+        }
+    }
+
+    /**
+     * 是否有待刷新的修改
+     * <p>
+     * Whether there are modifications to flush
+     *
+     * @return 是否有待刷新的修改
+     *         <p>
+     *         Whether there are modifications to flush
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 刷新全部待更新的实体
+     * <p>
+     * Flush all pending entities
+     */
+    public void flush() {
+        this.flush(null);
+    }
+
+    /**
+     * 刷新一张表上待更新的实体
+     * <p>
+     * Flush the pending entities of a table
+     *
+     * @param tableName 表名，null表示全部
+     *                  <p>
+     *                  Table name, null means all
+     */
+    public void flush(String tableName) {
+        if (empty) {
+            return;
+        }
+        this.flushPending(tableName);
+    }
+
+    private synchronized void flushPending(String tableName) {
+        if (flushing || order.isEmpty()) {
+            return;
+        }
+        List<Pending> flushList = new ArrayList<>();
+        for (Pending pending : order) {
+            if (tableName == null || tableName.equals(pending.mapper.tableName())) {
+                flushList.add(pending);
+            }
+        }
+        if (flushList.isEmpty()) {
+            return;
+        }
+        Map<BatchKey, List<Map<Integer, Object>>> batches = new LinkedHashMap<>();
+        Map<BatchKey, List<Pending>> batchPendings = new LinkedHashMap<>();
+        RuntimeException error = null;
+        flushing = true;
+        try {
+            for (Pending pending : flushList) {
+                SqlParam sqlParam = new SqlParam();
+                String sql;
+                try {
+                    sql = updateSql(pending, sqlParam);
+                } catch (MapperException e) {// 无法生成SQL的实体重试也不会成功，报告后不再保留
+                    this.remove(pending);
+                    error = addError(error, e);
+                    continue;
+                }
+                if (sql == null) {
+                    this.remove(pending);
+                    continue;
+                }
+                BatchKey key = new BatchKey(pending.sqlExecuter, pending.connGetter, pending.connCloser, sql);
+                batches.computeIfAbsent(key, k -> new ArrayList<>()).add(sqlParam.params);
+                batchPendings.computeIfAbsent(key, k -> new ArrayList<>()).add(pending);
+            }
+            for (Map.Entry<BatchKey, List<Map<Integer, Object>>> batch : batches.entrySet()) {
+                BatchKey key = batch.getKey();
+                List<Pending> pendingList = batchPendings.get(key);
+                long[] rowsList;
+                try {
+                    if (batch.getValue().size() == 1) {
+                        rowsList = new long[] { key.sqlExecuter().update(key.connGetter(), key.connCloser(), key.sql(), batch.getValue().get(0)) };
+                    } else {
+                        rowsList = key.sqlExecuter().updateBatch(key.connGetter(), key.connCloser(), key.sql(), batch.getValue());
+                    }
+                } catch (RuntimeException e) {// 执行失败的实体保持待更新，其余批次照常执行
+                    error = addError(error, e);
+                    continue;
+                }
+                for (int i = 0; i < rowsList.length; i++) {
+                    Pending pending = pendingList.get(i);
+                    this.remove(pending);
+                    try {
+                        checkVersion(pending, rowsList[i]);
+                    } catch (OptimisticLockException e) {// 版本冲突无法靠重试解决，报告后不再保留
+                        error = addError(error, e);
+                    }
+                }
+            }
+        } finally {
+            flushing = false;
+            empty = order.isEmpty();
+            batchPendings.values().forEach(pendingList -> pendingList.forEach(this::invalidateCache));
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void remove(Pending pending) {
+        order.remove(pending);
+        pendings.remove(pending.entity);
+    }
+
+    private static RuntimeException addError(RuntimeException error, RuntimeException e) {
+        if (error == null) {
+            return e;
+        }
+        error.addSuppressed(e);
+        return error;
+    }
+
+    /**
+     * 丢弃全部待更新的修改，用于事务回滚
+     * <p>
+     * Discard all pending modifications, used for transaction rollback
+     */
+    public synchronized void clear() {
+        pendings.clear();
+        order.clear();
+        empty = true;
+    }
+
+    private static String updateSql(Pending pending, SqlParam sqlParam) {
+        EntityMapper<?> mapper = pending.mapper;
+        List<Integer> dirtyIndexes = new ArrayList<>();
+        List<Object> dirtyValues = new ArrayList<>();
+        Object primaryKeyValue;
+        Object version = versionChecked(pending) ? mapper.version(pending.entity) : null;
+        try {
+            for (Map.Entry<Integer, Object> original : pending.originals.entrySet()) {
+                Object value = mapper.fields().get(original.getKey()).get(pending.entity);
+                if (!Objects.equals(original.getValue(), value)) {
+                    dirtyIndexes.add(original.getKey());
+                    dirtyValues.add(value);
+                }
+            }
+            primaryKeyValue = mapper.primaryKeyGetter().run(pending.entity);
+        } catch (Throwable throwable) {
+            throw new MapperException("Read dirty fields failed " + pending.entity, throwable);
+        }
+        if (dirtyIndexes.isEmpty()) {
+            return null;
+        }
+        if (primaryKeyValue == null) {
+            throw new MapperException("Primary key can not be NULL " + pending.entity);
+        }
+        StringBuilder sql = new StringBuilder("");
+        sql.append("UPDATE ");
+        sql.append("`" + mapper.tableName() + "` ");
+        sql.append("SET ");
+        for (int i = 0; i < dirtyIndexes.size(); i++) {
+            sql.append((i == 0 ? "" : ",") + "`" + mapper.columns().get(dirtyIndexes.get(i)) + "` = " + sqlParam.next(dirtyValues.get(i)));
+        }
+        if (version != null) {
+            sql.append(",`" + mapper.versionColumn() + "` = `" + mapper.versionColumn() + "` + 1");
+        }
+        sql.append(" ");
+        sql.append("WHERE ");
+        sql.append("`" + mapper.primaryKeyColumn() + "` = " + sqlParam.next(primaryKeyValue) + " ");
+        if (version != null) {
+            sql.append("AND `" + mapper.versionColumn() + "` = " + sqlParam.next(version) + " ");
+        }
+        pending.version = version;
+        pending.primaryKeyValue = primaryKeyValue;
+        return sql.toString();
+    }
+
+    /**
+     * 是否需要比较乐观锁版本：实体有版本列，且版本列本身没有被直接修改
+     * <p>
+     * Whether to compare the optimistic locking version: the entity has a version column, and the version column itself was not modified directly
+     */
+    private static boolean versionChecked(Pending pending) {
+        return pending.mapper.versionIndex() >= 0 && !pending.originals.containsKey(pending.mapper.versionIndex());
+    }
+
+    /**
+     * 比较了版本却没有修改到数据时抛出冲突异常，修改成功时递增实体的版本
+     * <p>
+     * Throw a conflict exception when the version was compared but no data was modified, and increase the version of the entity when the modification succeeds
+     */
+    private static void checkVersion(Pending pending, long rows) {
+        if (pending.version == null) {
+            return;
+        }
+        if (rows == 0) {
+            throw new OptimisticLockException("Version " + pending.version + " is out of date " + pending.entity, pending.entity);
+        }
+        pending.mapper.increaseVersion(pending.entity);
+    }
+
+    private void invalidateCache(Pending pending) {
+        if (entityCaches == null) {
+            return;
+        }
+        EntityCache entityCache = entityCaches.get(pending.mapper.getType());
+        if (entityCache != null) {
+            entityCache.invalidate(pending.primaryKeyValue, owner);
+        }
+    }
+
+    /**
+     * 包装SQL执行器：执行一张表上的SQL之前，先刷新这张表上待更新的实体
+     * <p>
+     * Wrap the SQL executer: before executing SQL on a table, flush the pending entities of this table first
+     *
+     * @param sqlExecuter 被包装的SQL执行器
+     *                    <p>
+     *                    The wrapped SQL executer
+     * @param tableName   表名
+     *                    <p>
+     *                    Table name
+     * @return SQL执行器
+     *         <p>
+     *         SQL executer
+     */
+    public SqlExecuter flushBefore(SqlExecuter sqlExecuter, String tableName) {
+        return new FlushingSqlExecuter(sqlExecuter, tableName);
+    }
+
+    private class FlushingSqlExecuter implements SqlExecuter {
+        private final SqlExecuter sqlExecuter;
+        private final String tableName;
+
+        private FlushingSqlExecuter(SqlExecuter sqlExecuter, String tableName) {
+            this.sqlExecuter = sqlExecuter;
+            this.tableName = tableName;
+        }
+
+        @Override
+        public <E> E selectOne(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            flush(tableName);
+            return sqlExecuter.selectOne(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public <E> List<E> selectList(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            flush(tableName);
+            return sqlExecuter.selectList(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public <R> List<R> selectRows(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowMapper<R> rowMapper) {
+            flush(tableName);
+            return sqlExecuter.selectRows(connGetter, connCloser, sql, params, rowMapper);
+        }
+
+        @Override
+        public long selectEach(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, RowHandler rowHandler) {
+            flush(tableName);
+            return sqlExecuter.selectEach(connGetter, connCloser, sql, params, rowHandler);
+        }
+
+        @Override
+        public <E> Stream<E> selectStream(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<E> c, PignooConfig config) {
+            flush(tableName);
+            return sqlExecuter.selectStream(connGetter, connCloser, sql, params, c, config);
+        }
+
+        @Override
+        public List<LinkedHashMap<String, String>> selectLinkedHashMap(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+            flush(tableName);
+            return sqlExecuter.selectLinkedHashMap(connGetter, connCloser, sql, params);
+        }
+
+        @Override
+        public <R> R selectColumn(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            flush(tableName);
+            return sqlExecuter.selectColumn(connGetter, connCloser, sql, params, c);
+        }
+
+        @Override
+        public <R> Object insert(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            flush(tableName);
+            return sqlExecuter.insert(connGetter, connCloser, sql, params, c);
+        }
+
+        @Override
+        public <R> List<Object> insertAll(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params, Class<R> c) {
+            flush(tableName);
+            return sqlExecuter.insertAll(connGetter, connCloser, sql, params, c);
+        }
+
+        @Override
+        public long update(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, Map<Integer, Object> params) {
+            flush(tableName);
+            return sqlExecuter.update(connGetter, connCloser, sql, params);
+        }
+
+        @Override
+        public long[] updateBatch(Supplier<Connection> connGetter, Consumer<Connection> connCloser, String sql, List<Map<Integer, Object>> paramsList) {
+            flush(tableName);
+            return sqlExecuter.updateBatch(connGetter, connCloser, sql, paramsList);
+        }
+    }
+}
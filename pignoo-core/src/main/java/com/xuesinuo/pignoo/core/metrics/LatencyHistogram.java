@@ -0,0 +1,140 @@
+package com.xuesinuo.pignoo.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 无锁的分段延迟直方图：对数-线性分桶（每个2的幂分4个子桶，相对误差不超过25%），按线程分段记录，读取时合并
+ * <p>
+ * Lock-free striped latency histogram: log-linear buckets (4 sub-buckets per power of 2, at most 25% relative error), recorded in stripes by thread and merged on read
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;// 约18分钟，更大的值记入最后一个桶
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+    private static final int STRIPES = Math.min(4, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT * STRIPES);
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * 记录一个值
+     * <p>
+     * Record a value
+     *
+     * @param nanos 耗时（纳秒），负数忽略
+     *              <p>
+     *              Elapsed time (nanoseconds), negative values are ignored
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        buckets.incrementAndGet(stripe * BUCKET_COUNT + bucketIndex(nanos));
+        max.accumulate(nanos);
+    }
+
+    /**
+     * 记录的值的数量
+     * <p>
+     * Number of recorded values
+     *
+     * @return 数量
+     *         <p>
+     *         Count
+     */
+    public long count() {
+        long count = 0L;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * 最大值
+     * <p>
+     * Maximum value
+     *
+     * @return 最大值（纳秒）
+     *         <p>
+     *         Maximum value (nanoseconds)
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * 百分位数，返回所在桶的上界
+     * <p>
+     * Percentile, returns the upper bound of the bucket
+     *
+     * @param percentile 百分位，0到1之间，如0.99
+     *                   <p>
+     *                   Percentile, between 0 and 1, such as 0.99
+     * @return 百分位数（纳秒），没有数据时为0
+     *         <p>
+     *         Percentile value (nanoseconds), 0 when there is no data
+     */
+    public long percentile(double percentile) {
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i < buckets.length(); i++) {
+            long value = buckets.get(i);
+            merged[i % BUCKET_COUNT] += value;
+            count += value;
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile * count));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * 清空记录
+     * <p>
+     * Clear the records
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0L);
+        }
+        max.reset();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >= (1L << (MAX_EXPONENT + 1))) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        int sub = index % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_COUNT + sub)) * width + width - 1;
+    }
+}
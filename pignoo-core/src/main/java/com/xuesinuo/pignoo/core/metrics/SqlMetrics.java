@@ -0,0 +1,178 @@
+package com.xuesinuo.pignoo.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import com.xuesinuo.pignoo.core.SqlContext;
+import com.xuesinuo.pignoo.core.SqlInterceptor;
+
+/**
+ * SQL统计登记处：作为{@link SqlInterceptor}挂在SqlExecuter上，按SQL形态与实体类型记录调用次数、失败次数、行数与各阶段延迟
+ * <p>
+ * SQL metrics registry: hooked on the SqlExecuter as a {@link SqlInterceptor}, records call count, error count, rows and phase latencies by SQL shape and entity type
+ * <p>
+ * SQL形态：参数个数不同的IN列表与多行VALUES归一为同一形态。形态数量超过上限后，新的形态合并记入{@link #OTHER_SQL}
+ * <p>
+ * SQL shape: IN lists and multi-row VALUES with different parameter counts are normalized to the same shape. After the number of shapes exceeds the limit, new shapes are merged into
+ * {@link #OTHER_SQL}
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+public class SqlMetrics implements SqlInterceptor {
+
+    /**
+     * 超过形态上限后合并记录的SQL形态
+     * <p>
+     * The SQL shape recorded after the shape limit is exceeded
+     */
+    public static final String OTHER_SQL = "<other>";
+
+    private static final Pattern PARAM_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern VALUES_ROWS = Pattern.compile("(\\([^()]*\\))(\\s*,\\s*\\([^()]*\\))+");
+    private static final int SHAPE_CACHE_SIZE = 4096;
+
+    private final int maxStatements;
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<Key, Recorder> recorders = new ConcurrentHashMap<>();
+
+    private static record Key(String sql, Class<?> entityType) {}
+
+    private static class Recorder {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram connect = new LatencyHistogram();
+        private final LatencyHistogram execute = new LatencyHistogram();
+        private final LatencyHistogram mapping = new LatencyHistogram();
+    }
+
+    /**
+     * 构造器，最多记录256种SQL形态
+     * <p>
+     * Constructor, records at most 256 SQL shapes
+     */
+    public SqlMetrics() {
+        this(256);
+    }
+
+    /**
+     * 构造器
+     * <p>
+     * Constructor
+     *
+     * @param maxStatements 最多记录的SQL形态数量
+     *                      <p>
+     *                      The maximum number of SQL shapes recorded
+     */
+    public SqlMetrics(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void after(SqlContext context) {
+        this.record(context, false);
+    }
+
+    @Override
+    public void error(SqlContext context, Throwable e) {
+        this.record(context, true);
+    }
+
+    private void record(SqlContext context, boolean error) {
+        Key key = new Key(shape(context.getSql()), context.getEntityType());
+        Recorder recorder = recorders.get(key);
+        if (recorder == null) {
+            if (recorders.size() >= maxStatements) {
+                key = new Key(OTHER_SQL, null);
+            }
+            recorder = recorders.computeIfAbsent(key, k -> new Recorder());
+        }
+        recorder.calls.increment();
+        if (error) {
+            recorder.errors.increment();
+        } else if (context.getRows() > 0) {
+            recorder.rows.add(context.getRows());
+        }
+        recorder.total.record(context.getElapsedNanos());
+        recorder.connect.record(context.getConnectNanos());
+        recorder.execute.record(context.getExecuteNanos());
+        recorder.mapping.record(context.getMappingNanos());
+    }
+
+    /**
+     * SQL归一化：合并参数个数不同的IN列表与多行VALUES
+     * <p>
+     * SQL normalization: merges IN lists and multi-row VALUES with different parameter counts
+     *
+     * @param sql SQL
+     * @return SQL形态
+     *         <p>
+     *         SQL shape
+     */
+    public String shape(String sql) {
+        if (sql == null) {
+            return OTHER_SQL;
+        }
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = PARAM_LIST.matcher(sql).replaceAll("?...");
+            shape = VALUES_ROWS.matcher(shape).replaceAll("$1...");
+            if (shapes.size() >= SHAPE_CACHE_SIZE) {
+                shapes.clear();// 不同长度的IN列表会不断产生新的SQL，满了就清空，让常用的SQL重新进入缓存
+            }
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * 读取全部SQL形态的统计快照
+     * <p>
+     * Read the statistics snapshot of all SQL shapes
+     *
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public List<StatementStats> snapshot() {
+        List<StatementStats> list = new ArrayList<>(recorders.size());
+        recorders.forEach((key, recorder) -> list.add(new StatementStats(key.sql(), key.entityType(),
+                recorder.calls.sum(), recorder.errors.sum(), recorder.rows.sum(),
+                StatementStats.Latency.of(recorder.total), StatementStats.Latency.of(recorder.connect),
+                StatementStats.Latency.of(recorder.execute), StatementStats.Latency.of(recorder.mapping))));
+        return list;
+    }
+
+    /**
+     * 读取一个实体类型的统计快照
+     * <p>
+     * Read the statistics snapshot of an entity type
+     *
+     * @param entityType 实体类型
+     *                   <p>
+     *                   Entity type
+     * @return 统计快照
+     *         <p>
+     *         Statistics snapshot
+     */
+    public List<StatementStats> snapshot(Class<?> entityType) {
+        return this.snapshot().stream().filter(stats -> Objects.equals(stats.getEntityType(), entityType)).toList();
+    }
+
+    /**
+     * 清空全部统计
+     * <p>
+     * Clear all statistics
+     */
+    public void reset() {
+        recorders.clear();
+    }
+}
@@ -0,0 +1,62 @@
+package com.xuesinuo.pignoo.core.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一种SQL形态的统计快照
+ * <p>
+ * Statistics snapshot of one SQL shape
+ *
+ * @author xuesinuo
+ * @since 1.2.0
+ * @version 1.2.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StatementStats {
+
+    /**
+     * 延迟统计（纳秒）
+     * <p>
+     * Latency statistics (nanoseconds)
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Latency {
+        /** 样本数 / Sample count */
+        private final long count;
+        /** 中位数 / Median */
+        private final long p50;
+        /** 99分位 / 99th percentile */
+        private final long p99;
+        /** 最大值 / Maximum */
+        private final long max;
+
+        static Latency of(LatencyHistogram histogram) {
+            return new Latency(histogram.count(), histogram.percentile(0.5), histogram.percentile(0.99), histogram.max());
+        }
+    }
+
+    /** 归一化的SQL形态 / Normalized SQL shape */
+    private final String sql;
+    /** 实体类型，非实体查询时为null / Entity type, null for non-entity queries */
+    private final Class<?> entityType;
+    /** 调用次数 / Call count */
+    private final long calls;
+    /** 失败次数 / Error count */
+    private final long errors;
+    /** 返回或受影响的总行数 / Total rows returned or affected */
+    private final long rows;
+    /** 总耗时 / Total time */
+    private final Latency total;
+    /** 获取连接耗时 / Connection acquisition time */
+    private final Latency connect;
+    /** 语句执行耗时 / Statement execution time */
+    private final Latency execute;
+    /** 结果映射耗时 / Result mapping time */
+    private final Latency mapping;
+}
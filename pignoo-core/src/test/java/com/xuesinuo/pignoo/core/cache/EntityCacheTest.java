@@ -0,0 +1,110 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 二级缓存的版本号与事务阻塞
+ * <p>
+ * Stamps and transaction blocking of the second-level cache
+ */
+public class EntityCacheTest {
+
+    @Test
+    public void putWithCurrentStampIsCachedAndIntegerKeysAreNormalized() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        Object value = new Object();
+        cache.put(1, value, cache.stamp());
+        assertSame(value, cache.get(1L));
+        assertSame(value, cache.get((short) 1));
+    }
+
+    @Test
+    public void putWithStaleStampIsDropped() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        long stamp = cache.stamp();
+        cache.invalidate(2L, null);// 查询期间另一个线程写入了其他主键
+        cache.put(1L, new Object(), stamp);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void invalidateRemovesTheEntry() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        cache.put(1L, new Object(), cache.stamp());
+        cache.invalidate(1L, null);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void keyWrittenInTransactionIsNotCachedUntilReleased() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        Object tx = new Object();
+        cache.invalidate(1L, tx);
+        cache.put(1L, new Object(), cache.stamp());
+        assertNull(cache.get(1L));
+        cache.put(2L, "other", cache.stamp());
+        assertEquals("other", cache.get(2L));// 只阻塞写过的主键
+
+        cache.release(tx);
+        Object value = new Object();
+        cache.put(1L, value, cache.stamp());
+        assertSame(value, cache.get(1L));
+    }
+
+    @Test
+    public void keyStaysBlockedUntilEveryOwnerReleases() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        Object tx1 = new Object();
+        Object tx2 = new Object();
+        cache.invalidate(1L, tx1);
+        cache.invalidate(1L, tx2);
+        cache.release(tx1);
+        cache.put(1L, new Object(), cache.stamp());
+        assertNull(cache.get(1L));
+
+        cache.release(tx2);
+        cache.put(1L, "v", cache.stamp());
+        assertEquals("v", cache.get(1L));
+    }
+
+    @Test
+    public void invalidateAllInTransactionBlocksEveryKey() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        cache.put(1L, "v", cache.stamp());
+        Object tx = new Object();
+        cache.invalidateAll(tx);
+        assertNull(cache.get(1L));
+        cache.put(2L, "w", cache.stamp());
+        assertNull(cache.get(2L));
+
+        cache.release(tx);
+        cache.put(2L, "w", cache.stamp());
+        assertEquals("w", cache.get(2L));
+    }
+
+    @Test
+    public void releaseAdvancesTheStamp() {
+        EntityCache cache = new EntityCache(Object.class, 10);
+        Object tx = new Object();
+        cache.invalidate(1L, tx);
+        long stamp = cache.stamp();// 事务提交前开始的查询可能读到未提交的数据
+        cache.release(tx);
+        cache.put(1L, "stale", stamp);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        EntityCache cache = new EntityCache(Object.class, 2);
+        for (long i = 0; i < 10; i++) {
+            cache.put(i, "v" + i, cache.stamp());
+        }
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(8, stats.getEvictions());
+    }
+}
@@ -0,0 +1,159 @@
+package com.xuesinuo.pignoo.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.xuesinuo.pignoo.core.SqlExecuter;
+
+/**
+ * 查询结果缓存的合并与失效
+ * <p>
+ * Coalescing and invalidation of the query result cache
+ */
+public class QueryCacheTest {
+
+    private static final String TABLE = "pig";
+    private static final String SQL = "SELECT COUNT(*) FROM `pig` ";
+
+    private final QueryCaches caches = new QueryCaches().enable(Object.class, 60_000L, 100);
+    private final QueryCache cache = caches.get(Object.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Long load() {
+        return (long) loads.incrementAndGet();
+    }
+
+    private Long get() {
+        return cache.get(TABLE, SQL, Map.of(), Long.class, this::load);
+    }
+
+    @Test
+    public void hitAfterMiss() {
+        assertEquals(1L, get());
+        assertEquals(1L, get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    public void concurrentMissesAreCoalescedIntoOneLoad() throws Exception {
+        int threads = 8;
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.get(TABLE, SQL, Map.of(), List.class, () -> {
+                entered.countDown();
+                await(release);
+                loads.incrementAndGet();
+                return List.of("row");
+            })));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get(TABLE, SQL, Map.of(), List.class, () -> {
+                    loads.incrementAndGet();
+                    return List.of("other");
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.stats().getCoalesced() < threads - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            Object first = futures.get(0).get();
+            for (Future<?> future : futures) {
+                assertSame(first, future.get());
+            }
+            assertEquals(1, loads.get());
+            assertEquals(threads - 1, cache.stats().getCoalesced());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedLoadIsPropagatedAndNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.get(TABLE, SQL, Map.of(), Long.class, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1L, get());
+    }
+
+    @Test
+    public void writeInvalidatesTheTable() {
+        assertEquals(1L, get());
+        caches.invalidate(TABLE, null);
+        assertEquals(2L, get());
+        assertEquals(2L, get());
+        caches.invalidate("other", null);
+        assertEquals(2L, get());
+    }
+
+    @Test
+    public void writeDuringLoadKeepsTheResultOutOfTheCache() {
+        assertEquals(-1L, cache.get(TABLE, SQL, Map.of(), Long.class, () -> {
+            caches.invalidate(TABLE, null);
+            return -1L;
+        }));
+        assertEquals(1L, get());
+    }
+
+    @Test
+    public void tableWrittenInTransactionIsNotCachedUntilReleased() {
+        Object tx = new Object();
+        assertEquals(1L, get());
+        caches.invalidate(TABLE, tx);
+        assertEquals(2L, get());
+        assertEquals(3L, get());
+
+        caches.release(tx);
+        assertEquals(4L, get());
+        assertEquals(4L, get());
+    }
+
+    @Test
+    public void writesThroughTheWrappedExecuterInvalidate() {
+        SqlExecuter sqlExecuter = (SqlExecuter) java.lang.reflect.Proxy.newProxyInstance(SqlExecuter.class.getClassLoader(), new Class<?>[] { SqlExecuter.class },
+                (proxy, method, args) -> 1L);
+        SqlExecuter invalidating = caches.invalidateAfterWrite(sqlExecuter, TABLE, null);
+        assertEquals(1L, get());
+        invalidating.selectColumn(() -> null, conn -> {}, SQL, Map.of(), Long.class);
+        assertEquals(1L, get());
+        invalidating.update(() -> null, conn -> {}, "DELETE FROM `pig` ", Map.of());
+        assertEquals(2L, get());
+        assertEquals(1, caches.invalidations());
+    }
+
+    @Test
+    public void rowsAreBounded() {
+        QueryCache small = new QueryCaches().enable(Object.class, 60_000L, 3).get(Object.class);
+        for (int i = 0; i < 10; i++) {
+            small.get(TABLE, SQL + i, Map.of(), List.class, () -> List.of(1, 2));
+        }
+        assertTrue(small.stats().getRows() <= 3);
+        assertTrue(small.stats().getEvictions() > 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 按主键查询的合并：领头线程为整个批次查询，其余线程等待结果
+ * <p>
+ * Batching of queries by primary key: the leader queries for the whole batch and the followers wait for the result
+ */
+public class IdBatcherTest {
+
+    private final List<List<Object>> queried = new CopyOnWriteArrayList<>();
+
+    private final Function<List<Object>, Map<Object, String>> loader = ids -> {
+        queried.add(ids);
+        Map<Object, String> found = new HashMap<>();
+        ids.stream().filter(id -> !id.equals(404L)).forEach(id -> found.put(id, "e" + id));
+        return found;
+    };
+
+    private List<Object> loadConcurrently(IdBatcher batcher, List<Long> ids) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (Long id : ids) {
+                Callable<String> call = () -> {
+                    start.await();
+                    return batcher.load(String.class, id, loader);
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<String> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void callsInOneWindowShareOneQuery() throws Exception {
+        IdBatcher batcher = new IdBatcher(500L, 100);
+        List<Long> ids = List.of(1L, 2L, 3L, 2L, 404L, 1L);
+        List<Object> results = this.loadConcurrently(batcher, ids);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i) == 404L ? null : "e" + ids.get(i), results.get(i));
+        }
+        assertSame(results.get(0), results.get(5));// 同一批次中相同的主键拿到同一个对象
+        assertEquals(1, batcher.loads());
+        assertEquals(ids.size(), batcher.calls());
+        assertEquals(1, queried.size());
+        assertEquals(4, queried.get(0).size());// 重复的主键只查询一次
+    }
+
+    @Test
+    public void fullBatchIsQueriedWithoutWaitingForTheWindow() throws Exception {
+        IdBatcher batcher = new IdBatcher(60_000L, 3);
+        long start = System.nanoTime();
+        List<Object> results = this.loadConcurrently(batcher, List.of(1L, 2L, 3L));
+        assertTrue(System.nanoTime() - start < 30_000_000_000L);
+        assertEquals(List.of("e1", "e2", "e3"), results);
+        assertEquals(1, batcher.loads());
+    }
+
+    @Test
+    public void callAfterTheWindowStartsANewBatch() {
+        IdBatcher batcher = new IdBatcher(0L, 100);
+        assertEquals("e1", batcher.load(String.class, 1L, loader));
+        assertNull(batcher.load(String.class, 404L, loader));
+        assertEquals(2, batcher.loads());
+    }
+
+    @Test
+    public void loaderFailureIsThrownToEveryCaller() throws Exception {
+        IdBatcher batcher = new IdBatcher(500L, 100);
+        IllegalStateException failure = new IllegalStateException("boom");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (long id = 1; id <= 3; id++) {
+                long key = id;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return batcher.load(String.class, key, ids -> {
+                        throw failure;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                assertSame(failure, e.getCause());
+            }
+            assertEquals(1, batcher.loads());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * JDBC桩：记录每条执行的SQL与参数，查询结果与受影响条数由测试给出，不连接数据库
+ * <p>
+ * JDBC stub: records every executed SQL with its parameters, query results and affected counts are given by the test, no database is connected
+ */
+class JdbcStub {
+
+    /**
+     * 一次执行
+     * <p>
+     * One execution
+     *
+     * @param sql           SQL
+     * @param params        参数，从0开始编号
+     *                      <p>
+     *                      Parameters, numbered from 0
+     * @param generatedKeys 是否读取自增主键
+     *                      <p>
+     *                      Whether generated keys are read
+     */
+    static record Execution(String sql, Map<Integer, Object> params, boolean generatedKeys) {}
+
+    final List<Execution> executions = Collections.synchronizedList(new ArrayList<>());
+
+    Function<String, List<Map<String, Object>>> rows = sql -> List.of();// SQL -> 查询结果的各行
+
+    ToLongFunction<Execution> affected = execution -> 1L;// 执行 -> 受影响条数
+
+    String productVersion = "5.7.44";
+
+    long nextKey = 1L;// 下一个自增主键
+
+    List<String> sqls() {
+        synchronized (executions) {
+            return executions.stream().map(Execution::sql).toList();
+        }
+    }
+
+    static Map<String, Object> row(Object... labelsAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < labelsAndValues.length; i += 2) {
+            row.put((String) labelsAndValues[i], labelsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    Connection connection() {
+        DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+        case "getDatabaseProductName" -> "MySQL";
+        case "getDatabaseProductVersion" -> productVersion;
+        default -> defaultValue(proxy, method, args);
+        });
+        return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+        case "prepareStatement" -> this.statement((String) args[0], args.length == 2 && Integer.valueOf(PreparedStatement.RETURN_GENERATED_KEYS).equals(args[1]));
+        case "getMetaData" -> metaData;
+        case "getAutoCommit" -> true;
+        default -> defaultValue(proxy, method, args);
+        });
+    }
+
+    private PreparedStatement statement(String sql, boolean generatedKeys) {
+        Map<Integer, Object> params = new LinkedHashMap<>();
+        List<Map<Integer, Object>> batch = new ArrayList<>();
+        List<Object> keys = new ArrayList<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                params.put(index - 1, name.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (name) {
+            case "executeQuery": {
+                executions.add(new Execution(sql, new LinkedHashMap<>(params), false));
+                return resultSet(rows.apply(sql));
+            }
+            case "executeUpdate": {
+                Execution execution = new Execution(sql, new LinkedHashMap<>(params), generatedKeys);
+                executions.add(execution);
+                keys.clear();
+                if (generatedKeys) {
+                    int count = sql.substring(sql.indexOf("VALUES")).split("\\),\\(").length;
+                    for (int i = 0; i < count; i++) {
+                        keys.add(nextKey++);
+                    }
+                }
+                return (int) affected.applyAsLong(execution);
+            }
+            case "getGeneratedKeys": {
+                List<Map<String, Object>> keyRows = new ArrayList<>();
+                keys.forEach(key -> keyRows.add(row("GENERATED_KEY", key)));
+                return resultSet(keyRows);
+            }
+            case "addBatch": {
+                batch.add(new LinkedHashMap<>(params));
+                params.clear();
+                return null;
+            }
+            case "executeBatch": {
+                int[] result = new int[batch.size()];
+                for (int i = 0; i < result.length; i++) {
+                    Execution execution = new Execution(sql, batch.get(i), false);
+                    executions.add(execution);
+                    result[i] = (int) affected.applyAsLong(execution);
+                }
+                batch.clear();
+                return result;
+            }
+            case "clearParameters": {
+                params.clear();
+                return null;
+            }
+            default:
+                return defaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        List<String> labels = rows.isEmpty() ? List.of() : new ArrayList<>(rows.get(0).keySet());
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+        case "getColumnCount" -> labels.size();
+        case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+        default -> defaultValue(proxy, method, args);
+        });
+        int[] cursor = { -1 };
+        boolean[] wasNull = { false };
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+            case "next":
+                return ++cursor[0] < rows.size();
+            case "getMetaData":
+                return metaData;
+            case "wasNull":
+                return wasNull[0];
+            case "findColumn":
+                return labels.indexOf(args[0]) + 1;
+            }
+            if (name.startsWith("get") && args != null && args.length >= 1 && (args[0] instanceof Integer || args[0] instanceof String)) {
+                Map<String, Object> row = rows.get(cursor[0]);
+                Object value = args[0] instanceof Integer index ? row.get(labels.get(index - 1)) : row.get(args[0]);
+                wasNull[0] = value == null;
+                Class<?> type = args.length == 2 && args[1] instanceof Class<?> c ? c : method.getReturnType();
+                return convert(value, type);
+            }
+            return defaultValue(proxy, method, args);
+        });
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return type.isPrimitive() ? primitiveDefault(type) : null;
+        }
+        if (value instanceof Number number) {
+            if (type == long.class || type == Long.class) {
+                return number.longValue();
+            }
+            if (type == int.class || type == Integer.class) {
+                return number.intValue();
+            }
+            if (type == double.class || type == Double.class) {
+                return number.doubleValue();
+            }
+            if (type == short.class || type == Short.class) {
+                return number.shortValue();
+            }
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> c, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(c.getClassLoader(), new Class<?>[] { c }, handler);
+    }
+
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        case "toString":
+            return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+        return method.getReturnType().isPrimitive() ? primitiveDefault(method.getReturnType()) : null;
+    }
+
+    private static Object primitiveDefault(Class<?> type) {
+        if (type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        return java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(type, 1), 0);
+    }
+}
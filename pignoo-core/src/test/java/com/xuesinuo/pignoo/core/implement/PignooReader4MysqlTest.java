@@ -0,0 +1,52 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.xuesinuo.pignoo.core.Pignoo;
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.PignooFilter.FMode;
+import com.xuesinuo.pignoo.core.entity.EntityMapper;
+
+import lombok.Data;
+
+/**
+ * MySQL reader的SQL形态缓存
+ * <p>
+ * SQL shape cache of the MySQL reader
+ */
+public class PignooReader4MysqlTest {
+
+    @Data
+    public static class Sheep {
+        private Long id;
+        private String name;
+    }
+
+    private final JdbcStub jdbc = new JdbcStub();
+    private final PignooConfig config = new PignooConfig();
+    private final Pignoo pignoo = (Pignoo) Proxy.newProxyInstance(Pignoo.class.getClassLoader(), new Class<?>[] { Pignoo.class }, (proxy, method, args) -> false);
+
+    private PignooReader4Mysql<Sheep> reader() {
+        return new PignooReader4Mysql<>(pignoo, jdbc::connection, conn -> {}, false, Sheep.class, config);
+    }
+
+    @Test
+    public void fullShapeCacheIsClearedForNewShapes() {
+        jdbc.rows = sql -> List.of(JdbcStub.row("COUNT(*)", 0L));
+        EntityMapper<Sheep> mapper = EntityMapper.build(Sheep.class, config);
+        mapper.sqlCache().clear();
+        for (int n = 1; n <= 300; n++) {// 每个IN列表长度是一种形态
+            this.reader().filter(Sheep::getId, FMode.IN, LongStream.rangeClosed(1, n).boxed().toList()).size();
+        }
+        assertEquals(300 - 256, mapper.sqlCache().size());
+        this.reader().filter(Sheep::getId, FMode.IN, List.of(1L)).size();
+        assertEquals(300 - 256 + 1, mapper.sqlCache().size());
+        assertEquals(301, jdbc.executions.size());
+    }
+}
@@ -0,0 +1,223 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.xuesinuo.pignoo.core.Pignoo;
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.annotation.Column;
+import com.xuesinuo.pignoo.core.config.LockMode;
+import com.xuesinuo.pignoo.core.entity.EntityMapper;
+import com.xuesinuo.pignoo.core.metrics.SqlMetrics;
+import com.xuesinuo.pignoo.core.metrics.StatementStats;
+
+import lombok.Data;
+
+/**
+ * MySQL writer生成的SQL
+ * <p>
+ * SQL generated by the MySQL writer
+ */
+public class PignooWriter4MysqlTest {
+
+    @Data
+    public static class Pig {
+        private Long id;
+        private String name;
+        private Integer weight;
+    }
+
+    @Data
+    public static class Cow {
+        private Long id;
+        private String name;
+        private Integer weight;
+        @Column(version = true)
+        private Long version;
+    }
+
+    private final JdbcStub jdbc = new JdbcStub();
+    private final PignooConfig config = new PignooConfig();
+    private final Pignoo pignoo = (Pignoo) Proxy.newProxyInstance(Pignoo.class.getClassLoader(), new Class<?>[] { Pignoo.class }, (proxy, method, args) -> false);
+
+    private <E> PignooWriter4Mysql<E> writer(Class<E> c, boolean inTransaction) {
+        return new PignooWriter4Mysql<>(pignoo, jdbc::connection, conn -> {}, inTransaction, c, config);
+    }
+
+    private static String table(Class<?> c) {
+        return "`" + EntityMapper.build(c, new PignooConfig()).tableName() + "`";
+    }
+
+    private static Pig pig(Long id, String name) {
+        Pig pig = new Pig();
+        pig.setId(id);
+        pig.setName(name);
+        return pig;
+    }
+
+
+    @Test
+    public void pollBatchInTransactionLocksAndDeletesAll() {
+        jdbc.rows = sql -> sql.startsWith("SELECT") ? List.of(JdbcStub.row("id", 1L, "name", "a", "weight", null), JdbcStub.row("id", 2L, "name", "b", "weight", null)) : List.of();
+        List<Pig> polled = this.writer(Pig.class, true).pollBatch(2);
+        assertEquals(2, polled.size());
+        List<String> sqls = jdbc.sqls();
+        assertEquals(2, sqls.size());
+        assertTrue(sqls.get(0).startsWith("SELECT "), sqls.get(0));
+        assertTrue(sqls.get(0).endsWith("LIMIT 2 FOR UPDATE "), sqls.get(0));
+        assertEquals("DELETE FROM " + table(Pig.class) + " WHERE `id` IN (?,?) ", sqls.get(1));
+    }
+
+    @Test
+    public void pollBatchOutsideTransactionReturnsOnlyRowsItDeleted() {
+        jdbc.rows = sql -> sql.startsWith("SELECT") ? List.of(JdbcStub.row("id", 1L, "name", "a", "weight", null), JdbcStub.row("id", 2L, "name", "b", "weight", null),
+                JdbcStub.row("id", 3L, "name", "c", "weight", null)) : List.of();
+        jdbc.affected = execution -> execution.params().get(0).equals(2L) ? 0L : 1L;// 2号被其他消费者抢先删除
+        List<Pig> polled = this.writer(Pig.class, false).pollBatch(3);
+        assertEquals(List.of(1L, 3L), polled.stream().map(Pig::getId).toList());
+        List<String> sqls = jdbc.sqls();
+        assertFalse(sqls.get(0).contains("FOR UPDATE"), sqls.get(0));
+        assertEquals(4, sqls.size());
+        for (int i = 1; i < 4; i++) {
+            assertEquals("DELETE FROM " + table(Pig.class) + " WHERE `id`=? ", sqls.get(i));
+        }
+    }
+
+    @Test
+    public void pollBatchKeepsRowLocksInOptimisticMode() {
+        config.setLockMode(LockMode.OPTIMISTIC);
+        this.writer(Cow.class, true).pollBatch(5);
+        assertTrue(jdbc.sqls().get(0).endsWith("LIMIT 5 FOR UPDATE "), jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void rowAliasIsUsedFromMysql8019() {
+        assertTrue(PignooWriter4Mysql.rowAliasSupported("8.0.19"));
+        assertTrue(PignooWriter4Mysql.rowAliasSupported("8.4.0"));
+        assertTrue(PignooWriter4Mysql.rowAliasSupported("9.1.0-commercial"));
+        assertFalse(PignooWriter4Mysql.rowAliasSupported("8.0.18"));
+        assertFalse(PignooWriter4Mysql.rowAliasSupported("5.7.44-log"));
+        assertFalse(PignooWriter4Mysql.rowAliasSupported("10.11.6-MariaDB"));
+        assertFalse(PignooWriter4Mysql.rowAliasSupported(null));
+    }
+
+    @Test
+    public void upsertUsesValuesOnOldServers() {
+        this.writer(Pig.class, false).upsert(pig(1L, "a"));
+        assertEquals("INSERT INTO " + table(Pig.class) + " (`id`,`name`,`weight`) VALUES (?,?,NULL) "
+                + "ON DUPLICATE KEY UPDATE `name`=VALUES(`name`),`weight`=VALUES(`weight`) ", jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void upsertUsesTheRowAliasOnNewServers() {
+        jdbc.productVersion = "8.0.36";
+        this.writer(Pig.class, false).mixUpsert(pig(1L, "a"));
+        assertEquals("INSERT INTO " + table(Pig.class) + " (`id`,`name`) VALUES (?,?) AS `new` "
+                + "ON DUPLICATE KEY UPDATE `name`=`new`.`name` ", jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void upsertIncreasesTheVersionInsteadOfWritingIt() {
+        Cow cow = new Cow();
+        cow.setId(1L);
+        cow.setName("moo");
+        cow.setVersion(1L);
+        this.writer(Cow.class, false).upsert(cow);
+        assertTrue(jdbc.sqls().get(0).endsWith("ON DUPLICATE KEY UPDATE `name`=VALUES(`name`),`weight`=VALUES(`weight`),`version`=`version`+1 "), jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void upsertBatchesOnlyConsecutiveRowsWithTheSameColumns() {
+        PignooWriter4Mysql<Pig> writer = this.writer(Pig.class, false);
+        Pig weighted = pig(2L, null);
+        weighted.setWeight(9);
+        writer.mixUpsertAll(List.of(pig(1L, "a"), weighted, pig(3L, "c")));
+        assertEquals(3, jdbc.executions.size());
+        assertEquals(List.of(2L, 9), List.copyOf(jdbc.executions.get(1).params().values()));
+    }
+
+    @Test
+    public void mixAllIncreasesTheVersionInsteadOfWritingIt() {
+        Cow cow = new Cow();
+        cow.setName("moo");
+        cow.setVersion(1L);
+        this.writer(Cow.class, false).mixAll(cow);
+        assertEquals("UPDATE " + table(Cow.class) + " SET `name`=?,`version`=`version`+1 ", jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void incrementAlsoIncreasesTheVersion() {
+        this.writer(Cow.class, false).increment(Cow::getWeight, 5);
+        assertEquals("UPDATE " + table(Cow.class) + " SET `weight`=`weight`+?,`version`=`version`+1 ", jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void incrementOfTheVersionIncreasesItOnce() {
+        this.writer(Cow.class, false).increment(Cow::getVersion, 1L);
+        assertEquals("UPDATE " + table(Cow.class) + " SET `version`=`version`+? ", jdbc.sqls().get(0));
+    }
+
+    @Test
+    public void compareAndSetAlsoIncreasesTheVersion() {
+        this.writer(Cow.class, false).compareAndSet(Cow::getName, "moo", "baa");
+        assertEquals("UPDATE " + table(Cow.class) + " SET `name`=?,`version`=`version`+1 WHERE `name`=? ", jdbc.sqls().get(0));
+        assertEquals(List.of("baa", "moo"), List.copyOf(jdbc.executions.get(0).params().values()));
+    }
+
+    @Test
+    public void addAllIsSplitByBatchSizeAndSetsGeneratedKeysBack() {
+        config.setBatchSize(2);
+        List<Pig> pigs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pigs.add(pig(null, "p" + i));
+        }
+        this.writer(Pig.class, false).addAll(pigs);
+        assertEquals(3, jdbc.executions.size());
+        assertEquals("INSERT INTO " + table(Pig.class) + " (`name`) VALUES (?),(?) ", jdbc.sqls().get(0));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), pigs.stream().map(Pig::getId).toList());
+    }
+
+    @Test
+    public void addAllKeepsRowsWithAndWithoutKeysInSeparateBatches() {
+        this.writer(Pig.class, false).addAll(List.of(pig(null, "a"), pig(10L, "b"), pig(null, "c")));
+        assertEquals(List.of(true, false, true), jdbc.executions.stream().map(JdbcStub.Execution::generatedKeys).toList());// 有主键的一行不读取自增主键
+    }
+
+    @Test
+    public void addAllStaysUnderTheParameterLimit() {
+        config.setBatchSize(100_000);
+        int rowsPerStatement = 65535 / 3;// MySQL单条语句最多65535个占位符
+        List<Pig> pigs = new ArrayList<>();
+        for (int i = 0; i <= rowsPerStatement; i++) {
+            Pig pig = pig((long) i + 1, "p");
+            pig.setWeight(i);
+            pigs.add(pig);
+        }
+        this.writer(Pig.class, false).addAll(pigs);
+        assertEquals(2, jdbc.executions.size());
+        assertEquals(rowsPerStatement * 3, jdbc.executions.get(0).params().size());
+        assertEquals(3, jdbc.executions.get(1).params().size());
+    }
+
+    @Test
+    public void writesAreRecordedUnderTheEntityType() {
+        SqlMetrics metrics = new SqlMetrics();
+        config.setSqlInterceptors(List.of(metrics));
+        jdbc.rows = sql -> List.of(JdbcStub.row("SUM(`weight`)", 0L));
+        PignooWriter4Mysql<Pig> writer = this.writer(Pig.class, false);
+        writer.addAll(List.of(pig(null, "a"), pig(null, "b")));
+        writer.mixAll(pig(null, "c"));
+        writer.increment(Pig::getWeight, 1);
+        writer.sum(Pig::getWeight, Integer.class);
+        List<String> sqls = metrics.snapshot(Pig.class).stream().map(StatementStats::getSql).toList();
+        assertEquals(4, sqls.size(), sqls.toString());
+        assertEquals(metrics.snapshot().size(), sqls.size());
+    }
+}
@@ -0,0 +1,230 @@
+package com.xuesinuo.pignoo.core.implement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.SqlExecuter;
+import com.xuesinuo.pignoo.core.annotation.Column;
+import com.xuesinuo.pignoo.core.entity.EntityMapper;
+import com.xuesinuo.pignoo.core.exception.OptimisticLockException;
+import com.xuesinuo.pignoo.core.exception.PignooRuntimeException;
+
+import lombok.Data;
+
+/**
+ * 延迟setter更新的脏字段合并与乐观锁检查
+ * <p>
+ * Dirty field merging and optimistic lock checks of deferred setter updates
+ */
+public class UnitOfWorkTest {
+
+    @Data
+    public static class Pig {
+        private Long id;
+        private String name;
+        private Integer weight;
+    }
+
+    @Data
+    public static class Cow {
+        private Long id;
+        private String name;
+        @Column(version = true)
+        private Long version;
+    }
+
+    private final JdbcStub jdbc = new JdbcStub();
+    private final UnitOfWork unitOfWork = new UnitOfWork();
+    private final EntityMapper<Pig> pigMapper = EntityMapper.build(Pig.class, new PignooConfig());
+    private final EntityMapper<Cow> cowMapper = EntityMapper.build(Cow.class, new PignooConfig());
+
+    private static Pig pig(long id, String name, Integer weight) {
+        Pig pig = new Pig();
+        pig.setId(id);
+        pig.setName(name);
+        pig.setWeight(weight);
+        return pig;
+    }
+
+    private void track(EntityMapper<?> mapper, Object entity, String column, Object oldValue) {
+        unitOfWork.track(mapper, entity, mapper.columns().indexOf(column), oldValue, SimpleJdbcSqlExecuter.getInstance(), jdbc::connection, conn -> {});
+    }
+
+    @Test
+    public void valueSetBackToTheOriginalIsNotWritten() {
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        this.track(pigMapper, pig, "name", "b");
+        pig.setName("a");
+        assertFalse(unitOfWork.isEmpty());
+        unitOfWork.flush();
+        assertTrue(jdbc.executions.isEmpty());
+        assertTrue(unitOfWork.isEmpty());
+    }
+
+    @Test
+    public void changesOfOneEntityAreMergedIntoOneUpdate() {
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        this.track(pigMapper, pig, "weight", 10);
+        pig.setWeight(11);
+        this.track(pigMapper, pig, "name", "b");
+        pig.setName("c");
+        unitOfWork.flush();
+        assertEquals(1, jdbc.executions.size());
+        JdbcStub.Execution call = jdbc.executions.get(0);
+        assertTrue(call.sql().startsWith("UPDATE `" + pigMapper.tableName() + "` SET `name` = "), call.sql());
+        assertTrue(call.sql().contains(",`weight` = "), call.sql());
+        assertEquals(List.of("c", 11, 1L), List.copyOf(call.params().values()));
+    }
+
+    @Test
+    public void entitiesWithTheSameDirtyColumnsShareOneStatement() {
+        Pig pig1 = pig(1L, "a", 10);
+        Pig pig2 = pig(2L, "a", 10);
+        this.track(pigMapper, pig1, "name", "a");
+        pig1.setName("b");
+        this.track(pigMapper, pig2, "name", "a");
+        pig2.setName("c");
+        unitOfWork.flush();
+        assertEquals(2, jdbc.executions.size());
+        assertEquals(jdbc.executions.get(0).sql(), jdbc.executions.get(1).sql());
+    }
+
+    @Test
+    public void flushOfATableLeavesOtherTablesPending() {
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        Cow cow = new Cow();
+        cow.setId(1L);
+        this.track(cowMapper, cow, "name", null);
+        cow.setName("moo");
+        unitOfWork.flush(cowMapper.tableName());
+        assertEquals(1, jdbc.executions.size());
+        assertTrue(jdbc.executions.get(0).sql().startsWith("UPDATE `" + cowMapper.tableName() + "` "));
+        assertFalse(unitOfWork.isEmpty());
+        unitOfWork.flush();
+        assertEquals(2, jdbc.executions.size());
+        assertTrue(unitOfWork.isEmpty());
+    }
+
+    @Test
+    public void sqlOnTheTableFlushesFirst() {
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        SqlExecuter flushing = unitOfWork.flushBefore(SimpleJdbcSqlExecuter.getInstance(), pigMapper.tableName());
+        String count = "SELECT COUNT(*) FROM `" + pigMapper.tableName() + "` ";
+        jdbc.rows = sql -> List.of(JdbcStub.row("COUNT(*)", 0L));
+        flushing.selectColumn(jdbc::connection, conn -> {}, count, Map.of(), Long.class);
+        assertEquals(2, jdbc.executions.size());
+        assertTrue(jdbc.sqls().get(0).startsWith("UPDATE `" + pigMapper.tableName() + "` "), jdbc.sqls().get(0));
+        assertEquals(count, jdbc.sqls().get(1));
+    }
+
+    @Test
+    public void versionIsComparedAndIncreased() {
+        Cow cow = new Cow();
+        cow.setId(1L);
+        cow.setVersion(3L);
+        this.track(cowMapper, cow, "name", null);
+        cow.setName("moo");
+        unitOfWork.flush();
+        JdbcStub.Execution call = jdbc.executions.get(0);
+        assertTrue(call.sql().contains(",`version` = `version` + 1 "), call.sql());
+        assertTrue(call.sql().contains("AND `version` = "), call.sql());
+        assertEquals(3L, call.params().get(call.params().size() - 1));
+        assertEquals(4L, cow.getVersion());
+    }
+
+    @Test
+    public void staleVersionThrows() {
+        jdbc.affected = execution -> 0L;
+        Cow cow = new Cow();
+        cow.setId(1L);
+        cow.setVersion(3L);
+        this.track(cowMapper, cow, "name", null);
+        cow.setName("moo");
+        OptimisticLockException e = assertThrows(OptimisticLockException.class, unitOfWork::flush);
+        assertSame(cow, e.getEntity());
+        assertEquals(3L, cow.getVersion());
+    }
+
+    @Test
+    public void staleVersionDoesNotStopTheOtherUpdates() {
+        jdbc.affected = execution -> execution.sql().startsWith("UPDATE `" + cowMapper.tableName() + "` ") ? 0L : 1L;
+        Cow cow = new Cow();
+        cow.setId(1L);
+        cow.setVersion(3L);
+        this.track(cowMapper, cow, "name", null);
+        cow.setName("moo");
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        assertThrows(OptimisticLockException.class, unitOfWork::flush);
+        assertEquals(2, jdbc.executions.size());
+        assertTrue(unitOfWork.isEmpty());
+    }
+
+    @Test
+    public void failedUpdateStaysPendingWhileTheOthersAreWritten() {
+        IllegalStateException failure = new IllegalStateException("connection lost");
+        jdbc.affected = execution -> {
+            if (execution.sql().startsWith("UPDATE `" + pigMapper.tableName() + "` ")) {
+                throw failure;
+            }
+            return 1L;
+        };
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        Cow cow = new Cow();
+        cow.setId(1L);
+        this.track(cowMapper, cow, "name", null);
+        cow.setName("moo");
+        assertSame(failure, assertThrows(PignooRuntimeException.class, unitOfWork::flush).getCause());
+        assertEquals(2, jdbc.executions.size());
+        assertFalse(unitOfWork.isEmpty());
+        jdbc.affected = execution -> 1L;
+        unitOfWork.flush();
+        assertEquals(3, jdbc.executions.size());
+        assertTrue(jdbc.sqls().get(2).startsWith("UPDATE `" + pigMapper.tableName() + "` "), jdbc.sqls().get(2));
+        assertTrue(unitOfWork.isEmpty());
+    }
+
+    @Test
+    public void directlyModifiedVersionIsNotCompared() {
+        jdbc.affected = execution -> 0L;
+        Cow cow = new Cow();
+        cow.setId(1L);
+        cow.setVersion(3L);
+        this.track(cowMapper, cow, "version", 3L);
+        cow.setVersion(7L);
+        unitOfWork.flush();
+        assertFalse(jdbc.executions.get(0).sql().contains("AND `version`"));
+        assertEquals(7L, cow.getVersion());
+    }
+
+    @Test
+    public void clearDiscardsPendingChanges() {
+        Pig pig = pig(1L, "a", 10);
+        this.track(pigMapper, pig, "name", "a");
+        pig.setName("b");
+        unitOfWork.clear();
+        assertTrue(unitOfWork.isEmpty());
+        unitOfWork.flush();
+        assertTrue(jdbc.executions.isEmpty());
+    }
+}
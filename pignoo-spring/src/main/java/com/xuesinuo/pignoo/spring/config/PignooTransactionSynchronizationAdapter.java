@@ -7,19 +7,24 @@ import com.xuesinuo.pignoo.spring.implement.SpringPignoo;
 import lombok.RequiredArgsConstructor;
 
 /**
- * Pignoo事务同步适配器，事务结束时，用于Close Pignoo
+ * Pignoo事务同步适配器，事务提交前刷新延迟的更新，事务结束时，用于Close Pignoo
  * <p>
- * Pignoo Transaction Synchronization Adapter, used to close Pignoo when the transaction ends
+ * Pignoo Transaction Synchronization Adapter, used to flush deferred updates before the transaction commits and to close Pignoo when the transaction ends
  *
  * @author xuesinuo
  * @since 0.2.1
- * @version 0.2.1
+ * @version 1.2.0
  */
 @RequiredArgsConstructor
 public class PignooTransactionSynchronizationAdapter implements TransactionSynchronization {
 
     private final SpringPignoo springPignoo;
 
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        springPignoo.flushSpringTransaction();
+    }
+
     @Override
     public void afterCompletion(int status) {
         springPignoo.closeSpringTransaction();
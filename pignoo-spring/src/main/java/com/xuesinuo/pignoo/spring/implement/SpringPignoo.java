@@ -43,20 +43,20 @@ import com.xuesinuo.pignoo.spring.config.PignooTransactionSynchronizationAdapter
  *
  * @author xuesinuo
  * @since 0.2.1
- * @version 0.2.1
+ * @version 1.2.0
  */
 @Slf4j
 public class SpringPignoo implements Pignoo {
 
-    private DataSource dataSource;// 数据源
+    private volatile DataSource dataSource;// 数据源
 
     private final PignooConfig config;// 配置
 
-    private SpringPignooItem basePignoo;// 基础Pignoo，用于非事务操作
+    private volatile SpringPignooItem basePignoo;// 基础Pignoo，用于非事务操作，所有线程共享
 
     private final ThreadLocal<SpringPignooItem> transactionPignooThreadLocal = new ThreadLocal<>();// 事务Pignoo，每个线程分配一个（支持JTA）
 
-    private boolean hasClosed = false;// 是否已经关闭
+    private volatile boolean hasClosed = false;// 是否已经关闭
 
     /**
      * 构造器
@@ -138,14 +138,45 @@ public class SpringPignoo implements Pignoo {
             }
             pignoo = transactionPignoo;
         } else {
-            if (this.basePignoo.closed()) {
-                this.basePignoo = new SpringPignooItem(dataSource, config, false);
-            }
             pignoo = this.basePignoo;
+            if (pignoo.closed()) {
+                pignoo = this.renewBasePignoo();
+            }
         }
         return pignoo;
     }
 
+    /**
+     * 基础Pignoo被关闭后重新创建；只在这条很少走到的路径上加锁，避免并发时重复创建
+     * <p>
+     * Recreate the base Pignoo after it was closed; only this rarely taken path is locked, to avoid creating it repeatedly under concurrency
+     */
+    private synchronized SpringPignooItem renewBasePignoo() {
+        if (this.basePignoo.closed()) {
+            this.basePignoo = new SpringPignooItem(dataSource, config, false);
+        }
+        return this.basePignoo;
+    }
+
+    @Override
+    public void flush() {
+        this.getPignoo().flush();
+    }
+
+    /**
+     * Spring事务提交前，刷新当前线程事务中延迟的setter更新
+     * <p>
+     * Before the Spring transaction commits, flush the deferred setter updates of the transaction of the current thread
+     *
+     * @since 1.2.0
+     */
+    public void flushSpringTransaction() {
+        SpringPignooItem pignoo = transactionPignooThreadLocal.get();
+        if (pignoo != null) {
+            pignoo.flush();
+        }
+    }
+
     /**
      * 关闭Spring事务时的关闭资源规则
      * <p>
@@ -15,11 +15,14 @@ import com.xuesinuo.pignoo.core.PignooWriter;
 import com.xuesinuo.pignoo.core.PignooReader;
 import com.xuesinuo.pignoo.core.implement.PignooWriter4Mysql;
 import com.xuesinuo.pignoo.core.implement.PignooReader4Mysql;
+import com.xuesinuo.pignoo.core.implement.UnitOfWork;
+import com.xuesinuo.pignoo.core.implement.IdentityMap;
 
 import lombok.extern.slf4j.Slf4j;
 
 import com.xuesinuo.pignoo.core.config.DatabaseEngine;
 import com.xuesinuo.pignoo.core.exception.DataSourceException;
+import com.xuesinuo.pignoo.core.exception.PignooRuntimeException;
 
 /**
  * Spring事务Pignoo实现
@@ -28,18 +31,22 @@ import com.xuesinuo.pignoo.core.exception.DataSourceException;
  *
  * @author xuesinuo
  * @since 0.2.1
- * @version 0.2.1
+ * @version 1.2.0
  */
 @Slf4j
 public class SpringPignooItem implements Pignoo {
 
     private final PignooConfig config;// Pignoo配置
 
-    private DataSource dataSource;// 数据源
+    private volatile DataSource dataSource;// 数据源，关闭后为null
 
     private final boolean inTransaction;// 是否在事务中
 
-    private boolean hasClosed = false;// 是否已经关闭
+    private volatile boolean hasClosed = false;// 是否已经关闭
+
+    private final UnitOfWork unitOfWork;// 延迟的setter更新，不在事务中或未开启时为null
+
+    private final IdentityMap identityMap;// 事务内的一级缓存，不在事务中或未开启时为null
 
     /**
      * 构造器
@@ -65,6 +72,9 @@ public class SpringPignooItem implements Pignoo {
             this.config = pignooConfig.copy();
         }
         this.inTransaction = inTransaction;
+        this.identityMap = inTransaction && this.config.getTransactionIdentityMap() != null && this.config.getTransactionIdentityMap() ? new IdentityMap() : null;
+        // 非事务的SpringPignooItem被所有线程共享，延迟更新只在事务中开启，否则一个请求的修改会在另一个请求的查询中刷新
+        this.unitOfWork = inTransaction && this.config.getDeferSetterUpdate() != null && this.config.getDeferSetterUpdate() ? new UnitOfWork(this.config.getEntityCaches(), this) : null;
         if (this.config.getEngine() == null) {
             Connection conn = null;
             try {
@@ -88,8 +98,18 @@ public class SpringPignooItem implements Pignoo {
         return this.dataSource;
     }
 
-    private synchronized Connection getConnection() {
-        return DataSourceUtils.getConnection(this.dataSource);
+    /**
+     * 获取连接：不加锁，非事务的SpringPignooItem被所有线程共享，连接池与Spring的事务资源本身是线程安全的
+     * <p>
+     * Get a connection: lock-free, the non-transactional SpringPignooItem is shared by all threads, and the connection pool and Spring's transaction resources are
+     * thread-safe themselves
+     */
+    private Connection getConnection() {
+        DataSource dataSource = this.dataSource;
+        if (dataSource == null) {
+            throw new PignooRuntimeException("Pignoo has closed, can not get connection");
+        }
+        return DataSourceUtils.getConnection(dataSource);
     }
 
     private Supplier<Connection> connGetter = () -> this.getConnection();
@@ -102,7 +122,7 @@ public class SpringPignooItem implements Pignoo {
     public <E> PignooWriter<E> writer(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, this.inTransaction, c, this.config);
+            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, this.inTransaction, c, this.config, this.unitOfWork, this.identityMap);
         }
         throw new DataSourceException("Unknow database engine");
     }
@@ -111,13 +131,34 @@ public class SpringPignooItem implements Pignoo {
     public <E> PignooReader<E> reader(Class<E> c) {
         switch (this.config.getEngine()) {
         case MySQL:
-            return new PignooReader4Mysql<E>(this, connGetter, connCloser, this.inTransaction, c, this.config);
+            return new PignooReader4Mysql<E>(this, connGetter, connCloser, this.inTransaction, c, this.config, this.unitOfWork, this.identityMap);
         }
         throw new DataSourceException("Unknow database engine");
     }
 
+    @Override
+    public void flush() {
+        if (this.unitOfWork != null) {
+            this.unitOfWork.flush();
+        }
+    }
+
     @Override
     public void close() {
+        if (!this.hasClosed && this.unitOfWork != null) {
+            this.unitOfWork.clear();// 事务内的修改已在提交前刷新，此时事务已结束
+        }
+        if (this.identityMap != null) {
+            this.identityMap.clear();
+        }
+        if (!this.hasClosed && this.inTransaction) {
+            if (this.config.getEntityCaches() != null) {
+                this.config.getEntityCaches().release(this);// 事务已结束，其中写过的主键可以重新写入缓存
+            }
+            if (this.config.getQueryCaches() != null) {
+                this.config.getQueryCaches().release(this);// 事务已结束，其中写过的表可以重新写入缓存
+            }
+        }
         this.hasClosed = true;
         this.dataSource = null;
     }
@@ -0,0 +1,262 @@
+package com.xuesinuo.pignoo.spring.implement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.xuesinuo.pignoo.core.Pignoo;
+import com.xuesinuo.pignoo.core.PignooConfig;
+import com.xuesinuo.pignoo.core.PignooReader;
+import com.xuesinuo.pignoo.core.PignooWriter;
+import com.xuesinuo.pignoo.core.config.DatabaseEngine;
+import com.xuesinuo.pignoo.core.implement.PignooReader4Mysql;
+import com.xuesinuo.pignoo.core.implement.PignooWriter4Mysql;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 非事务SpringPignooItem的并发基准：N个线程通过同一个共享的Pignoo查询一个带连接池的桩数据源，对比原实现（synchronized的getConnection()）与现实现（不加锁）的吞吐
+ * <p>
+ * Concurrency benchmark of the non-transactional SpringPignooItem: N threads query a pooled stub data source through one shared Pignoo, comparing the throughput of
+ * the former implementation (synchronized getConnection()) and the current one (lock-free)
+ * <p>
+ * 默认不执行，使用{@code mvn test -Pbenchmark}运行；吞吐通过SLF4J输出，不断言耗时，只断言每次查询的结果正确、连接全部归还
+ * <p>
+ * Not run by default, run with {@code mvn test -Pbenchmark}; the throughput is logged through SLF4J, timing is not asserted, only that every query returns the right
+ * result and all connections are returned
+ */
+@Slf4j
+@Tag("benchmark")
+public class SpringPignooItemConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int POOL_SIZE = 16;
+    private static final int QUERIES_PER_THREAD = 200;
+    private static final long CHECKOUT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);// 从连接池取出连接的耗时
+    private static final long QUERY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);// 一次查询的耗时
+    private static final long ROWS = 42L;
+    private static final int ROUNDS = 5;// 两种实现交替执行的轮数，取中位数
+
+    @Data
+    public static class Item {
+        private Long id;
+        private String name;
+    }
+
+    @Test
+    public void nonTransactionalReadsScaleAcrossThreads() throws Exception {
+        StubPool pool = new StubPool(POOL_SIZE);
+        PignooConfig config = new PignooConfig();
+        config.setEngine(DatabaseEngine.MySQL);
+        this.run(new SynchronizedSpringPignooItem(pool, config), pool);// 预热
+        this.run(new SpringPignooItem(pool, config, false), pool);
+        long[] synchronizedNanos = new long[ROUNDS];
+        long[] lockFreeNanos = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            synchronizedNanos[round] = this.run(new SynchronizedSpringPignooItem(pool, config), pool);
+            lockFreeNanos[round] = this.run(new SpringPignooItem(pool, config, false), pool);
+        }
+        int queries = THREADS * QUERIES_PER_THREAD;
+        long before = median(synchronizedNanos);
+        long after = median(lockFreeNanos);
+        log.info("SpringPignooItem {} threads, pool {}, {} queries, median of {} rounds: synchronized getConnection() {} q/s, lock-free {} q/s (x{})",
+                THREADS, POOL_SIZE, queries, ROUNDS, Math.round(queries * 1e9 / before), Math.round(queries * 1e9 / after), String.format("%.2f", (double) before / after));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * 全部线程通过同一个非事务的Pignoo查询，结束后关闭它
+     * <p>
+     * All threads query through the same non-transactional Pignoo, which is closed afterwards
+     *
+     * @return 耗时（纳秒）
+     *         <p>
+     *         Elapsed time (nanoseconds)
+     */
+    private long run(Pignoo pignoo, StubPool pool) throws Exception {
+        long checkouts = pool.checkouts.sum();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < QUERIES_PER_THREAD; i++) {
+                        assertEquals(ROWS, pignoo.reader(Item.class).size());
+                    }
+                    return null;
+                }));
+            }
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - startTime;
+            assertEquals(THREADS * QUERIES_PER_THREAD, pool.checkouts.sum() - checkouts);
+            assertEquals(POOL_SIZE, pool.permits.availablePermits());
+            return elapsed;
+        } finally {
+            executor.shutdownNow();
+            pignoo.close();
+        }
+    }
+
+    /**
+     * 原实现的非事务SpringPignooItem：getConnection()是synchronized，所有线程在同一个监视器上获取连接，连接池的等待也在锁内
+     * <p>
+     * The former non-transactional SpringPignooItem: getConnection() is synchronized, all threads get connections on the same monitor, including the wait for the pool
+     */
+    private static class SynchronizedSpringPignooItem implements Pignoo {
+        private final PignooConfig config;
+        private DataSource dataSource;
+        private boolean hasClosed = false;
+
+        private SynchronizedSpringPignooItem(DataSource dataSource, PignooConfig config) {
+            this.dataSource = dataSource;
+            this.config = config.copy();
+        }
+
+        private synchronized Connection getConnection() {
+            return DataSourceUtils.getConnection(this.dataSource);
+        }
+
+        private Supplier<Connection> connGetter = () -> this.getConnection();
+
+        private Consumer<Connection> connCloser = (conn) -> {
+            DataSourceUtils.releaseConnection(conn, this.dataSource);
+        };
+
+        @Override
+        public <E> PignooWriter<E> writer(Class<E> c) {
+            return new PignooWriter4Mysql<E>(this, connGetter, connCloser, false, c, this.config);
+        }
+
+        @Override
+        public <E> PignooReader<E> reader(Class<E> c) {
+            return new PignooReader4Mysql<E>(this, connGetter, connCloser, false, c, this.config);
+        }
+
+        @Override
+        public void close() {
+            this.hasClosed = true;
+            this.dataSource = null;
+        }
+
+        @Override
+        public boolean closed() {
+            return hasClosed;
+        }
+    }
+
+    /**
+     * 桩连接池：固定数量的连接，取出与查询各有固定耗时，查询总是返回{@link #ROWS}
+     * <p>
+     * Stub pool: a fixed number of connections, checking out and querying each take a fixed time, queries always return {@link #ROWS}
+     */
+    private static class StubPool extends DelegatingDataSource {
+        private final Semaphore permits;
+        private final LongAdder checkouts = new LongAdder();
+
+        private StubPool(int size) {
+            super(stub(DataSource.class, (proxy, method, args) -> defaultValue(proxy, method, args)));
+            this.permits = new Semaphore(size);
+        }
+
+        @Override
+        public Connection getConnection() {
+            permits.acquireUninterruptibly();
+            LockSupport.parkNanos(CHECKOUT_NANOS);
+            checkouts.increment();
+            AtomicBoolean closed = new AtomicBoolean(false);
+            return stub(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> statement();
+            case "getMetaData" -> stub(DatabaseMetaData.class, (p, m, a) -> "getDatabaseProductName".equals(m.getName()) ? "MySQL" : defaultValue(p, m, a));
+            case "getAutoCommit" -> true;
+            case "isClosed" -> closed.get();
+            case "close" -> {
+                if (closed.compareAndSet(false, true)) {
+                    permits.release();
+                }
+                yield null;
+            }
+            default -> defaultValue(proxy, method, args);
+            });
+        }
+
+        private static PreparedStatement statement() {
+            return stub(PreparedStatement.class, (proxy, method, args) -> {
+                if (!"executeQuery".equals(method.getName())) {
+                    return defaultValue(proxy, method, args);
+                }
+                LockSupport.parkNanos(QUERY_NANOS);
+                AtomicBoolean read = new AtomicBoolean(false);
+                return stub(ResultSet.class, (p, m, a) -> switch (m.getName()) {
+                case "next" -> read.compareAndSet(false, true);
+                case "getObject", "getLong" -> ROWS;
+                default -> defaultValue(p, m, a);
+                });
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> c, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(c.getClassLoader(), new Class<?>[] { c }, handler);
+    }
+
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        case "toString":
+            return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type.isPrimitive() && type != void.class) {
+            return Array.get(Array.newInstance(type, 1), 0);
+        }
+        return null;
+    }
+}